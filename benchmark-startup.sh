@@ -0,0 +1,67 @@
+#!/bin/bash
+# Cold-start benchmark: time from process launch to the first successful API response.
+#
+#   ./benchmark-startup.sh [runs] [url]
+#
+# Compares the plain jar with the dev defaults, the plain jar with the prod profile and the
+# build-prod.sh layout (prod + AOT + CDS). Each run also reports the application's own
+# time_to_ready_ms / time_to_first_request_ms log lines, measured from JVM start.
+RUNS=${1:-5}
+URL=${2:-http://localhost:8080/api/cities/popular}
+JAR=target/ziyara-0.0.1-SNAPSHOT.jar
+LOG=target/startup-benchmark.log
+
+if [ ! -f "$JAR" ]; then
+    echo "❌ $JAR not found. Run ./build-prod.sh (or ./mvnw package) first."
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+run_once() {
+    local start end pid
+    start=$(now_ms)
+    "$@" > "$LOG" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "failed (see $LOG)"
+            return 1
+        fi
+        sleep 0.05
+    done
+    end=$(now_ms)
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+    local ready first
+    ready=$(grep -o "time_to_ready_ms=[0-9]*" "$LOG" | cut -d= -f2)
+    first=$(grep -o "time_to_first_request_ms=[0-9]*" "$LOG" | cut -d= -f2)
+    echo "$((end - start)) ${ready:--} ${first:--}"
+}
+
+benchmark() {
+    local name=$1
+    shift
+    local total=0 count=0 result
+    echo "⏱️  $name"
+    for i in $(seq 1 "$RUNS"); do
+        result=$(run_once "$@") || { echo "   run $i: $result"; continue; }
+        read -r wall ready first <<< "$result"
+        echo "   run $i: first response ${wall} ms (jvm ready ${ready} ms, first request ${first} ms)"
+        total=$((total + wall))
+        count=$((count + 1))
+    done
+    if [ "$count" -gt 0 ]; then
+        echo "   average: $((total / count)) ms"
+    fi
+}
+
+benchmark "jar, default profile" java -jar "$JAR"
+benchmark "jar, prod profile" java -Dspring.profiles.active=prod -jar "$JAR"
+if [ -f target/prod/application.jsa ]; then
+    benchmark "prod + AOT + CDS" ./start-prod.sh
+else
+    echo "⚠️  Skipping prod + AOT + CDS, run ./build-prod.sh first"
+fi
@@ -1,14 +1,18 @@
 package ma.enset.ziyara;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication(exclude = {SecurityAutoConfiguration.class})
+@SpringBootApplication(exclude = {SecurityAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class})
 @EnableJpaAuditing
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1) // outside CacheTagsAspect, so tags are only evaluated on misses
+@EnableScheduling
 public class ZiyaraBackendApplication {
 
     public static void main(String[] args) {
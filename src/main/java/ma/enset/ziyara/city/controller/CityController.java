@@ -10,12 +10,15 @@ import ma.enset.ziyara.city.dto.CityCreateRequest;
 import ma.enset.ziyara.city.dto.CityDto;
 import ma.enset.ziyara.city.dto.CityUpdateRequest;
 import ma.enset.ziyara.city.service.CityService;
+import ma.enset.ziyara.core.cache.ResponseBodyCache;
 import ma.enset.ziyara.core.dto.ApiResult;
 import ma.enset.ziyara.core.dto.PageResponse;
+import ma.enset.ziyara.core.dto.ResourceVersion;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
@@ -31,6 +34,7 @@ import java.util.List;
 public class CityController {
 
     private final CityService cityService;
+    private final ResponseBodyCache responseBodyCache;
 
     @GetMapping
     @Operation(summary = "Get all cities",
@@ -46,11 +50,18 @@ public class CityController {
             @RequestParam(defaultValue = "name") String sortBy,
 
             @Parameter(description = "Sort direction (asc/desc)")
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+
+            WebRequest webRequest) {
 
         log.info("Getting all cities - page: {}, size: {}, sortBy: {}, sortDir: {}",
                 page, size, sortBy, sortDir);
 
+        ResourceVersion version = cityService.getAllCitiesVersion(page, size, sortBy, sortDir);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         PageResponse<CityDto> cities = cityService.getAllCities(page, size, sortBy, sortDir);
 
         return ResponseEntity.ok(ApiResult.success(
@@ -62,12 +73,13 @@ public class CityController {
     @GetMapping("/simple")
     @Operation(summary = "Get all cities (simple list)",
             description = "Get all cities as a simple list without pagination")
-    public ResponseEntity<ApiResult<List<CityDto>>> getAllCitiesSimple() {
+    public ResponseEntity<byte[]> getAllCitiesSimple(WebRequest webRequest) {
 
         log.info("Getting all cities as simple list");
-        List<CityDto> cities = cityService.getAllCitiesSimple();
 
-        return ResponseEntity.ok(ApiResult.success(
+        List<CityDto> cities = cityService.getAllCitiesSimple();
+        ResourceVersion version = cityService.getServedVersion("cities-simple", cities);
+        return responseBodyCache.respond(version, webRequest, () -> ApiResult.success(
                 cities,
                 "Retrieved " + cities.size() + " cities"
         ));
@@ -78,9 +90,17 @@ public class CityController {
             description = "Get detailed information about a specific city")
     public ResponseEntity<ApiResult<CityDto>> getCityById(
             @Parameter(description = "City ID")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+
+            WebRequest webRequest) {
 
         log.info("Getting city by ID: {}", id);
+
+        ResourceVersion version = cityService.getCityVersion(id);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         CityDto city = cityService.getCityById(id);
 
         return ResponseEntity.ok(ApiResult.success(
@@ -94,9 +114,17 @@ public class CityController {
             description = "Get city information by city name")
     public ResponseEntity<ApiResult<CityDto>> getCityByName(
             @Parameter(description = "City name")
-            @PathVariable String name) {
+            @PathVariable String name,
+
+            WebRequest webRequest) {
 
         log.info("Getting city by name: {}", name);
+
+        ResourceVersion version = cityService.getCityByNameVersion(name);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         CityDto city = cityService.getCityByName(name);
 
         return ResponseEntity.ok(ApiResult.success(
@@ -110,9 +138,17 @@ public class CityController {
             description = "Get all cities in a specific region")
     public ResponseEntity<ApiResult<List<CityDto>>> getCitiesByRegion(
             @Parameter(description = "Region name")
-            @PathVariable String region) {
+            @PathVariable String region,
+
+            WebRequest webRequest) {
 
         log.info("Getting cities by region: {}", region);
+
+        ResourceVersion version = cityService.getCitiesByRegionVersion(region);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         List<CityDto> cities = cityService.getCitiesByRegion(region);
 
         return ResponseEntity.ok(ApiResult.success(
@@ -124,12 +160,13 @@ public class CityController {
     @GetMapping("/popular")
     @Operation(summary = "Get popular cities",
             description = "Get list of popular tourist cities")
-    public ResponseEntity<ApiResult<List<CityDto>>> getPopularCities() {
+    public ResponseEntity<byte[]> getPopularCities(WebRequest webRequest) {
 
         log.info("Getting popular cities");
-        List<CityDto> cities = cityService.getPopularCities();
 
-        return ResponseEntity.ok(ApiResult.success(
+        List<CityDto> cities = cityService.getPopularCities();
+        ResourceVersion version = cityService.getServedVersion("popular-cities", cities);
+        return responseBodyCache.respond(version, webRequest, () -> ApiResult.success(
                 cities,
                 "Retrieved " + cities.size() + " popular cities"
         ));
@@ -143,9 +180,17 @@ public class CityController {
             @RequestParam String name,
 
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+
+            WebRequest webRequest) {
 
         log.info("Searching cities by name: {}", name);
+
+        ResourceVersion version = cityService.searchCitiesVersion(name, page, size);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         PageResponse<CityDto> cities = cityService.searchCities(name, page, size);
 
         return ResponseEntity.ok(ApiResult.success(
@@ -181,12 +226,13 @@ public class CityController {
     @GetMapping("/regions")
     @Operation(summary = "Get all regions",
             description = "Get list of all regions in Morocco")
-    public ResponseEntity<ApiResult<List<String>>> getAllRegions() {
+    public ResponseEntity<byte[]> getAllRegions(WebRequest webRequest) {
 
         log.info("Getting all regions");
-        List<String> regions = cityService.getAllRegions();
 
-        return ResponseEntity.ok(ApiResult.success(
+        List<String> regions = cityService.getAllRegions();
+        ResourceVersion version = cityService.getServedRegionsVersion(regions);
+        return responseBodyCache.respond(version, webRequest, () -> ApiResult.success(
                 regions,
                 "Retrieved " + regions.size() + " regions"
         ));
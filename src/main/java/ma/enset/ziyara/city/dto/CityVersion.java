@@ -0,0 +1,15 @@
+package ma.enset.ziyara.city.dto;
+
+import ma.enset.ziyara.core.dto.ResourceVersion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version columns of a city plus its destination count, which {@link CityDto} shows but no version covers
+ */
+public record CityVersion(Long id, Long version, LocalDateTime updatedAt, Long destinationCount) {
+
+    public void addTo(ResourceVersion.Builder builder) {
+        builder.add(id).add(version).add(destinationCount).modifiedAt(updatedAt);
+    }
+}
@@ -3,14 +3,20 @@ package ma.enset.ziyara.city.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import ma.enset.ziyara.core.config.HibernateCacheConfig;
 import ma.enset.ziyara.core.entity.BaseEntity;
 import ma.enset.ziyara.destination.entity.Destination;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "cities")
+@Cacheable
+// Near-static reference data: a short stale window after an admin edit is acceptable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = HibernateCacheConfig.CITY_REGION)
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -44,6 +50,8 @@ public class City extends BaseEntity {
     private Boolean isPopular = false;
 
     @OneToMany(mappedBy = "city", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Builder.Default
     private Set<Destination> destinations = new HashSet<>();
 
@@ -0,0 +1,7 @@
+package ma.enset.ziyara.city.event;
+
+/**
+ * Published by CityService whenever a city is created, updated or deleted
+ */
+public record CityChangedEvent(Long cityId, boolean deleted) {
+}
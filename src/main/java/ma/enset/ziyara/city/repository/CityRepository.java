@@ -1,18 +1,64 @@
 package ma.enset.ziyara.city.repository;
 
+import jakarta.persistence.QueryHint;
+import ma.enset.ziyara.city.dto.CityVersion;
 import ma.enset.ziyara.city.entity.City;
+import ma.enset.ziyara.core.config.HibernateCacheConfig;
+import ma.enset.ziyara.core.upload.FileReferenceSource;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface CityRepository extends JpaRepository<City, Long> {
+public interface CityRepository extends JpaRepository<City, Long>, FileReferenceSource {
+
+    String VERSION_SELECT = """
+        SELECT new ma.enset.ziyara.city.dto.CityVersion(
+            c.id, c.version, c.updatedAt, (SELECT COUNT(o) FROM Destination o WHERE o.city = c))
+        FROM City c
+        """;
+
+    /**
+     * Version columns of a city, for conditional GETs
+     */
+    @Query(VERSION_SELECT + "WHERE c.id = :id")
+    Optional<CityVersion> findVersionById(@Param("id") Long id);
+
+    /**
+     * Version columns of the city {@link #findByNameIgnoreCase} would return
+     */
+    @Query(VERSION_SELECT + "WHERE LOWER(c.name) = LOWER(:name)")
+    Optional<CityVersion> findVersionByName(@Param("name") String name);
+
+    /**
+     * Version columns of a page of cities
+     */
+    @Query(value = VERSION_SELECT, countQuery = "SELECT COUNT(c) FROM City c")
+    Page<CityVersion> findAllVersions(Pageable pageable);
+
+    /**
+     * Version columns of the cities {@link #findByRegionOrderByName(String)} would return
+     */
+    @Query(VERSION_SELECT + "WHERE c.region = :region ORDER BY c.name")
+    List<CityVersion> findVersionsByRegion(@Param("region") String region);
+
+    /**
+     * Version columns of the page {@link #findByNameContainingIgnoreCaseOrderByName} would return
+     */
+    @Query(value = VERSION_SELECT + "WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY c.name",
+            countQuery = "SELECT COUNT(c) FROM City c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Page<CityVersion> findVersionsByNameContaining(@Param("name") String name, Pageable pageable);
 
     /**
      * Find city by name (case insensitive)
@@ -22,11 +68,19 @@ public interface CityRepository extends JpaRepository<City, Long> {
     /**
      * Find cities by region
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.CITY_QUERY_REGION)
+    })
     List<City> findByRegionOrderByName(String region);
 
     /**
      * Find popular cities
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.CITY_QUERY_REGION)
+    })
     List<City> findByIsPopularTrueOrderByName();
 
     /**
@@ -71,6 +125,10 @@ public interface CityRepository extends JpaRepository<City, Long> {
      * Get all unique regions
      */
     @Query("SELECT DISTINCT c.region FROM City c ORDER BY c.region")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.CITY_QUERY_REGION)
+    })
     List<String> findAllRegions();
 
     /**
@@ -78,4 +136,15 @@ public interface CityRepository extends JpaRepository<City, Long> {
      */
     @Query("SELECT c.region, COUNT(c) FROM City c GROUP BY c.region")
     List<Object[]> countByRegion();
-}
\ No newline at end of file
+
+    /**
+     * Those of the given image URLs some city uses
+     */
+    @Query("SELECT DISTINCT c.imageUrl FROM City c WHERE c.imageUrl IN :imageUrls")
+    List<String> findImageUrlsIn(@Param("imageUrls") Collection<String> imageUrls);
+
+    @Override
+    default Set<String> findReferenced(Collection<String> fileUrls) {
+        return new HashSet<>(findImageUrlsIn(fileUrls));
+    }
+}
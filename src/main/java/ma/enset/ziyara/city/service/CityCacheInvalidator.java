@@ -0,0 +1,54 @@
+package ma.enset.ziyara.city.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.enset.ziyara.city.entity.City;
+import ma.enset.ziyara.city.event.CityChangedEvent;
+import ma.enset.ziyara.core.cache.CacheTag;
+import ma.enset.ziyara.core.cache.TwoLevelCacheManager;
+import ma.enset.ziyara.core.config.HibernateCacheConfig;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts the cached city lists and everything showing the changed city, once the write has committed.
+ * <p>
+ * City and city list tag evictions, local or received from another node, also drop the city and the
+ * cached city queries from this node's Hibernate second-level cache, which only sees the writes made
+ * on this node.
+ */
+@Component
+public class CityCacheInvalidator {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CityCacheInvalidator(TwoLevelCacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        cacheManager.addTagEvictionListener(this::onTagsEvicted);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCityChanged(CityChangedEvent event) {
+        cacheManager.evictTags(List.of(CacheTag.CITIES, CacheTag.city(event.cityId())));
+    }
+
+    // Private helper methods
+
+    private void onTagsEvicted(Collection<String> tags) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        for (String tag : tags) {
+            Long cityId = CacheTag.cityId(tag);
+            if (cityId != null) {
+                cache.evictEntityData(City.class, cityId);
+            } else if (CacheTag.CITIES.equals(tag)) {
+                // Evicted with every city change, which is all the cached city queries depend on
+                cache.evictQueryRegion(HibernateCacheConfig.CITY_QUERY_REGION);
+            }
+        }
+    }
+}
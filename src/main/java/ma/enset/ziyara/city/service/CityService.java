@@ -5,12 +5,20 @@ import lombok.extern.slf4j.Slf4j;
 import ma.enset.ziyara.city.dto.CityCreateRequest;
 import ma.enset.ziyara.city.dto.CityDto;
 import ma.enset.ziyara.city.dto.CityUpdateRequest;
+import ma.enset.ziyara.city.dto.CityVersion;
 import ma.enset.ziyara.city.entity.City;
+import ma.enset.ziyara.city.event.CityChangedEvent;
 import ma.enset.ziyara.city.mapper.CityMapper;
 import ma.enset.ziyara.city.repository.CityRepository;
+import ma.enset.ziyara.core.cache.CacheTag;
+import ma.enset.ziyara.core.cache.CacheTags;
+import ma.enset.ziyara.core.cache.NotFoundCache;
 import ma.enset.ziyara.core.dto.PageResponse;
+import ma.enset.ziyara.core.dto.ResourceVersion;
 import ma.enset.ziyara.core.exception.ResourceNotFoundException;
+import ma.enset.ziyara.core.warmup.Warmable;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,6 +27,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +37,8 @@ public class CityService {
 
     private final CityRepository cityRepository;
     private final CityMapper cityMapper;
+    private final NotFoundCache notFoundCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all cities with pagination
@@ -62,7 +73,9 @@ public class CityService {
     /**
      * Get all cities as simple list
      */
-    @Cacheable(value = "cities", key = "'all'")
+    @Cacheable(value = "cities", key = "'all'", sync = true)
+    @CacheTags({"'cities'", "#result.!['city:' + id]"})
+    @Warmable
     public List<CityDto> getAllCitiesSimple() {
         log.debug("Getting all cities as simple list");
         List<City> cities = cityRepository.findAll(Sort.by("name"));
@@ -72,10 +85,11 @@ public class CityService {
     /**
      * Get city by ID
      */
+    @Warmable
     public CityDto getCityById(Long id) {
         log.debug("Getting city by id: {}", id);
 
-        City city = cityRepository.findById(id)
+        City city = notFoundCache.find(notFoundKey(id), CacheTag.CITIES, () -> cityRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("City not found with id: " + id));
 
         return cityMapper.toDto(city);
@@ -87,7 +101,8 @@ public class CityService {
     public CityDto getCityByName(String name) {
         log.debug("Getting city by name: {}", name);
 
-        City city = cityRepository.findByNameIgnoreCase(name)
+        City city = notFoundCache.find(notFoundKey(name), CacheTag.CITIES,
+                        () -> cityRepository.findByNameIgnoreCase(name))
                 .orElseThrow(() -> new ResourceNotFoundException("City not found with name: " + name));
 
         return cityMapper.toDto(city);
@@ -106,7 +121,9 @@ public class CityService {
     /**
      * Get popular cities
      */
-    @Cacheable(value = "popular-cities")
+    @Cacheable(value = "popular-cities", sync = true)
+    @CacheTags({"'cities'", "#result.!['city:' + id]"})
+    @Warmable
     public List<CityDto> getPopularCities() {
         log.debug("Getting popular cities");
 
@@ -153,12 +170,76 @@ public class CityService {
     /**
      * Get all regions
      */
-    @Cacheable(value = "regions")
+    @Cacheable(value = "regions", sync = true)
+    @CacheTags("'cities'")
+    @Warmable
     public List<String> getAllRegions() {
         log.debug("Getting all regions");
         return cityRepository.findAllRegions();
     }
 
+    /**
+     * Version of a city, or null if it does not exist
+     */
+    public ResourceVersion getCityVersion(Long id) {
+        return notFoundCache.find(notFoundKey(id), CacheTag.CITIES, () -> cityRepository.findVersionById(id))
+                .map(version -> citiesVersion("city", List.of(version)))
+                .orElse(null);
+    }
+
+    /**
+     * Version of a city looked up by name, or null if it does not exist
+     */
+    public ResourceVersion getCityByNameVersion(String name) {
+        return notFoundCache.find(notFoundKey(name), CacheTag.CITIES,
+                        () -> cityRepository.findVersionByName(name))
+                .map(version -> citiesVersion("city", List.of(version)))
+                .orElse(null);
+    }
+
+    /**
+     * Version of a page of all cities
+     */
+    public ResourceVersion getAllCitiesVersion(int page, int size, String sortBy, String sortDir) {
+        Sort sort = sortDir.equalsIgnoreCase("desc")
+                ? Sort.by(sortBy).descending()
+                : Sort.by(sortBy).ascending();
+        return pageVersion("cities", cityRepository.findAllVersions(PageRequest.of(page, size, sort)));
+    }
+
+    /**
+     * Version of a served list of cities. Lists served from a cache are fingerprinted from their DTOs
+     * rather than the version columns: the cache may lag behind the database, and a client must never be
+     * given a new ETag with the old content.
+     */
+    public ResourceVersion getServedVersion(String resource, List<CityDto> cities) {
+        ResourceVersion.Builder builder = ResourceVersion.builder(resource).add(cities);
+        cities.forEach(city -> builder.modifiedAt(city.getUpdatedAt()));
+        return builder.build();
+    }
+
+    /**
+     * Version of the served region list
+     */
+    public ResourceVersion getServedRegionsVersion(List<String> regions) {
+        return ResourceVersion.builder("regions").add(regions).build();
+    }
+
+    /**
+     * Version of the cities of a region
+     */
+    public ResourceVersion getCitiesByRegionVersion(String region) {
+        return citiesVersion("cities-by-region", cityRepository.findVersionsByRegion(region));
+    }
+
+    /**
+     * Version of a page of city search results
+     */
+    public ResourceVersion searchCitiesVersion(String name, int page, int size) {
+        return pageVersion("city-search",
+                cityRepository.findVersionsByNameContaining(name, PageRequest.of(page, size)));
+    }
+
     /**
      * Create new city
      */
@@ -168,6 +249,7 @@ public class CityService {
 
         City city = cityMapper.toEntity(request);
         city = cityRepository.save(city);
+        eventPublisher.publishEvent(new CityChangedEvent(city.getId(), false));
 
         log.info("Created city with id: {}", city.getId());
         return cityMapper.toDto(city);
@@ -185,6 +267,7 @@ public class CityService {
 
         cityMapper.updateEntityFromDto(request, city);
         city = cityRepository.save(city);
+        eventPublisher.publishEvent(new CityChangedEvent(city.getId(), false));
 
         log.info("Updated city with id: {}", city.getId());
         return cityMapper.toDto(city);
@@ -202,6 +285,32 @@ public class CityService {
         }
 
         cityRepository.deleteById(id);
+        eventPublisher.publishEvent(new CityChangedEvent(id, true));
         log.info("Deleted city with id: {}", id);
     }
-}
\ No newline at end of file
+
+    // Helper methods
+    // Misses of any city lookup are tagged with the city lists, which every city write evicts
+    private static String notFoundKey(Long id) {
+        return "city:" + id;
+    }
+
+    private static String notFoundKey(String name) {
+        return "city-name:" + name.toLowerCase(Locale.ROOT);
+    }
+
+    private ResourceVersion citiesVersion(String resource, List<CityVersion> versions) {
+        ResourceVersion.Builder builder = ResourceVersion.builder(resource);
+        versions.forEach(version -> version.addTo(builder));
+        return builder.build();
+    }
+
+    private ResourceVersion pageVersion(String resource, Page<CityVersion> versions) {
+        ResourceVersion.Builder builder = ResourceVersion.builder(resource)
+                .add(versions.getNumber())
+                .add(versions.getSize())
+                .add(versions.getTotalElements());
+        versions.forEach(version -> version.addTo(builder));
+        return builder.build();
+    }
+}
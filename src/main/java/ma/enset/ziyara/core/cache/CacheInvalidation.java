@@ -0,0 +1,21 @@
+package ma.enset.ziyara.core.cache;
+
+import java.util.List;
+
+/**
+ * Eviction broadcast to the other nodes: either one key of a cache, a whole cache ({@code key} is
+ * {@code null}) or every entry of any cache depending on one of the tags evicted together
+ * ({@code cacheName} is {@code null})
+ *
+ * @param origin node that performed the eviction, which ignores its own message
+ */
+public record CacheInvalidation(String origin, String cacheName, String key, List<String> tags) {
+
+    static CacheInvalidation ofKey(String origin, String cacheName, String key) {
+        return new CacheInvalidation(origin, cacheName, key, null);
+    }
+
+    static CacheInvalidation ofTags(String origin, List<String> tags) {
+        return new CacheInvalidation(origin, null, null, tags);
+    }
+}
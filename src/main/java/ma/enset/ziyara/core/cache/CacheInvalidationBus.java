@@ -0,0 +1,13 @@
+package ma.enset.ziyara.core.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries L1 evictions between nodes
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,68 @@
+package ma.enset.ziyara.core.cache;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * The cached method call whose cache lookup is running on this thread, captured by
+ * {@link CacheInvocationAspect} so a stale entry can later be reloaded through the proxy with the same
+ * arguments.
+ * <p>
+ * Reloading through the proxy, rather than reusing the cache interceptor's loader on another thread,
+ * keeps the transaction and {@link CacheTags} advice of the original call.
+ */
+record CacheInvocation(Object proxy, Method method, Object[] arguments) {
+
+    private static final ThreadLocal<CacheInvocation> CURRENT = new ThreadLocal<>();
+
+    /** Cache entry being refreshed on this thread, formatted as {@code <cache>::<key>} */
+    private static final ThreadLocal<String> REFRESHING = new ThreadLocal<>();
+
+    static CacheInvocation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Make the invocation current, returning the one it replaces so nested cached calls can restore it
+     */
+    static CacheInvocation enter(CacheInvocation invocation) {
+        CacheInvocation previous = CURRENT.get();
+        CURRENT.set(invocation);
+        return previous;
+    }
+
+    static void exit(CacheInvocation previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Whether this lookup is the refresh of the entry, in which case it must skip both tiers and load;
+     * true at most once per refresh, so nested cached calls look up as usual
+     */
+    static boolean consumeRefresh(String cacheName, String key) {
+        String refreshing = REFRESHING.get();
+        if (refreshing != null && refreshing.equals(cacheName + "::" + key)) {
+            REFRESHING.remove();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Call the method again through its proxy, forcing a reload of the given entry
+     */
+    void refresh(String cacheName, String key) throws Exception {
+        REFRESHING.set(cacheName + "::" + key);
+        try {
+            method.invoke(proxy, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            REFRESHING.remove();
+        }
+    }
+}
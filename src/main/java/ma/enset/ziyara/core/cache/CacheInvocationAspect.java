@@ -0,0 +1,31 @@
+package ma.enset.ziyara.core.cache;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records each {@code @Cacheable} call as the thread's {@link CacheInvocation} for refresh-ahead.
+ * <p>
+ * Ordered outside the cache interceptor, so the invocation is known when the cache finds a stale entry.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class CacheInvocationAspect {
+
+    @Around("@annotation(org.springframework.cache.annotation.Cacheable)")
+    public Object capture(ProceedingJoinPoint joinPoint) throws Throwable {
+        CacheInvocation previous = CacheInvocation.enter(new CacheInvocation(joinPoint.getThis(),
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getArgs()));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            CacheInvocation.exit(previous);
+        }
+    }
+}
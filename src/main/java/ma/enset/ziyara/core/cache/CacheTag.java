@@ -0,0 +1,58 @@
+package ma.enset.ziyara.core.cache;
+
+/**
+ * Tag formats shared by {@link CacheTags} declarations and the write paths that evict them
+ */
+public final class CacheTag {
+
+    /** Any list of cities, which a city creation or deletion changes */
+    public static final String CITIES = "cities";
+
+    /** Any list of popular destinations, which a rating flush or a destination write can reorder */
+    public static final String POPULAR_DESTINATIONS = "popular-destinations";
+
+    private static final String CITY_PREFIX = "city:";
+    private static final String DESTINATION_PREFIX = "destination:";
+
+    private CacheTag() {
+    }
+
+    /**
+     * Anything showing the city or listing its destinations
+     */
+    public static String city(Long cityId) {
+        return CITY_PREFIX + cityId;
+    }
+
+    /**
+     * Anything showing the destination
+     */
+    public static String destination(Long destinationId) {
+        return DESTINATION_PREFIX + destinationId;
+    }
+
+    /**
+     * City id of a {@link #city} tag, or {@code null} for any other tag
+     */
+    public static Long cityId(String tag) {
+        return idOf(tag, CITY_PREFIX);
+    }
+
+    /**
+     * Destination id of a {@link #destination} tag, or {@code null} for any other tag
+     */
+    public static Long destinationId(String tag) {
+        return idOf(tag, DESTINATION_PREFIX);
+    }
+
+    private static Long idOf(String tag, String prefix) {
+        if (!tag.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
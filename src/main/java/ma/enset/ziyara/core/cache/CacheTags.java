@@ -0,0 +1,23 @@
+package ma.enset.ziyara.core.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares what the result of a {@code @Cacheable} method depends on.
+ * <p>
+ * Each value is a SpEL expression over the method arguments ({@code #cityId}) and the result
+ * ({@code #result}); it may yield a single tag or a collection of tags, e.g.
+ * {@code "#result.!['destination:' + id]"}. Tags follow the formats of {@link CacheTag}; evicting a
+ * tag through {@link TwoLevelCacheManager#evictTags} drops every entry that declared it, in every cache.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheTags {
+
+    String[] value();
+}
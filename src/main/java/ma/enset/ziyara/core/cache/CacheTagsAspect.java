@@ -0,0 +1,72 @@
+package ma.enset.ziyara.core.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates {@link CacheTags} after a cached method actually ran and hands the tags to the cache put
+ * that follows on the same thread.
+ * <p>
+ * Ordered inside the cache interceptor (see {@code @EnableCaching(order = ...)}), so it only runs
+ * on cache misses.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class CacheTagsAspect {
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(cacheTags)")
+    public Object tag(ProceedingJoinPoint joinPoint, CacheTags cacheTags) throws Throwable {
+        // A put skipped by an unless condition must not leak its tags to the next put on this thread
+        PendingTags.clear();
+        long sequence = cacheManager.invalidationSequence();
+
+        Object result = joinPoint.proceed();
+
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(joinPoint.getTarget(),
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getArgs(), PARAMETER_NAMES);
+        context.setVariable("result", result);
+
+        Set<String> tags = new HashSet<>();
+        for (String expression : cacheTags.value()) {
+            collect(expressions.computeIfAbsent(expression, PARSER::parseExpression).getValue(context), tags);
+        }
+        PendingTags.set(new PendingTags(Set.copyOf(tags), sequence));
+        return result;
+    }
+
+    // Private helper methods
+
+    private static void collect(Object value, Set<String> tags) {
+        if (value instanceof Iterable<?> values) {
+            values.forEach(element -> collect(element, tags));
+        } else if (value != null) {
+            tags.add(value.toString());
+        }
+    }
+}
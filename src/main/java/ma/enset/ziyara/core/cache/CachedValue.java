@@ -0,0 +1,41 @@
+package ma.enset.ziyara.core.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Cached value together with the tags it depends on, so a node promoting it from L2 can index it too.
+ * The load time travels with it, so an entry promoted from L2 keeps its age for refresh-ahead.
+ * <p>
+ * Compared by identity: the tag index uses it to tell an entry apart from a later one under the same key.
+ */
+final class CachedValue implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final Set<String> tags;
+    private final long loadedAt;
+
+    CachedValue(Object value, Set<String> tags) {
+        this.value = value;
+        this.tags = tags;
+        // Wall clock rather than nanoTime: the entry may be read by another node
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    Object value() {
+        return value;
+    }
+
+    Set<String> tags() {
+        return tags;
+    }
+
+    boolean isOlderThan(Duration age) {
+        return System.currentTimeMillis() - loadedAt > age.toMillis();
+    }
+}
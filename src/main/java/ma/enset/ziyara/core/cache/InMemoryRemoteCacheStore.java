@@ -0,0 +1,56 @@
+package ma.enset.ziyara.core.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-local stand-in for the Redis L2, shared by several cache managers to simulate a cluster in tests
+ */
+public class InMemoryRemoteCacheStore implements RemoteCacheStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> tagSets = new ConcurrentHashMap<>();
+
+    @Override
+    public Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public synchronized void put(String key, Object value, Duration timeToLive, Collection<String> tagKeys) {
+        entries.put(key, new Entry(value, System.nanoTime() + timeToLive.toNanos()));
+        tagKeys.forEach(tagKey -> tagSets.computeIfAbsent(tagKey, k -> ConcurrentHashMap.newKeySet()).add(key));
+    }
+
+    @Override
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void clear(String keyPrefix) {
+        entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    @Override
+    public synchronized void evictTag(String tagKey) {
+        Set<String> keys = tagSets.remove(tagKey);
+        if (keys != null) {
+            keys.forEach(entries::remove);
+        }
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,44 @@
+package ma.enset.ziyara.core.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Remembers lookups that found nothing, so repeated requests for ids and names that do not exist are
+ * answered without a query.
+ * <p>
+ * Misses live in the bounded {@value #CACHE_NAME} cache and carry a {@link CacheTags tag} that the
+ * write creating the entity evicts, so a newly created entity is visible immediately.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotFoundCache {
+
+    public static final String CACHE_NAME = "not-found";
+
+    private final TwoLevelCacheManager cacheManager;
+
+    /**
+     * Run the lookup unless {@code key} is a remembered miss; an empty result is remembered under
+     * {@code key} until {@code tag} is evicted or the entry expires
+     */
+    public <T> Optional<T> find(String key, String tag, Supplier<Optional<T>> lookup) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache.get(key) != null) {
+            return Optional.empty();
+        }
+        long sequence = cacheManager.invalidationSequence();
+        Optional<T> found = lookup.get();
+        if (found.isEmpty()) {
+            // A creation committed while we looked makes the sequence check drop this put
+            PendingTags.set(new PendingTags(Set.of(tag), sequence));
+            cache.put(key, Boolean.TRUE);
+        }
+        return found;
+    }
+}
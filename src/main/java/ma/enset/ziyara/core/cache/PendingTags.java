@@ -0,0 +1,31 @@
+package ma.enset.ziyara.core.cache;
+
+import java.util.Set;
+
+/**
+ * Tags evaluated by {@link CacheTagsAspect} for the result that is about to be cached on this thread
+ *
+ * @param sequence invalidation sequence observed before the method ran; a put is skipped when an
+ *                 invalidation happened since, as the result may have been computed from stale data
+ */
+record PendingTags(Set<String> tags, long sequence) {
+
+    private static final ThreadLocal<PendingTags> CURRENT = new ThreadLocal<>();
+
+    static void set(PendingTags pendingTags) {
+        CURRENT.set(pendingTags);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Tags for the put in progress, or {@code null} when the cached method declares none
+     */
+    static PendingTags consume() {
+        PendingTags pendingTags = CURRENT.get();
+        CURRENT.remove();
+        return pendingTags;
+    }
+}
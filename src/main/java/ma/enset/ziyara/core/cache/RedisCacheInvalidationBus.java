@@ -0,0 +1,107 @@
+package ma.enset.ziyara.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub bus. Delivery is best effort; L1 time to live bounds staleness when a message is lost.
+ * <p>
+ * The listener container is started in the background and retried until Redis answers, so a Redis
+ * outage at boot degrades the caches to L1 only instead of failing startup.
+ */
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, SmartLifecycle {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final Duration retryInterval;
+
+    private volatile boolean running;
+    private Thread subscriber;
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                     String channel, Duration retryInterval) {
+        this.redisTemplate = redisTemplate;
+        // Not a bean: a container bean would be auto-started and fail the context when Redis is down
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        this.listenerContainer.afterPropertiesSet();
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(invalidation));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not publish cache invalidation {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                listener.accept(objectMapper.readValue(body, CacheInvalidation.class));
+            } catch (Exception e) {
+                log.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+            }
+        }, new ChannelTopic(channel));
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        subscriber = Thread.ofVirtual().name("cache-invalidation-subscriber").start(this::subscribeUntilConnected);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (subscriber != null) {
+            subscriber.interrupt();
+        }
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.debug("Error closing cache invalidation listener: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Private helper methods
+
+    private void subscribeUntilConnected() {
+        while (running && !listenerContainer.isRunning()) {
+            try {
+                listenerContainer.start();
+                log.info("Subscribed to cache invalidation channel {}", channel);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation channel unavailable, retrying in {}: {}", retryInterval, e.getMessage());
+                try {
+                    Thread.sleep(retryInterval);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ma.enset.ziyara.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Redis-backed L2. After a failed call Redis is bypassed for the configured backoff, so an outage
+ * costs one timeout per backoff window instead of one per request.
+ * <p>
+ * Tags are Redis sets of entry keys. Puts and tag evictions run as Lua scripts so an eviction can
+ * never interleave between storing an entry and registering it under its tags.
+ */
+@Slf4j
+public class RedisRemoteCacheStore implements RemoteCacheStore {
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private static final RedisScript<Long> PUT_SCRIPT = RedisScript.of("""
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            for i = 2, #KEYS do
+                redis.call('SADD', KEYS[i], KEYS[1])
+                if redis.call('PTTL', KEYS[i]) < tonumber(ARGV[2]) then
+                    redis.call('PEXPIRE', KEYS[i], ARGV[2])
+                end
+            end
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> EVICT_TAG_SCRIPT = RedisScript.of("""
+            local members = redis.call('SMEMBERS', KEYS[1])
+            for i = 1, #members, 500 do
+                redis.call('UNLINK', unpack(members, i, math.min(i + 499, #members)))
+            end
+            redis.call('DEL', KEYS[1])
+            return #members
+            """, Long.class);
+
+    private static final RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final long failureBackoffNanos;
+
+    private volatile long unavailableUntilNanos = System.nanoTime();
+
+    public RedisRemoteCacheStore(RedisTemplate<String, Object> redisTemplate, Duration failureBackoff) {
+        this.redisTemplate = redisTemplate;
+        this.failureBackoffNanos = failureBackoff.toNanos();
+    }
+
+    @Override
+    public Object get(String key) {
+        if (!available()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            onFailure("get", e);
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void put(String key, Object value, Duration timeToLive, Collection<String> tagKeys) {
+        if (!available()) {
+            return;
+        }
+        try {
+            List<String> keys = new ArrayList<>(tagKeys.size() + 1);
+            keys.add(key);
+            keys.addAll(tagKeys);
+            byte[] serialized = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+            byte[] ttlMillis = Long.toString(timeToLive.toMillis()).getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute(PUT_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT, keys, serialized, ttlMillis);
+        } catch (RuntimeException e) {
+            onFailure("put", e);
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        // Evictions are attempted even while backing off: a missed one leaves stale data behind
+        try {
+            redisTemplate.unlink(key);
+        } catch (RuntimeException e) {
+            onFailure("evict", e);
+        }
+    }
+
+    @Override
+    public void clear(String keyPrefix) {
+        ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(DELETE_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == DELETE_BATCH_SIZE) {
+                    redisTemplate.unlink(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                redisTemplate.unlink(batch);
+            }
+        } catch (RuntimeException e) {
+            onFailure("clear", e);
+        }
+    }
+
+    @Override
+    public void evictTag(String tagKey) {
+        try {
+            redisTemplate.execute(EVICT_TAG_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT, List.of(tagKey));
+        } catch (RuntimeException e) {
+            onFailure("tag eviction", e);
+        }
+    }
+
+    // Private helper methods
+
+    private boolean available() {
+        return System.nanoTime() - unavailableUntilNanos >= 0;
+    }
+
+    private void onFailure(String operation, RuntimeException e) {
+        unavailableUntilNanos = System.nanoTime() + failureBackoffNanos;
+        log.warn("Redis cache {} failed, serving from L1 only for {} ms: {}",
+                operation, failureBackoffNanos / 1_000_000, e.getMessage());
+    }
+}
@@ -0,0 +1,34 @@
+package ma.enset.ziyara.core.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Shared second cache tier behind the per-node L1. Implementations must fail soft: an unavailable
+ * store behaves as a miss and never fails the request.
+ */
+public interface RemoteCacheStore {
+
+    /**
+     * Stored value, or {@code null} on a miss
+     */
+    Object get(String key);
+
+    /**
+     * Store a value and add its key to each tag set, atomically. Tag sets must live at least as long
+     * as the entries they list.
+     */
+    void put(String key, Object value, Duration timeToLive, Collection<String> tagKeys);
+
+    void evict(String key);
+
+    /**
+     * Remove every entry whose key starts with the prefix
+     */
+    void clear(String keyPrefix);
+
+    /**
+     * Remove every entry listed in the tag set, and the set itself
+     */
+    void evictTag(String tagKey);
+}
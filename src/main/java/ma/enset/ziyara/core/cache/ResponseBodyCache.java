@@ -0,0 +1,201 @@
+package ma.enset.ziyara.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import ma.enset.ziyara.core.dto.ResourceVersion;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialised response bodies of hot, nearly static GET endpoints, stored both as plain JSON and gzipped.
+ * <p>
+ * Entries are keyed by the response's {@link ResourceVersion} ETag, computed from the very data the body
+ * is serialised from, so a write that changes what the body shows also changes the key and bytes are
+ * never stored under the ETag of other content; old entries simply age out. A hit costs reading the
+ * data, usually from a cache, fingerprinting it and a byte copy: no Jackson, no compression.
+ * <p>
+ * The gzipped representation is a different byte sequence, so it gets its own strong ETag, the version's
+ * with a {@code -gz} suffix; a revalidation with either one is answered 304, since both decode to the
+ * same content. Every response, 304 included, varies by Accept-Encoding.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseBodyCache {
+
+    public static final String CACHE_NAME = "responses";
+
+    /** Below this size gzip framing costs more than it saves, mirroring server.compression.min-response-size */
+    private static final int MIN_COMPRESSED_SIZE = 1024;
+
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Answer a conditional GET: 304 when the client's copy is current, otherwise the cached bytes for this
+     * version, serialising {@code body} only on a miss. A {@code null} version means the resource does
+     * not exist, and the body supplier is expected to throw its usual not-found exception.
+     */
+    public ResponseEntity<byte[]> respond(ResourceVersion version, WebRequest request, Supplier<?> body) {
+        if (version == null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(serialize(body.get()).identity());
+        }
+        String gzipEtag = gzipEtag(version.etag());
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String matched = matchingEtag(ifNoneMatch, version.etag(), gzipEtag);
+            if (matched != null) {
+                return notModified(version, matched);
+            }
+        }
+
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        SerializedBody serialized = cache.get(version.etag(), () -> serialize(body.get()));
+        boolean gzip = serialized.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? gzipEtag : version.etag();
+
+        // If-Modified-Since only counts without If-None-Match
+        if (ifNoneMatch == null && version.lastModified() != null
+                && notModifiedSince(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE), version.lastModifiedMillis())) {
+            return notModified(version, etag);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (version.lastModified() != null) {
+            response.lastModified(version.lastModifiedMillis());
+        }
+        if (gzip) {
+            // The container leaves bodies that already carry a Content-Encoding alone
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialized.gzip());
+        }
+        return response.body(serialized.identity());
+    }
+
+    // Private helper methods
+
+    private static ResponseEntity<byte[]> notModified(ResourceVersion version, String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (version.lastModified() != null) {
+            response.lastModified(version.lastModifiedMillis());
+        }
+        return response.build();
+    }
+
+    static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + '"';
+    }
+
+    /**
+     * The one of the two ETags listed by an If-None-Match header, compared weakly as RFC 9110 requires;
+     * {@code null} when neither is
+     */
+    static String matchingEtag(String ifNoneMatch, String etag, String gzipEtag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return etag;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return etag;
+            }
+            if (tag.equals(gzipEtag)) {
+                return gzipEtag;
+            }
+        }
+        return null;
+    }
+
+    private static boolean notModifiedSince(String ifModifiedSince, long lastModifiedMillis) {
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            // HTTP dates have a resolution of one second
+            return lastModifiedMillis / 1000 <= since / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private SerializedBody serialize(Object body) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            return new SerializedBody(identity, identity.length >= MIN_COMPRESSED_SIZE ? gzip(identity) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise response body", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Whether the Accept-Encoding header lists gzip (or *) without a zero quality value
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0{0,3})?")) {
+                    refused = true;
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plain and gzipped bytes of one response body; gzip is {@code null} for bodies too small to compress
+     */
+    record SerializedBody(byte[] identity, byte[] gzip) implements Serializable {
+    }
+}
@@ -0,0 +1,83 @@
+package ma.enset.ziyara.core.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses concurrent loads of the same key into one: the first caller runs the loader, the others
+ * wait on its future.
+ * <p>
+ * A waiter gives up after the timeout and runs the loader itself, so a stuck load delays callers by
+ * at most the timeout instead of holding all of them. Unlike a compute in the L1 map, waiting here
+ * never blocks loads of other keys.
+ */
+class SingleFlight<V> {
+
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    SingleFlight(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    V load(String key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> leader = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, leader);
+        if (existing == null) {
+            return lead(key, leader, loader);
+        }
+
+        coalesced.increment();
+        try {
+            return existing.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            loads.increment();
+            return loader.call();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    long getLoadCount() {
+        return loads.sum();
+    }
+
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    // Private helper methods
+
+    private V lead(String key, CompletableFuture<V> future, Callable<V> loader) throws Exception {
+        loads.increment();
+        try {
+            V value = loader.call();
+            future.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+}
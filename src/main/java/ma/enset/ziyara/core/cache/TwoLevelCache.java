@@ -0,0 +1,338 @@
+package ma.enset.ziyara.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spring cache backed by a per-node Caffeine L1 and an optional shared L2.
+ * <p>
+ * Reads go L1, then L2, then the loader; L2 hits are copied into L1. Evictions remove the entry from
+ * both tiers and are broadcast so the other nodes drop their L1 copy. Keys are stringified so they
+ * mean the same thing on every node.
+ * <p>
+ * Entries carry the tags declared with {@link CacheTags}; a tag index maps each tag to the L1 keys
+ * depending on it, so evicting a tag drops exactly those keys.
+ * <p>
+ * With a {@code refresh-after} soft TTL, an entry older than that is still returned, and its
+ * {@link CacheInvocation} is replayed on a virtual thread to reload it; only past the hard TTL do
+ * callers block on a load.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<String, CachedValue> local;
+    private final RemoteCacheStore remote;
+    private final Duration remoteTimeToLive;
+    private final Duration refreshAfter;
+    private final String remoteKeyPrefix;
+    private final TwoLevelCacheManager manager;
+    private final SingleFlight<Object> singleFlight;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /** Tag to the L1 entries depending on it; holding the entry lets removal skip a newer entry under the same key */
+    private final Map<String, Map<String, CachedValue>> entriesByTag = new ConcurrentHashMap<>();
+
+    private final LongAdder localPuts = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder remotePuts = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    TwoLevelCache(String name, Caffeine<Object, Object> localBuilder, RemoteCacheStore remote,
+                  Duration remoteTimeToLive, Duration refreshAfter, Duration loadTimeout, String keyPrefix,
+                  TwoLevelCacheManager manager) {
+        // Nulls are stored so that "no result" is cached like any other answer
+        super(true);
+        this.name = name;
+        this.local = localBuilder
+                .<String, CachedValue>removalListener((key, value, cause) -> unindex(key, value))
+                .build();
+        this.remote = remote;
+        this.remoteTimeToLive = remoteTimeToLive;
+        this.refreshAfter = refreshAfter;
+        this.remoteKeyPrefix = keyPrefix + name + "::";
+        this.manager = manager;
+        this.singleFlight = new SingleFlight<>(loadTimeout);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = keyOf(key);
+        CachedValue cached = local.getIfPresent(cacheKey);
+        if (cached == null) {
+            long sequence = manager.invalidationSequence();
+            cached = remoteGet(cacheKey);
+            if (cached != null) {
+                promote(cacheKey, cached, sequence);
+            }
+        }
+        return cached != null ? cached.value() : null;
+    }
+
+    /**
+     * Used by {@code @Cacheable(sync = true)}: on a miss, concurrent callers for the key share a single
+     * L2 lookup and load. A stale hit is returned as is and triggers a background refresh.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = keyOf(key);
+        boolean refresh = CacheInvocation.consumeRefresh(name, cacheKey);
+        if (!refresh) {
+            CachedValue cached = local.getIfPresent(cacheKey);
+            if (cached != null) {
+                refreshIfStale(cacheKey, cached);
+                return (T) fromStoreValue(cached.value());
+            }
+        }
+        try {
+            return (T) fromStoreValue(singleFlight.load(cacheKey, () -> load(cacheKey, valueLoader, !refresh)));
+        } catch (ValueRetrievalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CachedValue cached = tagged(toStoreValue(value));
+        if (cached == null) {
+            return;
+        }
+        String cacheKey = keyOf(key);
+        putLocal(cacheKey, cached);
+        remotePut(cacheKey, cached);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = keyOf(key);
+        if (remote != null) {
+            remote.evict(remoteKeyPrefix + cacheKey);
+        }
+        local.invalidate(cacheKey);
+        manager.publish(name, cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        if (remote != null) {
+            remote.clear(remoteKeyPrefix);
+        }
+        local.invalidateAll();
+        manager.publish(name, null);
+    }
+
+    /**
+     * Apply an eviction received from another node; only L1 is touched, the sender already cleaned L2
+     */
+    void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    /**
+     * Drop the L1 entries depending on a tag; L2 is cleaned through its own tag index
+     */
+    void evictTagLocal(String tag) {
+        Map<String, CachedValue> entries = entriesByTag.remove(tag);
+        if (entries != null) {
+            entries.forEach(local.asMap()::remove);
+        }
+    }
+
+    public CacheStats getLocalStats() {
+        return local.stats();
+    }
+
+    public long getLocalPutCount() {
+        return localPuts.sum();
+    }
+
+    public long getLoadCount() {
+        return singleFlight.getLoadCount();
+    }
+
+    public long getCoalescedLoadCount() {
+        return singleFlight.getCoalescedCount();
+    }
+
+    public long getLoadTimeoutCount() {
+        return singleFlight.getTimeoutCount();
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public boolean isRemoteEnabled() {
+        return remote != null;
+    }
+
+    public long getRemoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMissCount() {
+        return remoteMisses.sum();
+    }
+
+    public long getRemotePutCount() {
+        return remotePuts.sum();
+    }
+
+    // Private helper methods
+
+    /**
+     * L2 lookup (unless refreshing) then loader, storing the result in both tiers; returns the store value
+     */
+    private Object load(String cacheKey, Callable<?> valueLoader, boolean lookupRemote) {
+        long sequence = manager.invalidationSequence();
+        CachedValue stored = lookupRemote ? remoteGet(cacheKey) : null;
+        if (stored != null) {
+            promote(cacheKey, stored, sequence);
+            refreshIfStale(cacheKey, stored);
+            return stored.value();
+        }
+        Object loaded;
+        try {
+            loaded = toStoreValue(valueLoader.call());
+        } catch (Exception e) {
+            throw new ValueRetrievalException(cacheKey, valueLoader, e);
+        }
+        CachedValue value = tagged(loaded);
+        if (value != null) {
+            putLocal(cacheKey, value);
+            remotePut(cacheKey, value);
+        }
+        return loaded;
+    }
+
+    /**
+     * Reload a stale entry in the background by replaying the call that is reading it; at most one
+     * refresh per key is in flight, and a failed one leaves the old value in place until its hard TTL
+     */
+    private void refreshIfStale(String cacheKey, CachedValue cached) {
+        if (refreshAfter == null || !cached.isOlderThan(refreshAfter)) {
+            return;
+        }
+        CacheInvocation invocation = CacheInvocation.current();
+        if (invocation == null || !refreshing.add(cacheKey)) {
+            return;
+        }
+        try {
+            manager.refreshExecutor().execute(() -> {
+                try {
+                    invocation.refresh(name, cacheKey);
+                    refreshes.increment();
+                } catch (Exception e) {
+                    log.warn("Refresh of {}::{} failed, serving the stale value: {}", name, cacheKey, e.getMessage());
+                } finally {
+                    refreshing.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(cacheKey);
+        }
+    }
+
+    private static String keyOf(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Attach the tags of the method that produced the value, or {@code null} when a tag invalidation
+     * raced with the load and the value must not be cached
+     */
+    private CachedValue tagged(Object storeValue) {
+        PendingTags pending = PendingTags.consume();
+        if (pending == null) {
+            return new CachedValue(storeValue, Set.of());
+        }
+        if (pending.sequence() != manager.invalidationSequence()) {
+            return null;
+        }
+        return new CachedValue(storeValue, pending.tags());
+    }
+
+    private void putLocal(String cacheKey, CachedValue cached) {
+        local.put(cacheKey, indexed(cacheKey, cached));
+    }
+
+    /**
+     * Copy an L2 hit to L1, unless a tag eviction ran since {@code sequence} was read before the L2
+     * lookup: the hit may predate it, and an L1 copy would outlive the eviction on this node
+     */
+    private void promote(String cacheKey, CachedValue cached, long sequence) {
+        if (manager.invalidationSequence() == sequence) {
+            putLocal(cacheKey, cached);
+        }
+    }
+
+    private CachedValue indexed(String cacheKey, CachedValue cached) {
+        for (String tag : cached.tags()) {
+            entriesByTag.computeIfAbsent(tag, t -> new ConcurrentHashMap<>()).put(cacheKey, cached);
+        }
+        localPuts.increment();
+        return cached;
+    }
+
+    private void unindex(String cacheKey, CachedValue cached) {
+        if (cacheKey == null || cached == null) {
+            return;
+        }
+        for (String tag : cached.tags()) {
+            entriesByTag.computeIfPresent(tag, (t, entries) -> {
+                entries.remove(cacheKey, cached);
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    private CachedValue remoteGet(String cacheKey) {
+        if (remote == null) {
+            return null;
+        }
+        Object value = remote.get(remoteKeyPrefix + cacheKey);
+        if (value instanceof CachedValue cached) {
+            remoteHits.increment();
+            return cached;
+        }
+        remoteMisses.increment();
+        return null;
+    }
+
+    private void remotePut(String cacheKey, CachedValue cached) {
+        if (remote != null) {
+            remote.put(remoteKeyPrefix + cacheKey, cached, remoteTimeToLive,
+                    cached.tags().stream().map(manager::remoteTagKey).toList());
+            remotePuts.increment();
+        }
+    }
+}
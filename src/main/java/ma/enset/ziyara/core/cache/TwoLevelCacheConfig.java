@@ -0,0 +1,59 @@
+package ma.enset.ziyara.core.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Application cache manager: Caffeine on every node, with Redis as shared L2 and invalidation
+ * channel when {@code app.cache.remote.enabled} is set.
+ */
+@Configuration
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
+public class TwoLevelCacheConfig {
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(TwoLevelCacheProperties properties,
+                                             ObjectProvider<RemoteCacheStore> remoteCacheStore,
+                                             CacheInvalidationBus cacheInvalidationBus) {
+        return new TwoLevelCacheManager(properties, remoteCacheStore.getIfAvailable(), cacheInvalidationBus);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.remote", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public CacheInvalidationBus localCacheInvalidationBus() {
+        return new LocalCacheInvalidationBus();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "app.cache.remote", name = "enabled", havingValue = "true")
+    static class RedisTierConfig {
+
+        @Bean
+        public RemoteCacheStore redisRemoteCacheStore(RedisConnectionFactory connectionFactory,
+                                                      TwoLevelCacheProperties properties) {
+            RedisTemplate<String, Object> template = new RedisTemplate<>();
+            template.setConnectionFactory(connectionFactory);
+            template.setKeySerializer(StringRedisSerializer.UTF_8);
+            template.setValueSerializer(new JdkSerializationRedisSerializer(TwoLevelCacheConfig.class.getClassLoader()));
+            template.afterPropertiesSet();
+            return new RedisRemoteCacheStore(template, properties.getRemote().getFailureBackoff());
+        }
+
+        @Bean
+        public CacheInvalidationBus redisCacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                                              ObjectMapper objectMapper,
+                                                              TwoLevelCacheProperties properties) {
+            return new RedisCacheInvalidationBus(stringRedisTemplate, objectMapper, properties.getInvalidationChannel(),
+                    properties.getRemote().getFailureBackoff());
+        }
+    }
+}
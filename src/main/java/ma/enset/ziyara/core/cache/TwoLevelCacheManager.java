@@ -0,0 +1,187 @@
+package ma.enset.ziyara.core.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Creates {@link TwoLevelCache}s on demand, evicts by {@link CacheTags tag} across all of them and
+ * applies evictions published by other nodes.
+ * <p>
+ * Publishes {@code ziyara.cache.loads} per cache, tagged {@code result=loaded} for loads that ran,
+ * {@code coalesced} for callers served by another caller's load and {@code timeout} for callers that
+ * stopped waiting, and {@code refreshed} for background reloads of entries past their soft TTL.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MeterBinder {
+
+    private final TwoLevelCacheProperties properties;
+    private final RemoteCacheStore remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final List<Consumer<Collection<String>>> tagEvictionListeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService refreshExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cache-refresh-", 0).factory());
+
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param remote shared L2, or {@code null} to run with L1 only
+     */
+    public TwoLevelCacheManager(TwoLevelCacheProperties properties, RemoteCacheStore remote,
+                                CacheInvalidationBus invalidationBus) {
+        this.properties = properties;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return List.copyOf(caches.keySet());
+    }
+
+    public Collection<TwoLevelCache> getCaches() {
+        return List.copyOf(caches.values());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        caches.values().forEach(cache -> registerMeters(cache, registry));
+    }
+
+    /**
+     * Stop the background refreshes; called by the container on shutdown
+     */
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Be told of every tag eviction, local or received from another node, so a cache kept outside this
+     * manager can stay coherent with the ones inside it. Each call gets the tags evicted together, before
+     * the caches here drop their entries; it runs on the evicting thread or the bus subscriber's, so
+     * anything slower than a few lookups belongs on another thread.
+     */
+    public void addTagEvictionListener(Consumer<Collection<String>> listener) {
+        tagEvictionListeners.add(listener);
+    }
+
+    /**
+     * Evict every entry, in every cache and on every node, that declared one of the tags
+     */
+    public void evictTags(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        List<String> batch = List.copyOf(tags);
+        invalidationSequence.incrementAndGet();
+        tagEvictionListeners.forEach(listener -> listener.accept(batch));
+        if (remote != null) {
+            batch.forEach(tag -> remote.evictTag(remoteTagKey(tag)));
+        }
+        batch.forEach(tag -> caches.values().forEach(cache -> cache.evictTagLocal(tag)));
+        invalidationBus.publish(CacheInvalidation.ofTags(nodeId, batch));
+        log.debug("Evicted cache tags {}", batch);
+    }
+
+    /**
+     * Incremented by every tag eviction, local or remote; lets a load detect that it raced with one
+     */
+    long invalidationSequence() {
+        return invalidationSequence.get();
+    }
+
+    String remoteTagKey(String tag) {
+        return properties.getKeyPrefix() + "tag::" + tag;
+    }
+
+    ExecutorService refreshExecutor() {
+        return refreshExecutor;
+    }
+
+    void publish(String cacheName, String key) {
+        invalidationBus.publish(CacheInvalidation.ofKey(nodeId, cacheName, key));
+    }
+
+    // Private helper methods
+
+    private TwoLevelCache createCache(String name) {
+        TwoLevelCacheProperties.CacheSpec spec = properties.specFor(name);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getTimeToLive() != null) {
+            builder.expireAfterWrite(spec.getTimeToLive());
+        }
+        log.debug("Created cache {} (L1 max {} entries, ttl {}, refresh after {}, L2 {})",
+                name, spec.getMaximumSize(), spec.getTimeToLive(), spec.getRefreshAfter(),
+                remote != null ? spec.getRemoteTimeToLive() : "off");
+        TwoLevelCache cache = new TwoLevelCache(name, builder, remote, spec.getRemoteTimeToLive(),
+                spec.getRefreshAfter(), properties.getLoadTimeout(), properties.getKeyPrefix(), this);
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            registerMeters(cache, registry);
+        }
+        return cache;
+    }
+
+    private static void registerMeters(TwoLevelCache cache, MeterRegistry registry) {
+        registerLoadCounter(registry, cache, "loaded", TwoLevelCache::getLoadCount);
+        registerLoadCounter(registry, cache, "coalesced", TwoLevelCache::getCoalescedLoadCount);
+        registerLoadCounter(registry, cache, "timeout", TwoLevelCache::getLoadTimeoutCount);
+        registerLoadCounter(registry, cache, "refreshed", TwoLevelCache::getRefreshCount);
+    }
+
+    private static void registerLoadCounter(MeterRegistry registry, TwoLevelCache cache, String result,
+                                            ToDoubleFunction<TwoLevelCache> count) {
+        FunctionCounter.builder("ziyara.cache.loads", cache, count)
+                .description("Cache miss loads, by how the caller was served")
+                .tag("cache", cache.getName())
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        if (invalidation.tags() != null) {
+            List<String> batch = List.copyOf(invalidation.tags());
+            invalidationSequence.incrementAndGet();
+            tagEvictionListeners.forEach(listener -> listener.accept(batch));
+            batch.forEach(tag -> caches.values().forEach(cache -> cache.evictTagLocal(tag)));
+            return;
+        }
+        TwoLevelCache cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ma.enset.ziyara.core.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the application caches: per-node Caffeine L1 bounds, the optional Redis L2 and
+ * per-cache overrides under {@code app.cache.caches.<name>}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class TwoLevelCacheProperties {
+
+    /** Prefix of every Redis key and channel owned by the caches */
+    private String keyPrefix = "ziyara:cache:";
+
+    /** Redis pub/sub channel carrying evictions to the other nodes */
+    private String invalidationChannel = "ziyara:cache-invalidation";
+
+    /** How long a caller waits for another caller's in-flight load of the same key before loading itself */
+    private Duration loadTimeout = Duration.ofSeconds(5);
+
+    private Remote remote = new Remote();
+
+    private CacheSpec defaults = new CacheSpec(1_000L, Duration.ofMinutes(10), Duration.ofMinutes(30));
+
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    /**
+     * Effective settings of one cache, falling back to the defaults for anything not overridden
+     */
+    public CacheSpec specFor(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        if (spec == null) {
+            return defaults;
+        }
+        return new CacheSpec(
+                spec.getMaximumSize() != null ? spec.getMaximumSize() : defaults.getMaximumSize(),
+                spec.getTimeToLive() != null ? spec.getTimeToLive() : defaults.getTimeToLive(),
+                spec.getRemoteTimeToLive() != null ? spec.getRemoteTimeToLive() : defaults.getRemoteTimeToLive(),
+                spec.getRefreshAfter() != null ? spec.getRefreshAfter() : defaults.getRefreshAfter());
+    }
+
+    @Data
+    public static class Remote {
+
+        /** Use Redis as a shared L2 and for cross-node invalidation */
+        private boolean enabled = false;
+
+        /** How long to bypass Redis after a failed call before trying it again */
+        private Duration failureBackoff = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class CacheSpec {
+
+        /** Maximum number of L1 entries per node */
+        private Long maximumSize;
+
+        /** L1 time to live; past it, callers block on a reload */
+        private Duration timeToLive;
+
+        /** L2 (Redis) time to live */
+        private Duration remoteTimeToLive;
+
+        /**
+         * Soft time to live: an older entry is still served, and its first access reloads it in the
+         * background. {@code null} disables refresh-ahead; it only helps when shorter than the time to live.
+         */
+        private Duration refreshAfter;
+
+        public CacheSpec() {
+        }
+
+        public CacheSpec(Long maximumSize, Duration timeToLive, Duration remoteTimeToLive) {
+            this(maximumSize, timeToLive, remoteTimeToLive, null);
+        }
+
+        public CacheSpec(Long maximumSize, Duration timeToLive, Duration remoteTimeToLive, Duration refreshAfter) {
+            this.maximumSize = maximumSize;
+            this.timeToLive = timeToLive;
+            this.remoteTimeToLive = remoteTimeToLive;
+            this.refreshAfter = refreshAfter;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ma.enset.ziyara.core.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache regions, held in a Caffeine-backed JCache manager.
+ * <p>
+ * Regions are created up front so each one is bounded; Hibernate is configured to fail
+ * instead of silently creating an unbounded cache for an unknown region.
+ */
+@Configuration
+@Slf4j
+public class HibernateCacheConfig {
+
+    public static final String CITY_REGION = "entity.city";
+    public static final String DESTINATION_REGION = "entity.destination";
+    public static final String DESTINATION_IMAGE_REGION = "entity.destination-image";
+    public static final String DESTINATION_TAG_REGION = "entity.destination-tag";
+    public static final String DESTINATION_IMAGES_REGION = "collection.destination.images";
+    public static final String DESTINATION_TAGS_REGION = "collection.destination.tags";
+    public static final String CITY_QUERY_REGION = "query.city";
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${app.hibernate-cache.destination-max-entries:50000}")
+    private long destinationMaxEntries;
+
+    @Value("${app.hibernate-cache.time-to-live:PT1H}")
+    private Duration timeToLive;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                provider.getDefaultURI(), HibernateCacheConfig.class.getClassLoader());
+
+        // Cities are a few hundred rows at most and change rarely
+        createRegion(cacheManager, CITY_REGION, 2_000, timeToLive);
+        createRegion(cacheManager, CITY_QUERY_REGION, 1_000, timeToLive);
+
+        createRegion(cacheManager, DESTINATION_REGION, destinationMaxEntries, timeToLive);
+        createRegion(cacheManager, DESTINATION_IMAGES_REGION, destinationMaxEntries, timeToLive);
+        createRegion(cacheManager, DESTINATION_TAGS_REGION, destinationMaxEntries, timeToLive);
+        createRegion(cacheManager, DESTINATION_IMAGE_REGION, destinationMaxEntries * 4, timeToLive);
+        createRegion(cacheManager, DESTINATION_TAG_REGION, destinationMaxEntries * 4, timeToLive);
+
+        createRegion(cacheManager, QUERY_RESULTS_REGION, 1_000, timeToLive);
+        // Update timestamps guard query cache consistency and must never be evicted
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, -1, null);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private void createRegion(CacheManager cacheManager, String name, long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        if (maximumSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        cacheManager.createCache(name, configuration);
+        log.debug("Created second-level cache region {} (max {} entries)", name, maximumSize);
+    }
+}
@@ -1,14 +1,23 @@
 package ma.enset.ziyara.core.config;
 
+import lombok.RequiredArgsConstructor;
+import ma.enset.ziyara.core.monitoring.SqlMetricsInterceptor;
+import ma.enset.ziyara.core.service.FileUploadService;
+import ma.enset.ziyara.core.upload.UploadResourceResolver;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final SqlMetricsInterceptor sqlMetricsInterceptor;
+    private final FileUploadService fileUploadService;
+
     @Value("${app.file-upload.upload-dir:./uploads}")
     private String uploadDir;
 
@@ -26,12 +35,22 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true);
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Per-request SQL metrics for the destination and city APIs
+        registry.addInterceptor(sqlMetricsInterceptor)
+                .addPathPatterns("/api/destinations/**", "/api/cities/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve uploaded files
+        // Serve uploaded files, wherever the storage layout put them; resolutions are not cached since
+        // the layout migration moves files
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadDir + "/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCachePeriod(3600) // Cache for 1 hour
+                .resourceChain(false)
+                .addResolver(new UploadResourceResolver(fileUploadService));
 
         // Serve static web content
         registry.addResourceHandler("/static/**")
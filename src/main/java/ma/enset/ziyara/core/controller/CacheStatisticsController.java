@@ -0,0 +1,39 @@
+package ma.enset.ziyara.core.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.ApiResult;
+import ma.enset.ziyara.core.dto.CacheStatisticsDto;
+import ma.enset.ziyara.core.service.CacheStatisticsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Cache Administration", description = "APIs for inspecting cache efficiency")
+public class CacheStatisticsController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping("/statistics")
+    @Operation(summary = "Get cache statistics",
+            description = "Get hit, miss and put counts with hit ratio for every application cache tier and Hibernate region")
+    public ResponseEntity<ApiResult<List<CacheStatisticsDto>>> getCacheStatistics() {
+
+        log.info("Getting cache statistics");
+        List<CacheStatisticsDto> statistics = cacheStatisticsService.getCacheStatistics();
+
+        return ResponseEntity.ok(ApiResult.success(
+                statistics,
+                "Retrieved statistics for " + statistics.size() + " caches"
+        ));
+    }
+}
@@ -4,20 +4,23 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.enset.ziyara.core.dto.ApiResult;
+import ma.enset.ziyara.core.dto.StoredFile;
 import ma.enset.ziyara.core.service.FileUploadService;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
+import ma.enset.ziyara.core.upload.ImageVariant;
+import ma.enset.ziyara.core.upload.MultipartStream;
+import ma.enset.ziyara.core.upload.StoredFileResponder;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +33,7 @@ import java.util.Map;
 public class FileUploadController {
 
     private final FileUploadService fileUploadService;
+    private final StoredFileResponder storedFileResponder;
 
     @PostMapping("/upload")
     @Operation(summary = "Upload a single file",
@@ -94,6 +98,35 @@ public class FileUploadController {
         ));
     }
 
+    @PostMapping(value = "/upload/stream/{category}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Stream files to disk",
+            description = "Upload up to 10 image files, written to disk while the request body arrives")
+    @ApiResponse(responseCode = "200", description = "Files uploaded successfully")
+    public ResponseEntity<ApiResult<List<Map<String, String>>>> uploadStreaming(
+            @Parameter(description = "Category/folder for the files")
+            @PathVariable String category,
+            HttpServletRequest request) throws IOException {
+
+        // The category is a path variable: reading a request parameter would make the container parse the body
+        MultipartStream multipart = MultipartStream.of(request.getInputStream(), request.getContentType());
+        List<StoredFile> files = fileUploadService.storeMultipart(multipart, category);
+
+        List<Map<String, String>> response = files.stream()
+                .map(file -> Map.of(
+                        "fileName", file.fileName(),
+                        "fileUrl", file.fileUrl(),
+                        "category", file.category(),
+                        "size", String.valueOf(file.size()),
+                        "contentType", file.contentType()
+                ))
+                .toList();
+
+        return ResponseEntity.ok(ApiResult.success(
+                response,
+                files.size() + " files uploaded successfully"
+        ));
+    }
+
     @DeleteMapping("/delete")
     @Operation(summary = "Delete a file",
             description = "Delete an uploaded file by its URL")
@@ -140,67 +173,55 @@ public class FileUploadController {
 
     @GetMapping("/serve/{category}/{filename:.+}")
     @Operation(summary = "Serve uploaded file",
-            description = "Serve an uploaded file for display")
-    public ResponseEntity<Resource> serveFile(
+            description = "Serve an uploaded file for display; supports conditional and byte-range requests")
+    public void serveFile(
             @Parameter(description = "File category")
             @PathVariable String category,
 
             @Parameter(description = "File name")
-            @PathVariable String filename) {
-
-        try {
-            String fileUrl = "/" + category + "/" + filename;
-            Path filePath = fileUploadService.getFilePath(fileUrl);
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                // Determine content type
-                String contentType = determineContentType(filename);
-
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .body(resource);
-            } else {
-                log.warn("File not found or not readable: {}", fileUrl);
-                return ResponseEntity.notFound().build();
-            }
-
-        } catch (MalformedURLException e) {
-            log.error("Malformed URL for file: {}/{}", category, filename, e);
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            log.error("Error serving file: {}/{}", category, filename, e);
-            return ResponseEntity.internalServerError().build();
-        }
+            @PathVariable String filename,
+
+            @Parameter(description = "Downscaled copy to serve: thumb, medium or large")
+            @RequestParam(required = false) String variant,
+
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        serve("/" + category + "/" + filename, variant, request, response);
     }
 
     @GetMapping("/serve/**")
     @Operation(summary = "Serve any uploaded file",
             description = "Serve any uploaded file by full path")
-    public ResponseEntity<Resource> serveAnyFile(
+    public void serveAnyFile(
             @Parameter(description = "Full file path")
-            @RequestParam String path) {
-
-        try {
-            Path filePath = fileUploadService.getFilePath(path);
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                String filename = filePath.getFileName().toString();
-                String contentType = determineContentType(filename);
-
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-
-        } catch (Exception e) {
-            log.error("Error serving file: {}", path, e);
-            return ResponseEntity.badRequest().build();
+            @RequestParam String path,
+
+            @Parameter(description = "Downscaled copy to serve: thumb, medium or large")
+            @RequestParam(required = false) String variant,
+
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        serve(path, variant, request, response);
+    }
+
+    /**
+     * Serve the requested variant when it has been generated, otherwise the original in its place
+     */
+    private void serve(String fileUrl, String variant, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path filePath = fileUploadService.resolveFilePath(fileUrl);
+        String contentType = determineContentType(filePath.getFileName().toString());
+        if (variant == null) {
+            storedFileResponder.respond(filePath, contentType, request, response);
+            return;
+        }
+        Path variantPath = fileUploadService.resolveFilePath(ImageVariant.fromKey(variant).urlOf(fileUrl));
+        if (Files.isRegularFile(variantPath)) {
+            storedFileResponder.respond(variantPath, contentType, request, response);
+        } else {
+            storedFileResponder.respondRevalidating(filePath, contentType, request, response);
         }
     }
 
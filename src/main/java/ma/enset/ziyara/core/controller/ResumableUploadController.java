@@ -0,0 +1,121 @@
+package ma.enset.ziyara.core.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.ApiResult;
+import ma.enset.ziyara.core.dto.StoredFile;
+import ma.enset.ziyara.core.dto.UploadProgress;
+import ma.enset.ziyara.core.dto.UploadSessionRequest;
+import ma.enset.ziyara.core.service.ResumableUploadService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/files/uploads")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Resumable Uploads", description = "APIs for uploading a file in chunks over several requests")
+public class ResumableUploadController {
+
+    private final ResumableUploadService resumableUploadService;
+
+    @PostMapping
+    @Operation(summary = "Start a resumable upload",
+            description = "Open an upload session for a file of the given size and SHA-256")
+    @ApiResponse(responseCode = "201", description = "Upload session created")
+    public ResponseEntity<ApiResult<UploadProgress>> createSession(
+            @Valid @RequestBody UploadSessionRequest request) {
+
+        log.info("Opening upload session for {} ({} bytes) in category: {}", request.getFileName(),
+                request.getSize(), request.getCategory());
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResult.success(
+                resumableUploadService.create(request),
+                "Upload session created"
+        ));
+    }
+
+    @PutMapping(value = "/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Send a chunk",
+            description = "Write the request body at the given offset, which must not be past the bytes received")
+    @ApiResponse(responseCode = "200", description = "Chunk written")
+    @ApiResponse(responseCode = "409", description = "Offset past the bytes received; query the progress")
+    public ResponseEntity<ApiResult<UploadProgress>> writeChunk(
+            @Parameter(description = "Upload session id")
+            @PathVariable String uploadId,
+
+            @Parameter(description = "Offset in the file the chunk starts at")
+            @RequestParam long offset,
+
+            HttpServletRequest request) throws IOException {
+
+        UploadProgress progress = resumableUploadService.writeChunk(uploadId, offset, request.getInputStream());
+
+        return ResponseEntity.ok(ApiResult.success(
+                progress,
+                progress.receivedBytes() + " of " + progress.size() + " bytes received"
+        ));
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "Get upload progress",
+            description = "Get the offset the next chunk of an upload starts at")
+    public ResponseEntity<ApiResult<UploadProgress>> getProgress(
+            @Parameter(description = "Upload session id")
+            @PathVariable String uploadId) {
+
+        UploadProgress progress = resumableUploadService.getProgress(uploadId);
+
+        return ResponseEntity.ok(ApiResult.success(
+                progress,
+                progress.receivedBytes() + " of " + progress.size() + " bytes received"
+        ));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "Finish a resumable upload",
+            description = "Verify the checksum of the received file and store it")
+    @ApiResponse(responseCode = "200", description = "File uploaded successfully")
+    public ResponseEntity<ApiResult<Map<String, String>>> complete(
+            @Parameter(description = "Upload session id")
+            @PathVariable String uploadId) {
+
+        StoredFile file = resumableUploadService.complete(uploadId);
+
+        Map<String, String> response = Map.of(
+                "fileName", file.fileName(),
+                "fileUrl", file.fileUrl(),
+                "category", file.category(),
+                "size", String.valueOf(file.size()),
+                "contentType", file.contentType()
+        );
+
+        return ResponseEntity.ok(ApiResult.success(
+                response,
+                "File uploaded successfully"
+        ));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Cancel a resumable upload",
+            description = "Abandon an upload and delete the bytes received")
+    public ResponseEntity<ApiResult<Void>> cancel(
+            @Parameter(description = "Upload session id")
+            @PathVariable String uploadId) {
+
+        resumableUploadService.cancel(uploadId);
+
+        return ResponseEntity.ok(ApiResult.success(null, "Upload cancelled"));
+    }
+}
@@ -0,0 +1,49 @@
+package ma.enset.ziyara.core.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.ApiResult;
+import ma.enset.ziyara.core.dto.LayoutMigrationBatch;
+import ma.enset.ziyara.core.exception.BadRequestException;
+import ma.enset.ziyara.core.upload.UploadLayoutMigrator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/uploads")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Upload Administration", description = "APIs for maintaining the upload directory")
+public class UploadLayoutController {
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private final UploadLayoutMigrator uploadLayoutMigrator;
+
+    @PostMapping("/layout/migrate")
+    @Operation(summary = "Run a layout migration batch",
+            description = "Move a batch of files stored flat in their category into shard directories, "
+                    + "without waiting for the background migration")
+    public ResponseEntity<ApiResult<LayoutMigrationBatch>> migrateLayout(
+            @Parameter(description = "Maximum number of files to move")
+            @RequestParam(defaultValue = "500") int batchSize) {
+
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        log.info("Running upload layout migration batch of {}", batchSize);
+        LayoutMigrationBatch batch = uploadLayoutMigrator.migrateBatch(batchSize);
+
+        return ResponseEntity.ok(ApiResult.success(
+                batch,
+                batch.complete() ? "Upload layout migration complete" : "Moved " + batch.moved() + " files"
+        ));
+    }
+}
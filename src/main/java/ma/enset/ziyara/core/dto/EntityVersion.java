@@ -0,0 +1,9 @@
+package ma.enset.ziyara.core.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version columns of a {@link ma.enset.ziyara.core.entity.BaseEntity}, loaded without the entity
+ */
+public record EntityVersion(Long id, Long version, LocalDateTime updatedAt) {
+}
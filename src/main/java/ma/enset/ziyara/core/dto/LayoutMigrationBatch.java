@@ -0,0 +1,11 @@
+package ma.enset.ziyara.core.dto;
+
+/**
+ * Outcome of one batch of the upload layout migration
+ *
+ * @param moved    files moved into their shard directory
+ * @param failed   files left in place, retried after a restart
+ * @param complete whether no flat file is left to move
+ */
+public record LayoutMigrationBatch(int moved, int failed, boolean complete) {
+}
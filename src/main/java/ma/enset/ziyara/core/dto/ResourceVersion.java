@@ -0,0 +1,78 @@
+package ma.enset.ziyara.core.dto;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validator of a GET response: a strong ETag over the versions of everything the body shows, and the
+ * latest modification time among them.
+ * <p>
+ * Bodies read straight from the database are versioned by version-only queries, so a revalidation that
+ * ends in 304 never loads or maps the entities themselves. Bodies served from a cache are versioned from
+ * the served DTOs instead, since the cache may lag behind those queries.
+ */
+public record ResourceVersion(String etag, LocalDateTime lastModified) {
+
+    public static Builder builder(String resource) {
+        return new Builder(resource);
+    }
+
+    /**
+     * Evaluate the request's conditional headers; also sets ETag and Last-Modified on the response.
+     * A {@code null} version (resource not found) is never "not modified", so the 404 path runs as usual.
+     */
+    public static boolean isNotModified(ResourceVersion version, WebRequest request) {
+        if (version == null) {
+            return false;
+        }
+        return request.checkNotModified(version.etag(), version.lastModifiedMillis());
+    }
+
+    /**
+     * Last modification time as epoch milliseconds, or -1 when unknown
+     */
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    public static final class Builder {
+
+        private final StringBuilder fingerprint;
+        private LocalDateTime lastModified;
+
+        private Builder(String resource) {
+            fingerprint = new StringBuilder(resource);
+        }
+
+        /**
+         * Add anything the body depends on: ids in order, versions, counts, page metadata
+         */
+        public Builder add(Object part) {
+            fingerprint.append('|').append(part);
+            return this;
+        }
+
+        public Builder modifiedAt(LocalDateTime modifiedAt) {
+            if (modifiedAt != null && (lastModified == null || modifiedAt.isAfter(lastModified))) {
+                lastModified = modifiedAt;
+            }
+            return this;
+        }
+
+        /**
+         * Add an entity's identity, version and modification time
+         */
+        public Builder add(EntityVersion version) {
+            return add(version.id()).add(version.version()).modifiedAt(version.updatedAt());
+        }
+
+        public ResourceVersion build() {
+            String hash = DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+            return new ResourceVersion('"' + hash + '"', lastModified);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ma.enset.ziyara.core.dto;
+
+/**
+ * A file written to the upload directory
+ *
+ * @param fileName    name sent by the client
+ * @param fileUrl     URL relative to the upload directory, as stored on entities
+ * @param contentType type detected from the content
+ */
+public record StoredFile(String fileName, String fileUrl, String category, long size, String contentType) {
+}
@@ -0,0 +1,14 @@
+package ma.enset.ziyara.core.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a resumable upload
+ *
+ * @param uploadId      id to send the chunks to
+ * @param receivedBytes offset the next chunk starts at
+ * @param expiresAt     when the session is dropped unless another chunk arrives
+ */
+public record UploadProgress(String uploadId, String fileName, String category, long size, long receivedBytes,
+                             LocalDateTime expiresAt) {
+}
@@ -0,0 +1,33 @@
+package ma.enset.ziyara.core.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name cannot exceed 255 characters")
+    private String fileName;
+
+    @NotBlank(message = "Category is required")
+    private String category;
+
+    @NotNull(message = "Size is required")
+    @Positive(message = "Size must be positive")
+    private Long size;
+
+    @NotBlank(message = "Checksum is required")
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "Checksum must be the hex SHA-256 of the file")
+    private String checksum;
+}
@@ -0,0 +1,31 @@
+package ma.enset.ziyara.core.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Outbox entry for a file to delete, written in the transaction that removed its last database
+ * reference and removed once the file is gone
+ */
+@Entity
+@Table(name = "pending_file_deletions", indexes = {
+        @Index(name = "idx_pending_file_deletions_created_at", columnList = "created_at")
+})
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PendingFileDeletion extends BaseEntity {
+
+    @Column(name = "file_url", nullable = false, length = 500)
+    private String fileUrl;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+}
@@ -0,0 +1,33 @@
+package ma.enset.ziyara.core.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * An uploaded file stored under the SHA-256 of its content, with the number of uploads that resolved
+ * to it; the file is deleted when the last of them is
+ */
+@Entity
+@Table(name = "stored_blobs")
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class StoredBlob extends BaseEntity {
+
+    @Column(name = "file_url", nullable = false, unique = true, length = 500)
+    private String fileUrl;
+
+    @Column(name = "reference_count", nullable = false)
+    private Long referenceCount;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+}
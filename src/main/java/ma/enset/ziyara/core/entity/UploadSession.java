@@ -0,0 +1,50 @@
+package ma.enset.ziyara.core.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable upload in progress: the file it will become and how much of it has arrived
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+        @Index(name = "idx_upload_sessions_expires_at", columnList = "expires_at")
+})
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class UploadSession extends BaseEntity {
+
+    /** Id the client addresses the session by; random, so a session is only reachable by its client */
+    @Column(nullable = false, unique = true, length = 36)
+    private String token;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(nullable = false, length = 50)
+    private String category;
+
+    @Column(nullable = false)
+    private Long size;
+
+    /** Hex SHA-256 of the whole file, declared by the client */
+    @Column(nullable = false, length = 64)
+    private String checksum;
+
+    /** Bytes received from the start of the file, without a gap */
+    @Column(name = "received_bytes", nullable = false)
+    @Builder.Default
+    private Long receivedBytes = 0L;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,31 @@
+package ma.enset.ziyara.core.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A frequently requested cache key, replayed on startup to warm caches
+ */
+@Entity
+@Table(name = "warmup_keys")
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class WarmupKey extends BaseEntity {
+
+    /** Declaring class, method name and arity of the {@code @Warmable} method */
+    @Column(nullable = false, length = 200)
+    private String operation;
+
+    /** Invocation arguments as a JSON array */
+    @Column(nullable = false, length = 2000)
+    private String arguments;
+
+    @Column(nullable = false)
+    private Long hits;
+}
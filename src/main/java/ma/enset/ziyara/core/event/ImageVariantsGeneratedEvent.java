@@ -0,0 +1,14 @@
+package ma.enset.ziyara.core.event;
+
+import ma.enset.ziyara.core.upload.ImageVariant;
+
+import java.util.List;
+
+/**
+ * The variant pipeline finished with an uploaded image. {@code variants} lists the copies written; it
+ * is empty for an image already smaller than every variant, and when {@code succeeded} is false.
+ * {@code placeholder} is the image's BlurHash, {@code null} when it could not be decoded.
+ */
+public record ImageVariantsGeneratedEvent(String fileUrl, List<ImageVariant> variants, String placeholder,
+                                          boolean succeeded) {
+}
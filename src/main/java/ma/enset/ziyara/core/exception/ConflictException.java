@@ -0,0 +1,12 @@
+package ma.enset.ziyara.core.exception;
+
+/**
+ * A request that does not fit the current state of its resource; rendered as a 409 so the client can
+ * refresh that state and retry
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
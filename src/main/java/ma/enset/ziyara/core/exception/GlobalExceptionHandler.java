@@ -22,7 +22,8 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResult<Object>> handleResourceNotFoundException(
             ResourceNotFoundException ex, WebRequest request) {
 
-        log.error("Resource not found: {}", ex.getMessage());
+        // Expected traffic (stale links, crawlers): not worth an error line each
+        log.debug("Resource not found: {}", ex.getMessage());
 
         ApiResult<Object> response = ApiResult.error(
                 ex.getMessage(),
@@ -46,6 +47,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResult<Object>> handleConflictException(
+            ConflictException ex, WebRequest request) {
+
+        log.debug("Conflict: {}", ex.getMessage());
+
+        ApiResult<Object> response = ApiResult.error(
+                ex.getMessage(),
+                "Conflict"
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResult<Object>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
@@ -1,9 +1,15 @@
 package ma.enset.ziyara.core.exception;
 
+/**
+ * A lookup found nothing; rendered as a 404.
+ * <p>
+ * Thrown for every request naming a missing id or name, so the message-only constructor skips stack
+ * trace capture: the handler never logs it and filling it in dominated the cost of a 404.
+ */
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
@@ -0,0 +1,14 @@
+package ma.enset.ziyara.core.monitoring;
+
+import jakarta.persistence.PostLoad;
+
+/**
+ * Counts entities hydrated by Hibernate, from JDBC rows or from the second-level cache
+ */
+public class EntityLoadListener {
+
+    @PostLoad
+    public void onPostLoad(Object entity) {
+        SqlMetrics.recordEntityLoaded();
+    }
+}
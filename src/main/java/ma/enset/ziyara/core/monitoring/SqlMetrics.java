@@ -0,0 +1,79 @@
+package ma.enset.ziyara.core.monitoring;
+
+/**
+ * JDBC work done on behalf of one HTTP request.
+ * <p>
+ * The current request's metrics are bound to the handling thread by {@link SqlMetricsInterceptor};
+ * the datasource proxy and the entity load listener record into whatever is bound, and do nothing
+ * for work outside a request (scheduled flushes, seeding).
+ */
+public final class SqlMetrics {
+
+    private static final ThreadLocal<SqlMetrics> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long statements;
+    private long jdbcTimeNanos;
+    private long rowsFetched;
+    private long entitiesLoaded;
+
+    static SqlMetrics start() {
+        SqlMetrics metrics = new SqlMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static SqlMetrics current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static void recordStatement(long elapsedNanos, int count) {
+        SqlMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.statements += count;
+            metrics.jdbcTimeNanos += elapsedNanos;
+        }
+    }
+
+    static void recordRowFetched() {
+        SqlMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.rowsFetched++;
+        }
+    }
+
+    static void recordEntityLoaded() {
+        SqlMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.entitiesLoaded++;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getJdbcTimeMillis() {
+        return jdbcTimeNanos / 1_000_000L;
+    }
+
+    public long getJdbcTimeNanos() {
+        return jdbcTimeNanos;
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
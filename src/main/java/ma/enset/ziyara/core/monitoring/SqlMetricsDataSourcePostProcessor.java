@@ -0,0 +1,75 @@
+package ma.enset.ziyara.core.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Wraps the application datasource so statement count, JDBC time and fetched rows can be
+ * attributed to the current request.
+ */
+@Component
+@ConditionalOnProperty(name = "app.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetricsDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(new StatementListener())
+                .proxyResultSet()
+                .methodListener(new RowListener())
+                .build();
+    }
+
+    /**
+     * Times statements with {@link System#nanoTime()}: the proxy's own elapsed time is in whole
+     * milliseconds, which rounds most statements of a request down to zero
+     */
+    private static final class StatementListener implements QueryExecutionListener {
+
+        private static final String START_NANOS = "sqlMetrics.startNanos";
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            long elapsedNanos = System.nanoTime() - execInfo.getCustomValue(START_NANOS, Long.class);
+            // A batch is one round trip but as many statements as it carries
+            int count = execInfo.isBatch() ? Math.max(execInfo.getBatchSize(), 1) : 1;
+            SqlMetrics.recordStatement(elapsedNanos, count);
+        }
+    }
+
+    private static final class RowListener implements MethodExecutionListener {
+
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            if (executionContext.getTarget() instanceof ResultSet
+                    && "next".equals(executionContext.getMethod().getName())
+                    && Boolean.TRUE.equals(executionContext.getResult())) {
+                SqlMetrics.recordRowFetched();
+            }
+        }
+    }
+}
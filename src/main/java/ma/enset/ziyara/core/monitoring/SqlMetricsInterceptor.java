@@ -0,0 +1,123 @@
+package ma.enset.ziyara.core.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds a {@link SqlMetrics} to each instrumented request, publishes it as metrics when the
+ * request completes and logs a structured {@code slow_request} record when a budget is exceeded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SqlMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String ENDPOINT_ATTRIBUTE = SqlMetricsInterceptor.class.getName() + ".endpoint";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.instrumentation.metrics-enabled:true}")
+    private boolean metricsEnabled;
+
+    @Value("${app.instrumentation.slow-request.max-statements:20}")
+    private long maxStatements;
+
+    @Value("${app.instrumentation.slow-request.max-jdbc-time-ms:200}")
+    private long maxJdbcTimeMs;
+
+    @Value("${app.instrumentation.slow-request.max-rows:1000}")
+    private long maxRows;
+
+    @Value("${app.instrumentation.slow-request.max-duration-ms:500}")
+    private long maxDurationMs;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            request.setAttribute(ENDPOINT_ATTRIBUTE,
+                    handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+            SqlMetrics.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlMetrics metrics = SqlMetrics.current();
+        if (metrics == null) {
+            return;
+        }
+        try {
+            String endpoint = (String) request.getAttribute(ENDPOINT_ATTRIBUTE);
+            if (metricsEnabled) {
+                record(endpoint, metrics);
+            }
+            List<String> exceeded = exceededBudgets(metrics);
+            if (!exceeded.isEmpty()) {
+                log.warn("slow_request endpoint={} method={} uri={} status={} duration_ms={} statements={} "
+                                + "jdbc_time_ms={} rows={} entities={} exceeded={}",
+                        endpoint, request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        metrics.getElapsedMillis(), metrics.getStatements(), metrics.getJdbcTimeMillis(),
+                        metrics.getRowsFetched(), metrics.getEntitiesLoaded(), String.join(",", exceeded));
+            }
+        } finally {
+            SqlMetrics.clear();
+        }
+    }
+
+    // Private helper methods
+
+    private void record(String endpoint, SqlMetrics metrics) {
+        DistributionSummary.builder("ziyara.request.sql.statements")
+                .description("SQL statements executed per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(metrics.getStatements());
+        Timer.builder("ziyara.request.sql.time")
+                .description("JDBC time spent per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(metrics.getJdbcTimeNanos()));
+        DistributionSummary.builder("ziyara.request.sql.rows")
+                .description("Result set rows fetched per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(metrics.getRowsFetched());
+        DistributionSummary.builder("ziyara.request.entities.loaded")
+                .description("JPA entities loaded per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(metrics.getEntitiesLoaded());
+    }
+
+    private List<String> exceededBudgets(SqlMetrics metrics) {
+        List<String> exceeded = new ArrayList<>(4);
+        if (metrics.getStatements() > maxStatements) {
+            exceeded.add("statements");
+        }
+        if (metrics.getJdbcTimeMillis() > maxJdbcTimeMs) {
+            exceeded.add("jdbc_time");
+        }
+        if (metrics.getRowsFetched() > maxRows) {
+            exceeded.add("rows");
+        }
+        if (metrics.getElapsedMillis() > maxDurationMs) {
+            exceeded.add("duration");
+        }
+        return exceeded;
+    }
+}
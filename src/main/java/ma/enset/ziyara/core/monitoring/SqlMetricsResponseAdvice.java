@@ -0,0 +1,45 @@
+package ma.enset.ziyara.core.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Exposes the request's SQL metrics as response headers just before the body is written.
+ * Intended for development and test environments; disabled in production.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "app.instrumentation.expose-headers", havingValue = "true")
+public class SqlMetricsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlMetrics metrics = SqlMetrics.current();
+        if (metrics != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-SQL-Statements", String.valueOf(metrics.getStatements()));
+            headers.set("X-SQL-Time-Ms", String.valueOf(metrics.getJdbcTimeMillis()));
+            headers.set("X-SQL-Rows", String.valueOf(metrics.getRowsFetched()));
+            headers.set("X-Entities-Loaded", String.valueOf(metrics.getEntitiesLoaded()));
+            // Fractional milliseconds, as a request's statements often take well under one each
+            headers.set("Server-Timing", "db;dur=" + String.format(Locale.ROOT, "%.3f", metrics.getJdbcTimeNanos() / 1e6)
+                    + ";desc=\"" + metrics.getStatements() + " statements\"");
+        }
+        return body;
+    }
+}
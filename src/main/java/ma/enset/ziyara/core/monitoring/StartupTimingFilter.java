@@ -0,0 +1,64 @@
+package ma.enset.ziyara.core.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports how long the JVM took to become ready and to complete its first HTTP request.
+ * Both are measured from JVM start, so they include class loading and context refresh.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong readyMillis = new AtomicLong(-1);
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyMillis.set(sinceJvmStart());
+        Gauge.builder("ziyara.startup.time-to-ready", readyMillis, AtomicLong::get)
+                .description("Milliseconds from JVM start to application ready")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        log.info("startup time_to_ready_ms={}", readyMillis.get());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (firstRequestMillis.get() < 0 && firstRequestMillis.compareAndSet(-1, sinceJvmStart())) {
+                Gauge.builder("ziyara.startup.time-to-first-request", firstRequestMillis, AtomicLong::get)
+                        .description("Milliseconds from JVM start to the first completed HTTP request")
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry);
+                log.info("startup time_to_first_request_ms={} uri={} status={}",
+                        firstRequestMillis.get(), request.getRequestURI(), response.getStatus());
+            }
+        }
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
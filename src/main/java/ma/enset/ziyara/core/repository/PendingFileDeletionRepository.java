@@ -0,0 +1,15 @@
+package ma.enset.ziyara.core.repository;
+
+import ma.enset.ziyara.core.entity.PendingFileDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingFileDeletionRepository extends JpaRepository<PendingFileDeletion, Long> {
+
+    List<PendingFileDeletion> findByCreatedAtBeforeOrderByCreatedAt(LocalDateTime before, Pageable pageable);
+}
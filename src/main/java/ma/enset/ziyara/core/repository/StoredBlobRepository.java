@@ -0,0 +1,15 @@
+package ma.enset.ziyara.core.repository;
+
+import ma.enset.ziyara.core.entity.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    Optional<StoredBlob> findByFileUrl(String fileUrl);
+
+    boolean existsByFileUrl(String fileUrl);
+}
@@ -0,0 +1,38 @@
+package ma.enset.ziyara.core.repository;
+
+import ma.enset.ziyara.core.entity.UploadSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+
+    Optional<UploadSession> findByToken(String token);
+
+    List<UploadSession> findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime before, Pageable pageable);
+
+    /**
+     * Record that the bytes up to {@code end} are written, never moving the received offset back, and
+     * only if the chunk started within what was received; returns 0 when that no longer holds or the
+     * session is gone
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE UploadSession s
+        SET s.receivedBytes = CASE WHEN s.receivedBytes < :end THEN :end ELSE s.receivedBytes END,
+            s.expiresAt = :expiresAt, s.updatedAt = :now, s.version = s.version + 1
+        WHERE s.token = :token AND s.receivedBytes >= :offset
+        """)
+    int recordProgress(@Param("token") String token, @Param("offset") long offset, @Param("end") long end,
+                       @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,13 @@
+package ma.enset.ziyara.core.repository;
+
+import ma.enset.ziyara.core.entity.WarmupKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WarmupKeyRepository extends JpaRepository<WarmupKey, Long> {
+
+    List<WarmupKey> findAllByOrderByHitsDesc();
+}
@@ -0,0 +1,96 @@
+package ma.enset.ziyara.core.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import ma.enset.ziyara.core.cache.TwoLevelCache;
+import ma.enset.ziyara.core.cache.TwoLevelCacheManager;
+import ma.enset.ziyara.core.dto.CacheStatisticsDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TwoLevelCacheManager cacheManager;
+
+    /**
+     * Statistics of the application caches followed by the Hibernate ones
+     */
+    public List<CacheStatisticsDto> getCacheStatistics() {
+        List<CacheStatisticsDto> result = new ArrayList<>(getApplicationCacheStatistics());
+        result.addAll(getHibernateCacheStatistics());
+        return result;
+    }
+
+    /**
+     * Hit/miss counters of the Spring caches, per tier: this node's L1 and the shared L2 as seen from this node
+     */
+    public List<CacheStatisticsDto> getApplicationCacheStatistics() {
+        List<CacheStatisticsDto> result = new ArrayList<>();
+        cacheManager.getCaches().stream()
+                .sorted(Comparator.comparing(TwoLevelCache::getName))
+                .forEach(cache -> {
+                    CacheStats local = cache.getLocalStats();
+                    result.add(CacheStatisticsDto.builder()
+                            .name(cache.getName())
+                            .tier("l1")
+                            .hitCount(local.hitCount())
+                            .missCount(local.missCount())
+                            .putCount(cache.getLocalPutCount())
+                            .build());
+                    if (cache.isRemoteEnabled()) {
+                        result.add(CacheStatisticsDto.builder()
+                                .name(cache.getName())
+                                .tier("l2")
+                                .hitCount(cache.getRemoteHitCount())
+                                .missCount(cache.getRemoteMissCount())
+                                .putCount(cache.getRemotePutCount())
+                                .build());
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Hit/miss counters of every Hibernate second-level and query cache region
+     */
+    public List<CacheStatisticsDto> getHibernateCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheStatisticsDto> result = new ArrayList<>();
+
+        Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .forEach(region -> {
+                    CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+                    if (regionStatistics != null) {
+                        result.add(CacheStatisticsDto.builder()
+                                .name(region)
+                                .tier("hibernate-l2")
+                                .hitCount(regionStatistics.getHitCount())
+                                .missCount(regionStatistics.getMissCount())
+                                .putCount(regionStatistics.getPutCount())
+                                .build());
+                    }
+                });
+
+        result.add(CacheStatisticsDto.builder()
+                .name("query-cache")
+                .tier("hibernate-query")
+                .hitCount(statistics.getQueryCacheHitCount())
+                .missCount(statistics.getQueryCacheMissCount())
+                .putCount(statistics.getQueryCachePutCount())
+                .build());
+
+        return result;
+    }
+}
@@ -9,38 +9,79 @@ import ma.enset.ziyara.destination.entity.DestinationImage;
 import ma.enset.ziyara.destination.entity.DestinationTag;
 import ma.enset.ziyara.destination.entity.DestinationType;
 import ma.enset.ziyara.destination.repository.DestinationRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Set;
 
 @Service
+@Order(0)
 @RequiredArgsConstructor
 @Slf4j
 public class DataSeedingService implements ApplicationRunner {
 
+    private static final int REFERENCE_CITY_COUNT = 12;
+
     private final CityRepository cityRepository;
     private final DestinationRepository destinationRepository;
+    private final SyntheticDataGenerator syntheticDataGenerator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.data.seed-on-startup:true}")
+    private boolean seedOnStartup;
+
+    @Value("${app.data.synthetic.enabled:false}")
+    private boolean syntheticEnabled;
+
+    @Value("${app.data.seed-async:false}")
+    private boolean seedAsync;
 
     @Override
-    @Transactional
     public void run(ApplicationArguments args) throws Exception {
-        if (shouldSeedData()) {
-            log.info("Starting data seeding...");
-            seedCities();
-            seedDestinations();
-            log.info("Data seeding completed!");
+        if (!seedOnStartup) {
+            return;
+        }
+        if (seedAsync) {
+            // Runners delay readiness, so seed in the background and let traffic in meanwhile
+            Thread.ofVirtual().name("data-seeding").start(this::seed);
         } else {
-            log.info("Data already exists, skipping seeding.");
+            seed();
+        }
+    }
+
+    private void seed() {
+        try {
+            if (shouldSeedData()) {
+                log.info("Starting data seeding...");
+                transactionTemplate.executeWithoutResult(status -> {
+                    seedCities();
+                    seedDestinations();
+                });
+                log.info("Data seeding completed!");
+            } else {
+                log.info("Data already exists, skipping seeding.");
+            }
+            // Synthetic rows are generated outside any transaction, in parallel batches
+            if (syntheticEnabled && cityRepository.count() <= REFERENCE_CITY_COUNT) {
+                syntheticDataGenerator.generate();
+            }
+        } catch (RuntimeException e) {
+            if (!seedAsync) {
+                throw e;
+            }
+            log.error("Background data seeding failed", e);
         }
     }
 
     private boolean shouldSeedData() {
-        return cityRepository.count() == 0 && destinationRepository.count() == 0;
+        // Destinations cannot exist without a city
+        return cityRepository.count() == 0;
     }
 
     private void seedCities() {
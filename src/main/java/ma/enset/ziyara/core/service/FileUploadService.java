@@ -2,32 +2,50 @@ package ma.enset.ziyara.core.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.StoredFile;
 import ma.enset.ziyara.core.exception.BadRequestException;
+import ma.enset.ziyara.core.upload.BlobReferences;
+import ma.enset.ziyara.core.upload.BlobReferences.BlobLock;
+import ma.enset.ziyara.core.upload.ImageSignature;
+import ma.enset.ziyara.core.upload.MultipartStream;
+import ma.enset.ziyara.core.upload.UploadLayout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FileUploadService {
 
-    @Value("${app.file-upload.upload-dir:./uploads}")
-    private String uploadDir;
-
     @Value("${app.file-upload.max-size:10485760}") // 10MB
     private long maxFileSize;
 
@@ -38,6 +56,21 @@ public class FileUploadService {
             "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
     );
 
+    private static final int MAX_FILES_PER_REQUEST = 10;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final Pattern CATEGORY_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,50}");
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z]+");
+
+    private final BlobReferences blobReferences;
+    private final UploadLayout uploadLayout;
+
+    @Value("${app.file-upload.content-addressed:false}")
+    private boolean contentAddressed;
+
+    @Value("${app.file-upload.parallelism:4}")
+    private int parallelism;
+
     /**
      * Upload a single file
      */
@@ -47,69 +80,250 @@ public class FileUploadService {
         validateFile(file);
 
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = createUploadDirectory(category);
+            return storeFile(file.getInputStream(), file.getOriginalFilename(), category).fileUrl();
+        } catch (IOException e) {
+            log.error("Failed to upload file: {}", file.getOriginalFilename(), e);
+            throw new BadRequestException("Failed to upload file: " + e.getMessage());
+        }
+    }
 
-            // Generate unique filename
-            String fileName = generateUniqueFileName(file);
+    /**
+     * Stream every file part of a multipart body into the staging area as it arrives; form fields are
+     * skipped. Either all files are stored or none are.
+     */
+    public List<StoredFile> storeMultipart(MultipartStream multipart, String category) {
+        validateCategory(category);
+        List<StagedFile> staged = new ArrayList<>();
+        try {
+            MultipartStream.Part part;
+            while ((part = multipart.nextPart()) != null) {
+                if (!part.isFile()) {
+                    continue;
+                }
+                if (staged.size() == MAX_FILES_PER_REQUEST) {
+                    throw new BadRequestException("Cannot upload more than " + MAX_FILES_PER_REQUEST + " files at once");
+                }
+                staged.add(stage(part.content(), part.filename()));
+            }
+        } catch (IOException e) {
+            staged.forEach(file -> deleteQuietly(file.path()));
+            log.warn("Streaming upload to {} aborted: {}", category, e.getMessage());
+            throw new BadRequestException("Failed to upload file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            staged.forEach(file -> deleteQuietly(file.path()));
+            throw e;
+        }
+        if (staged.isEmpty()) {
+            throw new BadRequestException("File cannot be empty");
+        }
+        return commitAll(staged, category);
+    }
 
-            // Save file
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Write one file from a stream into its category directory.
+     * <p>
+     * The type is taken from the content's magic bytes and must agree with the file extension; the size
+     * limit is enforced while copying, so an oversized upload is cut off instead of read to the end. The
+     * bytes go through a file channel into the staging area, and are renamed into place once complete.
+     * <p>
+     * In content-addressed mode the file is named by the SHA-256 of its content, hashed while it is
+     * copied. Uploading content already stored adds a reference to the existing file and discards the
+     * new copy, so the URL is the same for every upload of the same bytes.
+     */
+    public StoredFile storeFile(InputStream content, String originalFilename, String category) {
+        validateCategory(category);
+        try {
+            StagedFile staged = stage(content, originalFilename);
+            try {
+                return commit(staged, category);
+            } finally {
+                deleteQuietly(staged.path());
+            }
+        } catch (IOException e) {
+            log.error("Failed to upload file: {}", originalFilename, e);
+            throw new BadRequestException("Failed to upload file: " + e.getMessage());
+        }
+    }
 
-            // Return relative URL
-            String fileUrl = "/" + category + "/" + fileName;
-            log.info("File uploaded successfully: {}", fileUrl);
+    /**
+     * Check a file about to be uploaded in pieces before any of it arrives: its category, name and
+     * declared size
+     */
+    public void validateUpload(String originalFilename, String category, long size) {
+        validateCategory(category);
+        validateFileName(originalFilename);
+        if (size <= 0) {
+            throw new BadRequestException("File cannot be empty");
+        }
+        if (size > maxFileSize) {
+            throw new BadRequestException(
+                    String.format("File size exceeds maximum allowed size of %d bytes", maxFileSize)
+            );
+        }
+    }
 
-            return fileUrl;
+    /**
+     * Store a file already written in full to the staging area, such as a finished resumable upload. Its
+     * type and size are checked as for a streamed upload; {@code sha256} is the hex digest of its content,
+     * computed by the caller, and names it in content-addressed mode. The file is moved into place, or
+     * left for the caller to delete when the same content is already stored.
+     */
+    public StoredFile storeStaged(Path stagedPath, String originalFilename, String category, String sha256) {
+        validateCategory(category);
+        String fileName = validateFileName(originalFilename);
+        try {
+            long size = Files.size(stagedPath);
+            if (size > maxFileSize) {
+                throw new BadRequestException(
+                        String.format("File size exceeds maximum allowed size of %d bytes", maxFileSize)
+                );
+            }
+            byte[] head;
+            try (InputStream content = Files.newInputStream(stagedPath)) {
+                head = content.readNBytes(ImageSignature.LENGTH);
+            }
+            ImageSignature signature = detectSignature(head, fileName);
 
+            String storedName = contentAddressed
+                    ? sha256.toLowerCase(Locale.ROOT) + "." + signature.extension()
+                    : generateUniqueFileName(fileName);
+            return commit(new StagedFile(fileName, stagedPath, storedName, size, signature.contentType()), category);
         } catch (IOException e) {
-            log.error("Failed to upload file: {}", file.getOriginalFilename(), e);
+            log.error("Failed to upload file: {}", originalFilename, e);
             throw new BadRequestException("Failed to upload file: " + e.getMessage());
         }
     }
 
     /**
-     * Upload multiple files
+     * Upload multiple files: all are staged concurrently, then committed together, so the batch takes
+     * about as long as its slowest file and either every file is stored or none is
      */
     public List<String> uploadFiles(List<MultipartFile> files, String category) {
         log.debug("Uploading {} files to category: {}", files.size(), category);
 
-        if (files.size() > 10) {
-            throw new BadRequestException("Cannot upload more than 10 files at once");
+        if (files.size() > MAX_FILES_PER_REQUEST) {
+            throw new BadRequestException("Cannot upload more than " + MAX_FILES_PER_REQUEST + " files at once");
+        }
+        files.forEach(this::validateFile);
+        validateCategory(category);
+
+        List<Future<StagedFile>> futures = new ArrayList<>();
+        // Closing the executor waits for every task, so each staged file is collected below
+        try (ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelism, files.size())),
+                Thread.ofVirtual().name("file-upload-", 0).factory())) {
+            for (MultipartFile file : files) {
+                futures.add(executor.submit(() -> stage(file.getInputStream(), file.getOriginalFilename())));
+            }
+        }
+
+        List<StagedFile> staged = new ArrayList<>();
+        Throwable failure = null;
+        for (Future<StagedFile> future : futures) {
+            if (future.state() == Future.State.SUCCESS) {
+                staged.add(future.resultNow());
+            } else if (failure == null) {
+                failure = future.state() == Future.State.FAILED
+                        ? future.exceptionNow()
+                        : new IOException("Upload interrupted");
+            }
+        }
+        if (failure != null) {
+            staged.forEach(file -> deleteQuietly(file.path()));
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            log.error("Failed to upload files to {}", category, failure);
+            throw new BadRequestException("Failed to upload file: " + failure.getMessage());
         }
 
-        return files.stream()
-                .map(file -> uploadFile(file, category))
+        return commitAll(staged, category).stream()
+                .map(StoredFile::fileUrl)
                 .toList();
     }
 
     /**
-     * Delete a file
+     * Delete a file. A content-addressed file only loses a reference, and is deleted with the last one;
+     * returns whether the file is gone. Not for use within a transaction, whose rollback would restore
+     * the reference of a deleted file: use {@link #releaseInTransaction} there.
      */
     public boolean deleteFile(String fileUrl) {
         log.debug("Deleting file: {}", fileUrl);
 
-        try {
-            if (fileUrl == null || fileUrl.isEmpty()) {
+        if (fileUrl == null || fileUrl.isEmpty()) {
+            return false;
+        }
+        if (!isContentAddressed(fileUrl)) {
+            return deleteStoredFile(fileUrl);
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot delete " + fileUrl + " within a transaction");
+        }
+        try (BlobLock lock = blobReferences.lock(fileUrl)) {
+            long remaining = blobReferences.release(fileUrl);
+            if (remaining > 0) {
+                log.info("File {} still has {} references, kept", fileUrl, remaining);
                 return false;
             }
+            return deleteStoredFile(fileUrl);
+        }
+    }
 
-            // Remove leading slash and construct path
-            String relativePath = fileUrl.startsWith("/") ? fileUrl.substring(1) : fileUrl;
-            Path filePath = Paths.get(uploadDir, relativePath);
+    /**
+     * Drop one reference to a file as part of the current transaction; true when nothing references it
+     * any more, so it can be deleted with {@link #deleteIfUnreferenced} once the transaction commits
+     */
+    public boolean releaseInTransaction(String fileUrl) {
+        return !isContentAddressed(fileUrl) || blobReferences.releaseInTransaction(fileUrl) == 0;
+    }
 
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-                log.info("File deleted successfully: {}", fileUrl);
-                return true;
-            } else {
-                log.warn("File not found for deletion: {}", fileUrl);
+    /**
+     * Delete a file released earlier, unless a content-addressed upload of the same content has linked
+     * to it since; returns whether a file was deleted. A file already gone is not an error, so a retry
+     * is harmless, but an I/O failure is thrown so the caller can retry.
+     */
+    public boolean deleteIfUnreferenced(String fileUrl) {
+        if (!isContentAddressed(fileUrl)) {
+            return deleteIfExists(fileUrl);
+        }
+        try (BlobLock lock = blobReferences.lock(fileUrl)) {
+            if (blobReferences.isReferenced(fileUrl)) {
+                log.info("File {} was linked again before its deletion, kept", fileUrl);
                 return false;
             }
+            return deleteIfExists(fileUrl);
+        }
+    }
 
+    /**
+     * Whether a file URL names a content-addressed file, whatever the current mode
+     */
+    public static boolean isContentAddressed(String fileUrl) {
+        return CONTENT_ADDRESSED_NAME.matcher(fileUrl.substring(fileUrl.lastIndexOf('/') + 1)).matches();
+    }
+
+    private boolean deleteIfExists(String fileUrl) {
+        // The layout migration moves files under the same lock, so the file cannot change place meanwhile
+        try (BlobLock lock = blobReferences.lock(fileUrl)) {
+            boolean deleted = Files.deleteIfExists(resolveFilePath(fileUrl));
+            if (deleted) {
+                log.info("File deleted successfully: {}", fileUrl);
+            }
+            return deleted;
         } catch (IOException e) {
-            log.error("Failed to delete file: {}", fileUrl, e);
+            throw new UncheckedIOException("Failed to delete file " + fileUrl, e);
+        }
+    }
+
+    private boolean deleteStoredFile(String fileUrl) {
+        try {
+            if (deleteIfExists(fileUrl)) {
+                return true;
+            }
+            log.warn("File not found for deletion: {}", fileUrl);
+            return false;
+        } catch (UncheckedIOException e) {
+            log.error("Failed to delete file: {}", fileUrl, e.getCause());
             return false;
         }
     }
@@ -118,13 +332,7 @@ public class FileUploadService {
      * Get file path for serving
      */
     public Path getFilePath(String fileUrl) {
-        if (fileUrl == null || fileUrl.isEmpty()) {
-            throw new BadRequestException("File URL cannot be empty");
-        }
-
-        // Remove leading slash and construct path
-        String relativePath = fileUrl.startsWith("/") ? fileUrl.substring(1) : fileUrl;
-        Path filePath = Paths.get(uploadDir, relativePath);
+        Path filePath = resolveFilePath(fileUrl);
 
         if (!Files.exists(filePath)) {
             throw new BadRequestException("File not found: " + fileUrl);
@@ -133,6 +341,22 @@ public class FileUploadService {
         return filePath;
     }
 
+    /**
+     * Path of a file URL inside the upload directory; URLs that would escape the directory are rejected.
+     * A file the layout migration has not moved yet is found at its flat path; any other URL, including
+     * one with no file yet, resolves to its sharded path.
+     */
+    public Path resolveFilePath(String fileUrl) {
+        Path filePath = uploadLayout.storagePath(fileUrl);
+        if (uploadLayout.isSharded() && !Files.exists(filePath)) {
+            Path flatPath = uploadLayout.flatPath(fileUrl);
+            if (Files.exists(flatPath)) {
+                return flatPath;
+            }
+        }
+        return filePath;
+    }
+
     /**
      * Check if file exists
      */
@@ -179,8 +403,17 @@ public class FileUploadService {
             );
         }
 
-        // Check file extension
-        String originalFilename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+        validateFileName(file.getOriginalFilename());
+    }
+
+    /**
+     * Check the extension and reject path traversal; returns the cleaned name
+     */
+    private String validateFileName(String filename) {
+        if (filename == null || filename.isBlank()) {
+            throw new BadRequestException("File name is required");
+        }
+        String originalFilename = StringUtils.cleanPath(filename);
         String extension = getFileExtension(originalFilename);
 
         List<String> allowedExts = Arrays.asList(allowedExtensions.toLowerCase().split(","));
@@ -194,21 +427,179 @@ public class FileUploadService {
         if (originalFilename.contains("..")) {
             throw new BadRequestException("Invalid file name");
         }
+        return originalFilename;
+    }
+
+    /**
+     * Write a file into the staging area, checking its type and size on the way; nothing is left behind
+     * when it fails
+     */
+    private StagedFile stage(InputStream content, String originalFilename) throws IOException {
+        String fileName = validateFileName(originalFilename);
+        Path stagingPath = uploadLayout.stagingDirectory();
+        Files.createDirectories(stagingPath);
+        Path partialPath = stagingPath.resolve(UUID.randomUUID() + PARTIAL_SUFFIX);
+        MessageDigest digest = contentAddressed ? sha256() : null;
+
+        try (FileChannel channel = FileChannel.open(partialPath,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            byte[] head = content.readNBytes(ImageSignature.LENGTH);
+            ImageSignature signature = detectSignature(head, fileName);
+            if (digest != null) {
+                digest.update(head);
+            }
+            writeFully(channel, ByteBuffer.wrap(head));
+            long size = head.length + copy(Channels.newChannel(content), channel, maxFileSize - head.length, digest);
+
+            String storedName = digest != null
+                    ? HexFormat.of().formatHex(digest.digest()) + "." + signature.extension()
+                    : generateUniqueFileName(fileName);
+            return new StagedFile(fileName, partialPath, storedName, size, signature.contentType());
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partialPath);
+            throw e;
+        }
+    }
+
+    /**
+     * Type of a file from its first bytes, which must agree with its extension
+     */
+    private ImageSignature detectSignature(byte[] head, String fileName) {
+        ImageSignature signature = ImageSignature.detect(head);
+        if (signature == null) {
+            throw new BadRequestException(
+                    "Invalid file type. Allowed types: " + String.join(", ", ALLOWED_CONTENT_TYPES));
+        }
+        if (!signature.matchesExtension(getFileExtension(fileName))) {
+            throw new BadRequestException("File extension does not match its content: " + signature.contentType());
+        }
+        return signature;
+    }
+
+    /**
+     * Rename a staged file into its category directory, or link it to the stored copy of the same
+     * content; the staged file may be left for the caller to delete
+     */
+    private StoredFile commit(StagedFile staged, String category) throws IOException {
+        String fileUrl = "/" + category + "/" + staged.storedName();
+        Path target = createUploadDirectory(uploadLayout.storagePath(fileUrl));
+        if (isContentAddressed(fileUrl)) {
+            linkBlob(staged.path(), target, fileUrl, staged.size(), staged.contentType());
+        } else {
+            Files.move(staged.path(), target, StandardCopyOption.ATOMIC_MOVE);
+            log.info("File uploaded successfully: {} ({} bytes)", fileUrl, staged.size());
+        }
+        return new StoredFile(staged.fileName(), fileUrl, category, staged.size(), staged.contentType());
+    }
+
+    /**
+     * Commit every staged file, undoing the ones already committed if one fails
+     */
+    private List<StoredFile> commitAll(List<StagedFile> staged, String category) {
+        List<StoredFile> stored = new ArrayList<>();
+        try {
+            for (StagedFile file : staged) {
+                stored.add(commit(file, category));
+            }
+            return stored;
+        } catch (IOException e) {
+            stored.forEach(file -> deleteFile(file.fileUrl()));
+            log.error("Failed to upload files to {}", category, e);
+            throw new BadRequestException("Failed to upload file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            stored.forEach(file -> deleteFile(file.fileUrl()));
+            throw e;
+        } finally {
+            staged.forEach(file -> deleteQuietly(file.path()));
+        }
+    }
+
+    /**
+     * Move a fully written content-addressed file into place, or drop it if the same content is already
+     * stored, and count the reference
+     */
+    private void linkBlob(Path partialPath, Path target, String fileUrl, long size, String contentType)
+            throws IOException {
+        try (BlobLock lock = blobReferences.lock(fileUrl)) {
+            // Until the layout migration reaches it, the stored copy may still be at its flat path
+            boolean duplicate = Files.exists(target) || Files.exists(uploadLayout.flatPath(fileUrl));
+            if (!duplicate) {
+                Files.move(partialPath, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            long references = blobReferences.acquire(fileUrl, size, contentType);
+            log.info("File uploaded successfully: {} ({} bytes, {} references{})", fileUrl, size, references,
+                    duplicate ? ", duplicate content linked" : "");
+        }
     }
 
-    private Path createUploadDirectory(String category) throws IOException {
-        Path uploadPath = Paths.get(uploadDir, category);
+    /**
+     * Copy until the source ends, failing as soon as more than {@code maxBytes} have arrived; the bytes
+     * also go into {@code digest} when there is one
+     */
+    private long copy(ReadableByteChannel source, FileChannel target, long maxBytes, MessageDigest digest)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        long copied = 0;
+        while (source.read(buffer) >= 0) {
+            buffer.flip();
+            copied += buffer.remaining();
+            if (copied > maxBytes) {
+                throw new BadRequestException(
+                        String.format("File size exceeds maximum allowed size of %d bytes", maxFileSize)
+                );
+            }
+            if (digest != null) {
+                digest.update(buffer.array(), 0, buffer.limit());
+            }
+            writeFully(target, buffer);
+            buffer.clear();
+        }
+        return copied;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete partial upload {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void validateCategory(String category) {
+        if (category == null || !CATEGORY_PATTERN.matcher(category).matches()) {
+            throw new BadRequestException("Invalid category: letters, digits, '-' and '_' only");
+        }
+    }
+
+    /**
+     * Create the shard directories of a file about to be stored; returns the file's path
+     */
+    private Path createUploadDirectory(Path target) throws IOException {
+        Path uploadPath = target.getParent();
 
         if (!Files.exists(uploadPath)) {
             Files.createDirectories(uploadPath);
-            log.info("Created upload directory: {}", uploadPath.toAbsolutePath());
+            log.debug("Created upload directory: {}", uploadPath);
         }
 
-        return uploadPath;
+        return target;
     }
 
-    private String generateUniqueFileName(MultipartFile file) {
-        String originalFilename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+    private String generateUniqueFileName(String originalFilename) {
         String extension = getFileExtension(originalFilename);
         String baseName = getBaseName(originalFilename);
 
@@ -239,4 +630,10 @@ public class FileUploadService {
                 .replaceAll("_{2,}", "_") // Replace multiple underscores with single
                 .substring(0, Math.min(filename.length(), 50)); // Limit length
     }
-}
\ No newline at end of file
+
+    /**
+     * A file written to the staging area, not yet visible under its URL
+     */
+    private record StagedFile(String fileName, Path path, String storedName, long size, String contentType) {
+    }
+}
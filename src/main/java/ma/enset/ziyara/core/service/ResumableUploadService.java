@@ -0,0 +1,401 @@
+package ma.enset.ziyara.core.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.StoredFile;
+import ma.enset.ziyara.core.dto.UploadProgress;
+import ma.enset.ziyara.core.dto.UploadSessionRequest;
+import ma.enset.ziyara.core.entity.UploadSession;
+import ma.enset.ziyara.core.exception.BadRequestException;
+import ma.enset.ziyara.core.exception.ConflictException;
+import ma.enset.ziyara.core.exception.ResourceNotFoundException;
+import ma.enset.ziyara.core.repository.UploadSessionRepository;
+import ma.enset.ziyara.core.upload.UploadLayout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Uploads sent in chunks over several requests, so a dropped connection costs the bytes in flight
+ * instead of the whole file.
+ * <p>
+ * A session is opened with the file's name, size and SHA-256, and a file of that size is created in the
+ * staging area. Each chunk names the offset it starts at and is written there with positional writes;
+ * the bytes of a chunk cut off mid-request are kept, and the client asks for the session's progress to
+ * learn where to resume. A chunk may overlap what was already received, so resending one whose response
+ * was lost is harmless, but may not leave a gap. Once every byte is in, completing the session checks
+ * the checksum and hands the file to {@link FileUploadService}, which stores it like any other upload.
+ * <p>
+ * Requests for one session are serialised by a lock of that session alone, held while a chunk arrives,
+ * so a slow client only ever holds up itself. Progress is recorded with a conditional update, which
+ * never moves the offset back and fails once the session is gone. Sessions without a chunk for the
+ * expiry period are deleted with their file. The orphan file collection leaves session files alone, so
+ * the expiry does not depend on its grace period; a session file whose session is gone, left by a crash
+ * between the two deletions, is deleted here once it has been idle for the expiry period.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    private static final String SESSION_SUFFIX = ".upload";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileUploadService fileUploadService;
+    private final UploadLayout uploadLayout;
+    /** Locks of the sessions with a request in progress */
+    private final ConcurrentHashMap<String, SessionLock> locks = new ConcurrentHashMap<>();
+
+    @Value("${app.file-upload.resumable.expiry-hours:24}")
+    private long expiryHours;
+
+    @Value("${app.file-upload.resumable.cleanup-batch-size:100}")
+    private int cleanupBatchSize;
+
+    /**
+     * Open a session for a file, checked up front so a file that would be refused is never sent
+     */
+    public UploadProgress create(UploadSessionRequest request) {
+        fileUploadService.validateUpload(request.getFileName(), request.getCategory(), request.getSize());
+
+        UploadSession session = UploadSession.builder()
+                .token(UUID.randomUUID().toString())
+                .fileName(request.getFileName())
+                .category(request.getCategory())
+                .size(request.getSize())
+                .checksum(request.getChecksum().toLowerCase(Locale.ROOT))
+                .expiresAt(LocalDateTime.now().plusHours(expiryHours))
+                .build();
+
+        Path path = sessionPath(session);
+        try {
+            Files.createDirectories(path.getParent());
+            // Sized up front: every chunk is written in place and the file never grows
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.setLength(session.getSize());
+            }
+        } catch (IOException e) {
+            deleteQuietly(path);
+            log.error("Failed to create upload session for {}", request.getFileName(), e);
+            throw new BadRequestException("Failed to upload file: " + e.getMessage());
+        }
+
+        try {
+            session = uploadSessionRepository.save(session);
+        } catch (RuntimeException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+        log.info("Upload session {} opened for {} ({} bytes)", session.getToken(), session.getFileName(),
+                session.getSize());
+        return toProgress(session);
+    }
+
+    /**
+     * Write a chunk at {@code offset}, which must not be past the bytes received so far. Whatever part of
+     * the chunk arrived is kept, also when the request breaks off; the returned progress tells where the
+     * next chunk starts.
+     */
+    public UploadProgress writeChunk(String token, long offset, InputStream content) {
+        SessionLock lock = lock(token);
+        try {
+            UploadSession session = findActive(token);
+            if (offset < 0 || offset > session.getReceivedBytes()) {
+                throw new ConflictException(String.format(
+                        "Chunk must start at or before offset %d", session.getReceivedBytes()));
+            }
+
+            long position = offset;
+            RuntimeException rejection = null;
+            try (FileChannel channel = FileChannel.open(sessionPath(session), StandardOpenOption.WRITE)) {
+                ReadableByteChannel source = Channels.newChannel(content);
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                try {
+                    while (source.read(buffer) >= 0) {
+                        buffer.flip();
+                        if (position + buffer.remaining() > session.getSize()) {
+                            rejection = new BadRequestException(String.format(
+                                    "Chunk runs past the declared size of %d bytes", session.getSize()));
+                            break;
+                        }
+                        while (buffer.hasRemaining()) {
+                            position += channel.write(buffer, position);
+                        }
+                        buffer.clear();
+                    }
+                } catch (IOException e) {
+                    // The connection dropped: keep what arrived, the client resumes from there
+                    log.info("Chunk of upload {} broke off at byte {}: {}", token, position, e.getMessage());
+                }
+                // Progress is only recorded for bytes that are on disk
+                channel.force(false);
+            } catch (NoSuchFileException e) {
+                throw new ResourceNotFoundException("Upload session not found: " + token);
+            } catch (IOException e) {
+                log.error("Failed to write chunk of upload {}", token, e);
+                throw new BadRequestException("Failed to write chunk: " + e.getMessage());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiresAt = now.plusHours(expiryHours);
+            if (uploadSessionRepository.recordProgress(token, offset, position, expiresAt, now) == 0) {
+                throw new ResourceNotFoundException("Upload session not found: " + token);
+            }
+            session.setReceivedBytes(Math.max(session.getReceivedBytes(), position));
+            session.setExpiresAt(expiresAt);
+            if (rejection != null) {
+                throw rejection;
+            }
+            return toProgress(session);
+        } finally {
+            unlock(token, lock);
+        }
+    }
+
+    public UploadProgress getProgress(String token) {
+        return toProgress(findActive(token));
+    }
+
+    /**
+     * Check the received file against its checksum and store it. The session ends either way: a file
+     * that fails the check has to be uploaded again from the start.
+     */
+    public StoredFile complete(String token) {
+        SessionLock lock = lock(token);
+        try {
+            UploadSession session = findActive(token);
+            if (session.getReceivedBytes() < session.getSize()) {
+                throw new BadRequestException(String.format("Upload incomplete: %d of %d bytes received",
+                        session.getReceivedBytes(), session.getSize()));
+            }
+
+            try {
+                Path path = sessionPath(session);
+                String checksum = sha256(path);
+                if (!checksum.equals(session.getChecksum())) {
+                    log.warn("Upload {} of {} failed its checksum", token, session.getFileName());
+                    throw new BadRequestException("Checksum mismatch: the upload is discarded, start a new one");
+                }
+                StoredFile stored = fileUploadService.storeStaged(path, session.getFileName(), session.getCategory(),
+                        checksum);
+                log.info("Upload session {} completed as {}", token, stored.fileUrl());
+                return stored;
+            } catch (IOException e) {
+                log.error("Failed to read upload {}", token, e);
+                throw new BadRequestException("Failed to upload file: " + e.getMessage());
+            } finally {
+                discard(session);
+            }
+        } finally {
+            unlock(token, lock);
+        }
+    }
+
+    /**
+     * Abandon an upload, deleting what was received
+     */
+    public void cancel(String token) {
+        SessionLock lock = lock(token);
+        try {
+            discard(findActive(token));
+        } finally {
+            unlock(token, lock);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.file-upload.resumable.cleanup-interval-ms:600000}",
+            initialDelayString = "${app.file-upload.resumable.cleanup-interval-ms:600000}")
+    public void expireSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBeforeOrderByExpiresAt(
+                now, PageRequest.of(0, cleanupBatchSize));
+        for (UploadSession candidate : expired) {
+            // A session with a request in progress is not idle; the next run looks at it again
+            SessionLock lock = tryLock(candidate.getToken());
+            if (lock == null) {
+                continue;
+            }
+            try {
+                // A chunk may have arrived since the query
+                uploadSessionRepository.findByToken(candidate.getToken())
+                        .filter(session -> session.getExpiresAt().isBefore(now))
+                        .ifPresent(this::discard);
+            } finally {
+                unlock(candidate.getToken(), lock);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Expired {} abandoned upload sessions", expired.size());
+        }
+        deleteOrphanedSessionFiles(now.minusHours(expiryHours));
+    }
+
+    /**
+     * Whether a file in the staging area belongs to a resumable upload session
+     */
+    public static boolean isSessionFile(Path path) {
+        return path.getFileName().toString().endsWith(SESSION_SUFFIX);
+    }
+
+    // Private helper methods
+
+    private SessionLock lock(String token) {
+        SessionLock lock = register(token);
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * The session's lock if it is free, otherwise {@code null}
+     */
+    private SessionLock tryLock(String token) {
+        SessionLock lock = register(token);
+        if (lock.tryLock()) {
+            return lock;
+        }
+        release(token);
+        return null;
+    }
+
+    private void unlock(String token, SessionLock lock) {
+        lock.unlock();
+        release(token);
+    }
+
+    /**
+     * The session's lock, counted as wanted until {@link #release}; locks nobody wants are dropped, so
+     * the map only holds sessions with a request in progress
+     */
+    private SessionLock register(String token) {
+        return locks.compute(token, (key, lock) -> {
+            SessionLock registered = lock != null ? lock : new SessionLock();
+            registered.holders++;
+            return registered;
+        });
+    }
+
+    private void release(String token) {
+        locks.computeIfPresent(token, (key, lock) -> --lock.holders == 0 ? null : lock);
+    }
+
+    private UploadSession findActive(String token) {
+        return uploadSessionRepository.findByToken(token)
+                .filter(session -> session.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found: " + token));
+    }
+
+    /**
+     * The session's file, in the staging area so completing it is a rename; only ever built from a
+     * stored session, never from a token a client sent
+     */
+    private Path sessionPath(UploadSession session) {
+        return uploadLayout.stagingDirectory().resolve(session.getToken() + SESSION_SUFFIX);
+    }
+
+    /**
+     * Delete the session files idle since before {@code cutoff} that no session owns; an active session
+     * writes its file at least once per expiry period
+     */
+    private void deleteOrphanedSessionFiles(LocalDateTime cutoff) {
+        Instant idleSince = cutoff.atZone(ZoneId.systemDefault()).toInstant();
+        List<Path> idle;
+        try (Stream<Path> files = Files.list(uploadLayout.stagingDirectory())) {
+            idle = files.filter(ResumableUploadService::isSessionFile)
+                    .filter(path -> isIdleSince(path, idleSince))
+                    .toList();
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.warn("Could not list upload session files: {}", e.getMessage());
+            return;
+        }
+        for (Path path : idle) {
+            String name = path.getFileName().toString();
+            String token = name.substring(0, name.length() - SESSION_SUFFIX.length());
+            if (uploadSessionRepository.findByToken(token).isEmpty()) {
+                log.info("Deleting upload session file {} left without its session", name);
+                deleteQuietly(path);
+            }
+        }
+    }
+
+    private static boolean isIdleSince(Path path, Instant since) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(since);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void discard(UploadSession session) {
+        uploadSessionRepository.delete(session);
+        // Gone already when the upload was stored
+        deleteQuietly(sessionPath(session));
+    }
+
+    private String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete upload session file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private UploadProgress toProgress(UploadSession session) {
+        return new UploadProgress(session.getToken(), session.getFileName(), session.getCategory(),
+                session.getSize(), session.getReceivedBytes(), session.getExpiresAt());
+    }
+
+    /**
+     * Lock of one session, with the number of requests holding or waiting for it; only changed inside
+     * the map's compute functions
+     */
+    private static final class SessionLock extends ReentrantLock {
+
+        private int holders;
+    }
+}
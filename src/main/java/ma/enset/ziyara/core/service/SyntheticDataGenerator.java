@@ -0,0 +1,341 @@
+package ma.enset.ziyara.core.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.destination.entity.DestinationType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates large synthetic datasets for load tests and benchmarks.
+ * <p>
+ * Rows are written with plain JDBC batch inserts, one city per task, on a small worker pool.
+ * City and destination ids are allocated up front as contiguous ranges so tags and images can
+ * reference their destination without reading generated keys back; identity sequences are moved
+ * past the allocated ranges once generation completes. Output is deterministic for a given seed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator {
+
+    private static final String INSERT_CITY_SQL = """
+        INSERT INTO cities (id, name, arabic_name, region, latitude, longitude, description, image_url,
+                            is_popular, created_at, updated_at, version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+        """;
+
+    private static final String INSERT_DESTINATION_SQL = """
+        INSERT INTO destinations (id, name, description, type, city_id, price, latitude, longitude, address,
+                                  opening_hours, active, average_rating, review_count, created_at, updated_at, version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+        """;
+
+    private static final String INSERT_TAG_SQL = """
+        INSERT INTO destination_tags (name, destination_id, created_at, updated_at, version)
+        VALUES (?, ?, ?, ?, 0)
+        """;
+
+    private static final String INSERT_IMAGE_SQL = """
+        INSERT INTO destination_images (image_url, caption, display_order, destination_id, created_at, updated_at, version)
+        VALUES (?, ?, ?, ?, ?, ?, 0)
+        """;
+
+    /**
+     * Real Moroccan cities used as anchors; synthetic cities are scattered around them
+     */
+    private static final List<Anchor> ANCHORS = List.of(
+            new Anchor("Casablanca", "الدار البيضاء", "Casablanca-Settat", 33.5731, -7.5898),
+            new Anchor("Marrakech", "مراكش", "Marrakech-Safi", 31.6295, -7.9811),
+            new Anchor("Fès", "فاس", "Fès-Meknès", 34.0181, -5.0078),
+            new Anchor("Rabat", "الرباط", "Rabat-Salé-Kénitra", 34.0209, -6.8416),
+            new Anchor("Tangier", "طنجة", "Tanger-Tétouan-Al Hoceïma", 35.7595, -5.8340),
+            new Anchor("Agadir", "أكادير", "Souss-Massa", 30.4278, -9.5981),
+            new Anchor("Meknes", "مكناس", "Fès-Meknès", 33.8935, -5.5473),
+            new Anchor("Oujda", "وجدة", "Oriental", 34.6814, -1.9086),
+            new Anchor("Tetouan", "تطوان", "Tanger-Tétouan-Al Hoceïma", 35.5889, -5.3626),
+            new Anchor("Essaouira", "الصويرة", "Marrakech-Safi", 31.5125, -9.7749),
+            new Anchor("Ouarzazate", "ورزازات", "Drâa-Tafilalet", 30.9335, -6.9370),
+            new Anchor("Chefchaouen", "شفشاون", "Tanger-Tétouan-Al Hoceïma", 35.1681, -5.2636),
+            new Anchor("Kenitra", "القنيطرة", "Rabat-Salé-Kénitra", 34.2610, -6.5802),
+            new Anchor("El Jadida", "الجديدة", "Casablanca-Settat", 33.2316, -8.5007),
+            new Anchor("Safi", "آسفي", "Marrakech-Safi", 32.2994, -9.2372),
+            new Anchor("Beni Mellal", "بني ملال", "Béni Mellal-Khénifra", 32.3373, -6.3498),
+            new Anchor("Nador", "الناظور", "Oriental", 35.1681, -2.9335),
+            new Anchor("Al Hoceima", "الحسيمة", "Tanger-Tétouan-Al Hoceïma", 35.2517, -3.9372),
+            new Anchor("Errachidia", "الرشيدية", "Drâa-Tafilalet", 31.9314, -4.4244),
+            new Anchor("Merzouga", "مرزوكة", "Drâa-Tafilalet", 31.0802, -4.0134),
+            new Anchor("Ifrane", "إفران", "Fès-Meknès", 33.5228, -5.1106),
+            new Anchor("Taroudant", "تارودانت", "Souss-Massa", 30.4703, -8.8770),
+            new Anchor("Tiznit", "تيزنيت", "Souss-Massa", 29.6974, -9.7316),
+            new Anchor("Guelmim", "كلميم", "Guelmim-Oued Noun", 28.9870, -10.0574),
+            new Anchor("Laayoune", "العيون", "Laâyoune-Sakia El Hamra", 27.1536, -13.2033),
+            new Anchor("Dakhla", "الداخلة", "Dakhla-Oued Ed-Dahab", 23.6848, -15.9580)
+    );
+
+    private static final Map<DestinationType, List<String>> TAGS_BY_TYPE = Map.ofEntries(
+            Map.entry(DestinationType.HISTORICAL, List.of("historical", "medina", "kasbah", "unesco", "architecture", "ruins")),
+            Map.entry(DestinationType.CULTURAL, List.of("cultural", "traditional", "music", "crafts", "festival", "art")),
+            Map.entry(DestinationType.RELIGIOUS, List.of("religious", "mosque", "zaouia", "architecture", "spiritual")),
+            Map.entry(DestinationType.NATURE, List.of("nature", "mountain", "garden", "hiking", "waterfall", "oasis")),
+            Map.entry(DestinationType.BEACH, List.of("beach", "ocean", "surfing", "relaxation", "sunset", "coastal")),
+            Map.entry(DestinationType.SHOPPING, List.of("shopping", "souk", "crafts", "modern", "market")),
+            Map.entry(DestinationType.RESTAURANT, List.of("food", "tagine", "seafood", "rooftop", "traditional")),
+            Map.entry(DestinationType.HOTEL, List.of("hotel", "riad", "luxury", "pool", "spa")),
+            Map.entry(DestinationType.ADVENTURE, List.of("adventure", "desert", "camel", "quad", "climbing", "trekking")),
+            Map.entry(DestinationType.ENTERTAINMENT, List.of("entertainment", "family", "nightlife", "show")),
+            Map.entry(DestinationType.EDUCATIONAL, List.of("education", "library", "university", "history")),
+            Map.entry(DestinationType.MUSEUM, List.of("museum", "art", "history", "exhibition", "photography"))
+    );
+
+    private static final DestinationType[] TYPES = DestinationType.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+
+    @Value("${app.data.synthetic.cities:200}")
+    private int cityCount;
+
+    @Value("${app.data.synthetic.destinations-per-city:5000}")
+    private int destinationsPerCity;
+
+    @Value("${app.data.synthetic.max-tags-per-destination:6}")
+    private int maxTagsPerDestination;
+
+    @Value("${app.data.synthetic.mean-images-per-destination:2.0}")
+    private double meanImagesPerDestination;
+
+    @Value("${app.data.synthetic.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.data.synthetic.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.data.synthetic.seed:42}")
+    private long seed;
+
+    /**
+     * Generate the configured number of cities and destinations
+     */
+    public void generate() {
+        generate(cityCount, destinationsPerCity);
+    }
+
+    /**
+     * Generate {@code cities} cities with {@code perCity} destinations each, plus their tags and images
+     */
+    public void generate(int cities, int perCity) {
+        long started = System.currentTimeMillis();
+        long firstCityId = nextId("cities");
+        long firstDestinationId = nextId("destinations");
+        LocalDateTime now = LocalDateTime.now();
+
+        log.info("Generating {} synthetic cities with {} destinations each ({} workers, batches of {})",
+                cities, perCity, parallelism, batchSize);
+
+        List<SyntheticCity> generatedCities = insertCities(cities, firstCityId, now);
+
+        AtomicLong destinationRows = new AtomicLong();
+        AtomicLong tagRows = new AtomicLong();
+        AtomicLong imageRows = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<?>> tasks = new ArrayList<>(cities);
+            for (int i = 0; i < generatedCities.size(); i++) {
+                SyntheticCity city = generatedCities.get(i);
+                long cityFirstDestinationId = firstDestinationId + (long) i * perCity;
+                tasks.add(executor.submit(() -> insertDestinations(city, cityFirstDestinationId, perCity, now,
+                        destinationRows, tagRows, imageRows)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Synthetic data generation failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        restartIdentity("cities", firstCityId + cities);
+        restartIdentity("destinations", firstDestinationId + (long) cities * perCity);
+        evictCaches();
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        long rows = cities + destinationRows.get() + tagRows.get() + imageRows.get();
+        log.info("Generated {} cities, {} destinations, {} tags and {} images in {} ms ({} rows/s)",
+                cities, destinationRows.get(), tagRows.get(), imageRows.get(), elapsed, rows * 1000 / elapsed);
+    }
+
+    // Private helper methods
+
+    private List<SyntheticCity> insertCities(int count, long firstId, LocalDateTime now) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<SyntheticCity> cities = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        for (int i = 0; i < count; i++) {
+            Anchor anchor = ANCHORS.get(i % ANCHORS.size());
+            int generation = i / ANCHORS.size() + 1;
+            // Satellite towns around the real city; the suffix keeps names distinct from the reference cities
+            double latitude = anchor.latitude() + jitter(random, 0.35);
+            double longitude = anchor.longitude() + jitter(random, 0.35);
+            String name = anchor.name() + " " + generation;
+
+            SyntheticCity city = new SyntheticCity(firstId + i, name, latitude, longitude);
+            cities.add(city);
+            rows.add(new Object[]{
+                    city.id(), name, anchor.arabicName(), anchor.region(), latitude, longitude,
+                    "Synthetic city near " + anchor.name(), null, generation == 1 && random.nextInt(3) == 0,
+                    timestamp, timestamp
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_CITY_SQL, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+            }
+        });
+        return cities;
+    }
+
+    private void insertDestinations(SyntheticCity city, long firstId, int count, LocalDateTime now,
+                                    AtomicLong destinationRows, AtomicLong tagRows, AtomicLong imageRows) {
+        SplittableRandom random = new SplittableRandom(seed ^ (city.id() * 0x9E3779B97F4A7C15L));
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        for (int from = 0; from < count; from += batchSize) {
+            int to = Math.min(count, from + batchSize);
+            List<Object[]> destinations = new ArrayList<>(to - from);
+            List<Object[]> tags = new ArrayList<>((to - from) * maxTagsPerDestination / 2);
+            List<Object[]> images = new ArrayList<>((int) ((to - from) * meanImagesPerDestination));
+
+            for (int i = from; i < to; i++) {
+                long id = firstId + i;
+                DestinationType type = TYPES[random.nextInt(TYPES.length)];
+                destinations.add(destinationRow(random, id, type, city, timestamp));
+                addTags(random, id, type, timestamp, tags);
+                addImages(random, id, timestamp, images);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_DESTINATION_SQL, destinations);
+                jdbcTemplate.batchUpdate(INSERT_TAG_SQL, tags);
+                jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, images);
+            });
+            destinationRows.addAndGet(destinations.size());
+            tagRows.addAndGet(tags.size());
+            imageRows.addAndGet(images.size());
+        }
+        log.debug("Generated {} destinations for {}", count, city.name());
+    }
+
+    private Object[] destinationRow(SplittableRandom random, long id, DestinationType type, SyntheticCity city,
+                                    Timestamp timestamp) {
+        String typeName = type.name().charAt(0) + type.name().substring(1).toLowerCase(Locale.ROOT);
+        // Most places are free or cheap, a few are expensive
+        BigDecimal price = random.nextInt(3) == 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(Math.min(2_000, 10 + pareto(random, 1.5) * 20)).setScale(2, RoundingMode.HALF_UP);
+        // Review counts follow a long tail so the popularity ranking has a realistic head
+        long reviewCount = Math.min(50_000, (long) pareto(random, 1.2) - 1);
+        double averageRating = reviewCount == 0 ? 0.0
+                : Math.round(Math.min(5.0, Math.max(1.0, 3.9 + random.nextDouble(-1.0, 1.0) * 1.1)) * 10) / 10.0;
+
+        return new Object[]{
+                id,
+                city.name() + " " + typeName + " #" + id,
+                "Synthetic " + typeName.toLowerCase(Locale.ROOT) + " destination in " + city.name(),
+                type.name(),
+                city.id(),
+                price,
+                city.latitude() + jitter(random, 0.15),
+                city.longitude() + jitter(random, 0.15),
+                random.nextInt(1, 300) + " Rue " + city.name(),
+                random.nextBoolean() ? "09:00-18:00" : null,
+                random.nextInt(50) != 0,
+                averageRating,
+                reviewCount,
+                timestamp,
+                timestamp
+        };
+    }
+
+    private void addTags(SplittableRandom random, long destinationId, DestinationType type, Timestamp timestamp,
+                         List<Object[]> rows) {
+        List<String> vocabulary = TAGS_BY_TYPE.get(type);
+        int count = random.nextInt(Math.min(maxTagsPerDestination, vocabulary.size()) + 1);
+        int offset = random.nextInt(vocabulary.size());
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{vocabulary.get((offset + i) % vocabulary.size()), destinationId, timestamp, timestamp});
+        }
+    }
+
+    private void addImages(SplittableRandom random, long destinationId, Timestamp timestamp, List<Object[]> rows) {
+        // Geometric distribution with the configured mean
+        double p = 1.0 / (meanImagesPerDestination + 1.0);
+        int count = 0;
+        while (count < 20 && random.nextDouble() >= p) {
+            count++;
+        }
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{
+                    "https://example.com/synthetic/" + destinationId + "-" + i + ".jpg", null, i, destinationId,
+                    timestamp, timestamp
+            });
+        }
+    }
+
+    private long nextId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    private void restartIdentity(String table, long next) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+
+    private void evictCaches() {
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCacheNames().forEach(name -> {
+            var cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    private static double jitter(SplittableRandom random, double radius) {
+        return random.nextDouble(-radius, radius);
+    }
+
+    private static double pareto(SplittableRandom random, double alpha) {
+        return 1.0 / Math.pow(1.0 - random.nextDouble(), 1.0 / alpha);
+    }
+
+    private record Anchor(String name, String arabicName, String region, double latitude, double longitude) {
+    }
+
+    private record SyntheticCity(long id, String name, double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,217 @@
+package ma.enset.ziyara.core.upload;
+
+import com.google.common.util.concurrent.Striped;
+import ma.enset.ziyara.core.repository.StoredBlobRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Reference counts of content-addressed files.
+ * <p>
+ * A blob's file and its count must change together: an upload linking to a blob cannot interleave with
+ * the delete dropping its last reference, on this instance or another one sharing the upload directory.
+ * Callers hold {@link #lock(String)} around both, and keep only renames and deletes under it: content is
+ * written and hashed before. The lock is a PostgreSQL transaction-level advisory lock on the file URL,
+ * so it never takes a connection of its own: it joins the caller's transaction when there is one, and
+ * is held until that ends, or else starts a transaction that closing the lock commits. A striped
+ * in-process lock in front of it keeps threads of one instance from each holding a connection while
+ * they wait. Count changes made under the lock join the same transaction. Without a caller's
+ * transaction they commit before the lock is released, so no rollback can undo a count whose file
+ * change already happened; a caller's transaction must only link files, as a rolled back link merely
+ * leaves an orphan for {@link OrphanFileCollector}, and release them with {@link #releaseInTransaction},
+ * deleting the file only after it commits.
+ * <p>
+ * Counts are changed with single statements, an upsert and a conditional decrement, so they stay
+ * exact even without the lock.
+ */
+@Component
+public class BlobReferences {
+
+    /** First key of the advisory locks on blobs, so they never collide with other advisory locks */
+    private static final int LOCK_NAMESPACE = 0x0B10B;
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?, hashtext(?))";
+
+    private static final String ACQUIRE_SQL = """
+        INSERT INTO stored_blobs (file_url, reference_count, size, content_type, created_at, updated_at, version)
+        VALUES (?, 1, ?, ?, ?, ?, 0)
+        ON CONFLICT (file_url) DO UPDATE
+        SET reference_count = stored_blobs.reference_count + 1,
+            updated_at = EXCLUDED.updated_at,
+            version = stored_blobs.version + 1
+        RETURNING reference_count
+        """;
+
+    private static final String DECREMENT_SQL = """
+        UPDATE stored_blobs
+        SET reference_count = reference_count - 1, updated_at = ?, version = version + 1
+        WHERE file_url = ? AND reference_count > 1
+        RETURNING reference_count
+        """;
+
+    private static final String DELETE_LAST_SQL = "DELETE FROM stored_blobs WHERE file_url = ? AND reference_count <= 1";
+
+    private static final String FORGET_SQL = "DELETE FROM stored_blobs WHERE file_url = ?";
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate currentTransaction;
+    private final Striped<Lock> locks = Striped.lock(64);
+    /** Blob locks held by the current thread, so locking a blob again nests instead of deadlocking */
+    private final ThreadLocal<Map<String, BlobLock>> heldLocks = ThreadLocal.withInitial(HashMap::new);
+
+    public BlobReferences(StoredBlobRepository storedBlobRepository, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        // Joins the lock's transaction when there is one
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.currentTransaction = new TransactionTemplate(transactionManager);
+        this.currentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+    }
+
+    /**
+     * Lock the blob at {@code fileUrl} across instances, to be held while its file and count change and
+     * closed on the same thread; within a transaction the lock lasts until it ends
+     */
+    public BlobLock lock(String fileUrl) {
+        BlobLock held = heldLocks.get().get(fileUrl);
+        if (held != null) {
+            held.depth++;
+            return held;
+        }
+
+        Lock local = locks.get(fileUrl);
+        local.lock();
+        TransactionStatus transaction = null;
+        try {
+            transaction = transactionManager.getTransaction(
+                    new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED));
+            jdbcTemplate.query(LOCK_SQL, rs -> null, LOCK_NAMESPACE, fileUrl);
+        } catch (RuntimeException e) {
+            if (transaction != null && transaction.isNewTransaction()) {
+                transactionManager.rollback(transaction);
+            }
+            local.unlock();
+            throw e;
+        }
+        BlobLock lock = new BlobLock(fileUrl, local, transaction);
+        heldLocks.get().put(fileUrl, lock);
+        return lock;
+    }
+
+    /**
+     * Add a reference to the blob, registering it on first use; returns the new count
+     */
+    public long acquire(String fileUrl, long size, String contentType) {
+        return transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            return jdbcTemplate.queryForObject(ACQUIRE_SQL, Long.class, fileUrl, size, contentType, now, now);
+        });
+    }
+
+    /**
+     * Drop a reference to the blob; returns the references left. At 0 the blob is unregistered and its
+     * file may be deleted, which is also the answer for a blob that was never registered.
+     */
+    public long release(String fileUrl) {
+        return transactionTemplate.execute(status -> releaseReference(fileUrl));
+    }
+
+    /**
+     * {@link #release} as part of the caller's transaction, which must exist: the file may only be
+     * deleted after it commits, and only if {@link #isReferenced} still says no under the lock
+     */
+    public long releaseInTransaction(String fileUrl) {
+        return currentTransaction.execute(status -> releaseReference(fileUrl));
+    }
+
+    public boolean isReferenced(String fileUrl) {
+        return storedBlobRepository.existsByFileUrl(fileUrl);
+    }
+
+    /**
+     * Whether an upload added a reference to the blob at or after {@code since}
+     */
+    public boolean isLinkedSince(String fileUrl, LocalDateTime since) {
+        return storedBlobRepository.findByFileUrl(fileUrl)
+                .map(blob -> !blob.getUpdatedAt().isBefore(since))
+                .orElse(false);
+    }
+
+    /**
+     * Unregister a blob whatever its count, for a file found to be referenced by no row
+     */
+    public void forget(String fileUrl) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(FORGET_SQL, fileUrl));
+    }
+
+    // Private helper methods
+
+    private long releaseReference(String fileUrl) {
+        while (true) {
+            List<Long> left = jdbcTemplate.queryForList(DECREMENT_SQL, Long.class,
+                    Timestamp.valueOf(LocalDateTime.now()), fileUrl);
+            if (!left.isEmpty()) {
+                return left.get(0);
+            }
+            if (jdbcTemplate.update(DELETE_LAST_SQL, fileUrl) > 0 || !isReferenced(fileUrl)) {
+                return 0L;
+            }
+            // An upload linked the blob between the two statements: release from its count instead
+        }
+    }
+
+    /**
+     * A held blob lock; closing it commits the transaction it started, which releases the advisory lock.
+     * A lock joining the caller's transaction is released when that ends.
+     */
+    public final class BlobLock implements AutoCloseable {
+
+        private final String fileUrl;
+        private final Lock local;
+        private final TransactionStatus transaction;
+        private int depth = 1;
+
+        private BlobLock(String fileUrl, Lock local, TransactionStatus transaction) {
+            this.fileUrl = fileUrl;
+            this.local = local;
+            this.transaction = transaction;
+        }
+
+        @Override
+        public void close() {
+            if (--depth > 0) {
+                return;
+            }
+            heldLocks.get().remove(fileUrl);
+            try {
+                if (!transaction.isNewTransaction()) {
+                    return;
+                }
+                if (transaction.isRollbackOnly()) {
+                    transactionManager.rollback(transaction);
+                } else {
+                    transactionManager.commit(transaction);
+                }
+            } finally {
+                local.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ma.enset.ziyara.core.upload;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Encoder for <a href="https://blurha.sh">BlurHash</a> placeholders: a few dozen characters a client
+ * decodes into a blurred preview of an image, painted while the image itself loads.
+ * <p>
+ * The hash is the image's first cosine components, so the cost grows with its pixel count; encode a
+ * thumbnail, not the original.
+ */
+public final class BlurHash {
+
+    private static final String CHARACTERS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {
+    }
+
+    /**
+     * Hash of an image with {@code componentsX} by {@code componentsY} components, each between 1 and 9
+     */
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("BlurHash components must be between 1 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        double[][] linear = new double[3][pixels.length];
+        for (int p = 0; p < pixels.length; p++) {
+            linear[0][p] = toLinear((pixels[p] >> 16) & 0xFF);
+            linear[1][p] = toLinear((pixels[p] >> 8) & 0xFF);
+            linear[2][p] = toLinear(pixels[p] & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = component(linear, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximum = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int f = 1; f < factors.length; f++) {
+                for (double value : factors[f]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximum = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            encode83(hash, 0, 1);
+        }
+
+        double[] dc = factors[0];
+        encode83(hash, (toSrgb(dc[0]) << 16) + (toSrgb(dc[1]) << 8) + toSrgb(dc[2]), 4);
+        for (int f = 1; f < factors.length; f++) {
+            double[] ac = factors[f];
+            encode83(hash, quantise(ac[0], maximum) * 19 * 19 + quantise(ac[1], maximum) * 19
+                    + quantise(ac[2], maximum), 2);
+        }
+        return hash.toString();
+    }
+
+    // Private helper methods
+
+    private static double[] component(double[][] linear, int width, int height, int i, int j) {
+        double[] cosX = new double[width];
+        for (int x = 0; x < width; x++) {
+            cosX[x] = Math.cos(Math.PI * i * x / width);
+        }
+        double normalisation = i == 0 && j == 0 ? 1 : 2;
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        for (int y = 0; y < height; y++) {
+            double cosY = normalisation * Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = cosY * cosX[x];
+                int p = y * width + x;
+                r += basis * linear[0][p];
+                g += basis * linear[1][p];
+                b += basis * linear[2][p];
+            }
+        }
+        double scale = 1.0 / (width * height);
+        return new double[]{r * scale, g * scale, b * scale};
+    }
+
+    private static int quantise(double value, double maximum) {
+        double scaled = Math.copySign(Math.sqrt(Math.abs(value / maximum)), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(scaled * 9 + 9.5)));
+    }
+
+    private static double toLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int toSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            hash.append(CHARACTERS.charAt(digit));
+        }
+    }
+}
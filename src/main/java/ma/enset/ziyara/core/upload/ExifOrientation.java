@@ -0,0 +1,161 @@
+package ma.enset.ziyara.core.upload;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * EXIF orientation of a JPEG: how the stored pixels must be turned to display the photo upright.
+ * <p>
+ * Cameras and phones store the sensor's pixels as they are and record the way the device was held in
+ * the Orientation tag, so the pixel size of a portrait photo is usually that of a landscape one. Values
+ * 1 to 8 follow the TIFF specification; 5 to 8 turn the image a quarter, swapping width and height.
+ */
+public final class ExifOrientation {
+
+    public static final int NORMAL = 1;
+
+    private static final int ORIENTATION_TAG = 0x0112;
+    private static final int START_OF_SCAN = 0xDA;
+    private static final int APP1 = 0xE1;
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * Orientation recorded in a JPEG's EXIF data, reading only the segments before the image data;
+     * {@link #NORMAL} for other formats and for missing or malformed tags
+     */
+    public static int read(Path path) throws IOException {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(input);
+        }
+    }
+
+    static int read(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        try {
+            if (data.readUnsignedShort() != 0xFFD8) {
+                return NORMAL;
+            }
+            while (true) {
+                if (data.readUnsignedByte() != 0xFF) {
+                    return NORMAL;
+                }
+                int marker = data.readUnsignedByte();
+                while (marker == 0xFF) {
+                    // Fill bytes before a marker
+                    marker = data.readUnsignedByte();
+                }
+                if (marker == START_OF_SCAN || marker == 0xD9) {
+                    return NORMAL;
+                }
+                int length = data.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return NORMAL;
+                }
+                if (marker != APP1) {
+                    data.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                data.readFully(segment);
+                Integer orientation = parseExif(segment);
+                if (orientation != null) {
+                    return orientation;
+                }
+            }
+        } catch (EOFException e) {
+            return NORMAL;
+        }
+    }
+
+    /**
+     * Whether displaying the image turns it a quarter, so its displayed width is its stored height
+     */
+    public static boolean swapsDimensions(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+
+    /**
+     * The image as it is meant to be displayed
+     */
+    public static BufferedImage apply(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+
+        boolean swap = swapsDimensions(orientation);
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(swap ? height : width, swap ? width : height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // Private helper methods
+
+    /**
+     * Orientation from an APP1 segment; {@code null} when the segment is not EXIF or has no valid tag
+     */
+    private static Integer parseExif(byte[] segment) {
+        if (segment.length < EXIF_HEADER.length + 8) {
+            return null;
+        }
+        for (int i = 0; i < EXIF_HEADER.length; i++) {
+            if (segment[i] != EXIF_HEADER[i]) {
+                return null;
+            }
+        }
+        // TIFF structure, offsets relative to its header
+        ByteBuffer tiff = ByteBuffer.wrap(segment, EXIF_HEADER.length, segment.length - EXIF_HEADER.length).slice();
+        try {
+            short byteOrder = tiff.getShort(0);
+            if (byteOrder == 0x4949) {
+                tiff.order(ByteOrder.LITTLE_ENDIAN);
+            } else if (byteOrder != 0x4D4D) {
+                return null;
+            }
+            int ifd = tiff.getInt(4);
+            int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG) {
+                    int orientation = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                    return orientation >= 1 && orientation <= 8 ? orientation : null;
+                }
+            }
+            return null;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ma.enset.ziyara.core.upload;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.entity.PendingFileDeletion;
+import ma.enset.ziyara.core.exception.BadRequestException;
+import ma.enset.ziyara.core.repository.PendingFileDeletionRepository;
+import ma.enset.ziyara.core.service.FileUploadService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional outbox for deleting uploaded files.
+ * <p>
+ * A transaction removing the last row that points at a file records the deletion here instead of
+ * touching the disk, so no file I/O happens while it holds a connection, and a rollback leaves the file
+ * in place. The caller {@link #process processes} the entry right after commit; entries a crash or a
+ * failed delete left behind are retried on a schedule. Processing is idempotent.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FileDeletionOutbox {
+
+    private final PendingFileDeletionRepository pendingFileDeletionRepository;
+    private final FileUploadService fileUploadService;
+    private final ImageVariantPipeline variantPipeline;
+
+    @Value("${app.file-upload.outbox-batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Release the current transaction's reference to a file and, if it was the last one, record its
+     * deletion; returns the entry to process after commit, or {@code null} when the file stays
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Long enqueue(String fileUrl) {
+        if (!fileUploadService.releaseInTransaction(fileUrl)) {
+            return null;
+        }
+        return pendingFileDeletionRepository.save(PendingFileDeletion.builder()
+                .fileUrl(fileUrl)
+                .build()).getId();
+    }
+
+    /**
+     * Delete the file of a committed entry, with its image variants, then the entry; returns whether the
+     * file was deleted. Must not run inside a transaction.
+     */
+    public boolean process(Long entryId) {
+        PendingFileDeletion entry = pendingFileDeletionRepository.findById(entryId).orElse(null);
+        if (entry == null) {
+            return false;
+        }
+        return process(entry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.file-upload.outbox-interval-ms:60000}",
+            initialDelayString = "${app.file-upload.outbox-interval-ms:60000}")
+    public void processStale() {
+        // Younger entries are still being processed by the request that wrote them
+        List<PendingFileDeletion> entries = pendingFileDeletionRepository.findByCreatedAtBeforeOrderByCreatedAt(
+                LocalDateTime.now().minusMinutes(1), PageRequest.of(0, batchSize));
+        entries.forEach(this::process);
+        if (!entries.isEmpty()) {
+            log.info("Retried {} pending file deletions", entries.size());
+        }
+    }
+
+    // Private helper methods
+
+    private boolean process(PendingFileDeletion entry) {
+        try {
+            boolean deleted = fileUploadService.deleteIfUnreferenced(entry.getFileUrl());
+            if (deleted) {
+                variantPipeline.deleteVariants(entry.getFileUrl());
+            }
+            pendingFileDeletionRepository.deleteById(entry.getId());
+            return deleted;
+        } catch (BadRequestException e) {
+            // Not a stored file's URL: retrying cannot help
+            log.warn("Dropping deletion of {}: {}", entry.getFileUrl(), e.getMessage());
+            pendingFileDeletionRepository.deleteById(entry.getId());
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Could not delete file {} (attempt {}): {}", entry.getFileUrl(), entry.getAttempts() + 1,
+                    e.getMessage());
+            entry.setAttempts(entry.getAttempts() + 1);
+            pendingFileDeletionRepository.save(entry);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ma.enset.ziyara.core.upload;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A table whose rows point at uploaded files. The {@link OrphanFileCollector} only removes files that no
+ * source refers to, so every column holding upload URLs needs one.
+ */
+public interface FileReferenceSource {
+
+    /**
+     * Those of {@code fileUrls} that at least one row refers to
+     */
+    Set<String> findReferenced(Collection<String> fileUrls);
+}
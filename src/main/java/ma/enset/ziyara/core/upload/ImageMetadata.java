@@ -0,0 +1,51 @@
+package ma.enset.ziyara.core.upload;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Dimensions and format of a stored image, which clients need to lay out a grid before the images load.
+ * The dimensions are those of the image as displayed, after its EXIF orientation.
+ *
+ * @param format decoder format name, e.g. {@code jpeg} or {@code png}
+ */
+public record ImageMetadata(int width, int height, String format) {
+
+    /**
+     * Read the metadata from the image header, without decoding any pixels
+     */
+    public static ImageMetadata read(Path path) throws IOException {
+        ImageMetadata stored = readStored(path);
+        if (stored.format().equals("jpeg") && ExifOrientation.swapsDimensions(ExifOrientation.read(path))) {
+            return new ImageMetadata(stored.height(), stored.width(), stored.format());
+        }
+        return stored;
+    }
+
+    // Private helper methods
+
+    private static ImageMetadata readStored(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open " + path.getFileName());
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No decoder for " + path.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new ImageMetadata(reader.getWidth(0), reader.getHeight(0),
+                        reader.getFormatName().toLowerCase(Locale.ROOT));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ma.enset.ziyara.core.upload;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Image formats accepted for upload, recognised by their leading magic bytes rather than by the
+ * client-supplied content type or file name
+ */
+public enum ImageSignature {
+
+    JPEG("image/jpeg", List.of("jpg", "jpeg")),
+    PNG("image/png", List.of("png")),
+    GIF("image/gif", List.of("gif")),
+    WEBP("image/webp", List.of("webp"));
+
+    /** Enough leading bytes to tell every supported format apart */
+    public static final int LENGTH = 12;
+
+    private final String contentType;
+    private final List<String> extensions;
+
+    ImageSignature(String contentType, List<String> extensions) {
+        this.contentType = contentType;
+        this.extensions = extensions;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Extension (without the dot) given to files of this format when the name is chosen by the server
+     */
+    public String extension() {
+        return extensions.get(0);
+    }
+
+    /**
+     * Whether a file name extension (without the dot) denotes this format
+     */
+    public boolean matchesExtension(String extension) {
+        return extensions.contains(extension.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Format of content starting with {@code head}, or {@code null} if it is none of the supported ones
+     */
+    public static ImageSignature detect(byte[] head) {
+        if (startsWith(head, 0xFF, 0xD8, 0xFF)) {
+            return JPEG;
+        }
+        if (startsWith(head, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return PNG;
+        }
+        if (startsWith(head, 'G', 'I', 'F', '8') && head.length >= 6 && (head[4] == '7' || head[4] == '9')
+                && head[5] == 'a') {
+            return GIF;
+        }
+        if (startsWith(head, 'R', 'I', 'F', 'F') && head.length >= 12
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return WEBP;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int... expected) {
+        if (head.length < expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((head[i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package ma.enset.ziyara.core.upload;
+
+import ma.enset.ziyara.core.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Downscaled copies of an uploaded image, stored next to the original under the original's name with
+ * the variant key appended: {@code /destinations/x_a.jpg} has {@code /destinations/x_a_thumb.jpg}
+ */
+public enum ImageVariant {
+
+    THUMB(200),
+    MEDIUM(640),
+    LARGE(1280);
+
+    /** Bounding box of the variant: neither side is longer than this */
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int maxDimension() {
+        return maxDimension;
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * URL of this variant of the file at {@code fileUrl}
+     */
+    public String urlOf(String fileUrl) {
+        int dot = fileUrl.lastIndexOf('.');
+        int slash = fileUrl.lastIndexOf('/');
+        if (dot <= slash) {
+            return fileUrl + "_" + key();
+        }
+        return fileUrl.substring(0, dot) + "_" + key() + fileUrl.substring(dot);
+    }
+
+    /**
+     * URL of the file {@code fileUrl} would be a variant of, judging by its name, or {@code null} when the
+     * name carries no variant key. An upload may be named like a variant, so this is only a guess.
+     */
+    public static String originalUrlOf(String fileUrl) {
+        int dot = fileUrl.lastIndexOf('.');
+        int end = dot > fileUrl.lastIndexOf('/') ? dot : fileUrl.length();
+        for (ImageVariant variant : values()) {
+            String suffix = "_" + variant.key();
+            if (fileUrl.startsWith(suffix, end - suffix.length())) {
+                return fileUrl.substring(0, end - suffix.length()) + fileUrl.substring(end);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Variant named by a request parameter; unknown names are a 400
+     */
+    public static ImageVariant fromKey(String key) {
+        for (ImageVariant variant : values()) {
+            if (variant.key().equalsIgnoreCase(key)) {
+                return variant;
+            }
+        }
+        throw new BadRequestException("Unknown image variant: " + key + ". Expected one of "
+                + Arrays.stream(values()).map(ImageVariant::key).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Comma-separated keys, the form in which variants are recorded on an entity
+     */
+    public static String toKeys(List<ImageVariant> variants) {
+        return variants.stream().map(ImageVariant::key).collect(Collectors.joining(","));
+    }
+
+    public static List<ImageVariant> fromKeys(String keys) {
+        if (keys == null || keys.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(keys.split(",")).map(String::trim).map(ImageVariant::fromKey).toList();
+    }
+}
@@ -0,0 +1,270 @@
+package ma.enset.ziyara.core.upload;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.event.ImageVariantsGeneratedEvent;
+import ma.enset.ziyara.core.service.FileUploadService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the {@link ImageVariant}s of uploaded images in the background.
+ * <p>
+ * Work runs on a fixed pool of platform threads behind a bounded queue, so a burst of uploads never
+ * holds more decoded images in memory than there are workers, and an upload request never waits for
+ * it. A full queue drops the submission; callers keep the image pending and submit it again later.
+ * Images are turned upright by their {@link ExifOrientation} before scaling, since variants are written
+ * without the original's EXIF data. The decoded image also yields a {@link BlurHash} placeholder. Each outcome is published as an
+ * {@link ImageVariantsGeneratedEvent} from the worker thread.
+ */
+@Component
+@Slf4j
+public class ImageVariantPipeline implements AutoCloseable {
+
+    /** Decoded images above this are refused: 50 MP is 200MB of ARGB pixels before subsampling */
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+    /** The placeholder is hashed from a copy this small: it only keeps a few colour gradients anyway */
+    private static final int PLACEHOLDER_SOURCE_SIZE = 32;
+    private static final int PLACEHOLDER_COMPONENTS_X = 4;
+    private static final int PLACEHOLDER_COMPONENTS_Y = 3;
+
+    private final FileUploadService fileUploadService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor executor;
+
+    /** File URLs queued or being processed, so submitting one again meanwhile is a no-op */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantPipeline(FileUploadService fileUploadService, ApplicationEventPublisher eventPublisher,
+                                @Value("${app.image-variants.workers:2}") int workers,
+                                @Value("${app.image-variants.queue-capacity:200}") int queueCapacity) {
+        this.fileUploadService = fileUploadService;
+        this.eventPublisher = eventPublisher;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("image-variants-", 0).daemon().factory());
+    }
+
+    /**
+     * Queue the image once the current transaction commits, so a rolled back upload is never processed
+     */
+    public void submitAfterCommit(String fileUrl) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(fileUrl);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(fileUrl);
+            }
+        });
+    }
+
+    /**
+     * Queue the image; false when the queue is full
+     */
+    public boolean submit(String fileUrl) {
+        if (!inFlight.add(fileUrl)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> generate(fileUrl));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(fileUrl);
+            log.debug("Image variant queue full, {} stays pending", fileUrl);
+            return false;
+        }
+    }
+
+    /**
+     * Delete every variant of an image; missing ones are ignored
+     */
+    public void deleteVariants(String fileUrl) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            try {
+                Files.deleteIfExists(fileUploadService.resolveFilePath(variant.urlOf(fileUrl)));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not delete {} variant of {}: {}", variant.key(), fileUrl, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stop the workers; called by the container on shutdown. Queued images stay pending.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Private helper methods
+
+    private void generate(String fileUrl) {
+        try {
+            Generated generated = writeVariants(fileUrl);
+            log.debug("Generated {} variants of {}", generated.variants().size(), fileUrl);
+            eventPublisher.publishEvent(new ImageVariantsGeneratedEvent(fileUrl, generated.variants(),
+                    generated.placeholder(), true));
+        } catch (Exception e) {
+            log.warn("Could not generate variants of {}: {}", fileUrl, e.getMessage());
+            deleteVariants(fileUrl);
+            eventPublisher.publishEvent(new ImageVariantsGeneratedEvent(fileUrl, List.of(), null, false));
+        } finally {
+            inFlight.remove(fileUrl);
+        }
+    }
+
+    private Generated writeVariants(String fileUrl) throws IOException {
+        Path source = fileUploadService.resolveFilePath(fileUrl);
+        BufferedImage image;
+        String format;
+        int longestSide;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open " + fileUrl);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No decoder for " + fileUrl);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image too large to process: " + width + "x" + height);
+                }
+                longestSide = Math.max(width, height);
+                format = reader.getFormatName().toLowerCase(Locale.ROOT);
+
+                // Decode no more than twice the largest variant: less memory, and still a clean downscale
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longestSide / (2 * ImageVariant.LARGE.maxDimension()));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        if (format.equals("jpeg")) {
+            image = ExifOrientation.apply(image, ExifOrientation.read(source));
+        }
+
+        // Largest first, each one scaled from the previous
+        List<ImageVariant> written = new ArrayList<>();
+        ImageVariant[] variants = ImageVariant.values();
+        for (int i = variants.length - 1; i >= 0; i--) {
+            ImageVariant variant = variants[i];
+            if (longestSide <= variant.maxDimension()) {
+                // Never upscale: the original is already small enough to stand in for this variant
+                continue;
+            }
+            image = scale(image, variant.maxDimension());
+            write(image, format, fileUploadService.resolveFilePath(variant.urlOf(fileUrl)));
+            written.add(variant);
+        }
+        String placeholder = BlurHash.encode(scale(image, PLACEHOLDER_SOURCE_SIZE),
+                PLACEHOLDER_COMPONENTS_X, PLACEHOLDER_COMPONENTS_Y);
+        return new Generated(written.reversed(), placeholder);
+    }
+
+    /**
+     * Fit the image in a square of {@code maxDimension}, halving first while possible since a single
+     * bilinear step from far above the target size aliases
+     */
+    private static BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = (double) maxDimension / Math.max(source.getWidth(), source.getHeight());
+        if (ratio >= 1) {
+            return source;
+        }
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return current.getWidth() == width && current.getHeight() == height
+                ? current
+                : resize(current, width, height);
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Encode in the original's format into a partial file, renamed once complete so a variant is never
+     * served half written
+     */
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No encoder for " + format);
+        }
+        ImageWriter writer = writers.next();
+        // A variant of a file not named by its hash is sharded apart from it
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(partial.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (format.equals("jpeg")) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private record Generated(List<ImageVariant> variants, String placeholder) {
+    }
+}
@@ -0,0 +1,339 @@
+package ma.enset.ziyara.core.upload;
+
+import ma.enset.ziyara.core.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Incremental reader of a {@code multipart/form-data} body.
+ * <p>
+ * Parts are handed out one at a time, each with a stream over its content that ends at the next
+ * boundary, so a file can be written out while it arrives instead of being buffered by the container
+ * first. Memory use is one fixed buffer per request whatever the size of the parts.
+ */
+public class MultipartStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_SIZE = 8 * 1024;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final InputStream in;
+    /** CRLF, two dashes and the boundary: what ends a part */
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    private Part current;
+    private boolean finished;
+
+    private MultipartStream(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        // The opening boundary has no leading CRLF; pretend it does so every boundary looks alike
+        System.arraycopy(CRLF, 0, buffer, 0, CRLF.length);
+        this.limit = CRLF.length;
+        // The preamble, if any, is read as an anonymous part and skipped
+        this.current = new Part(null, null, null);
+    }
+
+    /**
+     * Reader over a request body of the given content type; fails with a 400 unless it is multipart
+     * with a boundary
+     */
+    public static MultipartStream of(InputStream body, String contentType) {
+        if (contentType == null) {
+            throw new BadRequestException("Expected a multipart/form-data request");
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid Content-Type: " + contentType);
+        }
+        String boundary = mediaType.getParameter("boundary");
+        if (boundary != null) {
+            boundary = unquote(boundary);
+        }
+        if (!MediaType.MULTIPART_FORM_DATA.includes(mediaType) || boundary == null || boundary.isEmpty()) {
+            throw new BadRequestException("Expected a multipart/form-data request with a boundary");
+        }
+        return new MultipartStream(body, boundary);
+    }
+
+    /**
+     * The next part, after skipping whatever was left unread of the previous one; {@code null} once
+     * the closing boundary has been read
+     */
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        current.content().skipRemaining();
+
+        // Past the delimiter comes "--" for the closing boundary, or CRLF and the part headers
+        position += delimiter.length;
+        require(2);
+        if (buffer[position] == '-' && buffer[position + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        skipLine();
+
+        String name = null;
+        String filename = null;
+        String contentType = null;
+        int headerBytes = 0;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            headerBytes += line.length();
+            if (headerBytes > MAX_HEADER_SIZE) {
+                throw new BadRequestException("Multipart part headers too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String header = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if (header.equals("content-disposition")) {
+                name = parameter(value, "name");
+                filename = parameter(value, "filename");
+            } else if (header.equals("content-type")) {
+                contentType = value;
+            }
+        }
+        current = new Part(name, filename, contentType);
+        return current;
+    }
+
+    // Private helper methods
+
+    /**
+     * Make at least {@code count} bytes available from {@link #position}, compacting the buffer first
+     */
+    private void require(int count) throws IOException {
+        if (limit - position >= count) {
+            return;
+        }
+        fill();
+        while (limit - position < count) {
+            if (eof) {
+                throw new BadRequestException("Unexpected end of multipart body");
+            }
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            return;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private String readLine() throws IOException {
+        int start = position;
+        while (true) {
+            for (int i = start; i + 1 < limit; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    // Browsers send non-ASCII file names as raw UTF-8 in the header
+                    String line = new String(buffer, position, i - position, StandardCharsets.UTF_8);
+                    position = i + 2;
+                    return line;
+                }
+            }
+            if (limit - position >= MAX_HEADER_SIZE) {
+                throw new BadRequestException("Multipart part headers too large");
+            }
+            if (eof) {
+                throw new BadRequestException("Unexpected end of multipart body");
+            }
+            start = Math.max(position, limit - 1) - position;
+            fill();
+            start += position;
+        }
+    }
+
+    private void skipLine() throws IOException {
+        readLine();
+    }
+
+    /**
+     * Index of the delimiter in the buffered bytes, or -1
+     */
+    private int indexOfDelimiter() {
+        byte first = delimiter[0];
+        int last = limit - delimiter.length;
+        outer:
+        for (int i = position; i <= last; i++) {
+            if (buffer[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * A parameter of a header value; a quoted value may hold semicolons and backslash-escaped quotes
+     */
+    static String parameter(String headerValue, String name) {
+        int start = 0;
+        while (start < headerValue.length()) {
+            int end = start;
+            boolean quoted = false;
+            while (end < headerValue.length() && (quoted || headerValue.charAt(end) != ';')) {
+                char c = headerValue.charAt(end);
+                if (c == '\\' && quoted) {
+                    end++;
+                } else if (c == '"') {
+                    quoted = !quoted;
+                }
+                end++;
+            }
+            String element = headerValue.substring(start, Math.min(end, headerValue.length())).trim();
+            int equals = element.indexOf('=');
+            if (equals > 0 && element.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                return unquote(element.substring(equals + 1).trim());
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            return value;
+        }
+        StringBuilder unquoted = new StringBuilder(value.length() - 2);
+        for (int i = 1; i < value.length() - 1; i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length() - 1) {
+                c = value.charAt(++i);
+            }
+            unquoted.append(c);
+        }
+        return unquoted.toString();
+    }
+
+    /**
+     * One part of the body; its content must be read before asking for the next part, or it is skipped
+     */
+    public final class Part {
+
+        private final String name;
+        private final String filename;
+        private final String contentType;
+        private final PartInputStream content = new PartInputStream();
+
+        private Part(String name, String filename, String contentType) {
+            this.name = name;
+            this.filename = filename;
+            this.contentType = contentType;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * File name sent by the client, or {@code null} for a plain form field
+         */
+        public String filename() {
+            return filename;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public boolean isFile() {
+            return filename != null;
+        }
+
+        public PartInputStream content() {
+            return content;
+        }
+
+        /**
+         * Content of a form field, read as UTF-8 up to {@code maxLength} bytes
+         */
+        public String readString(int maxLength) throws IOException {
+            byte[] value = content.readNBytes(maxLength + 1);
+            if (value.length > maxLength) {
+                throw new BadRequestException("Form field '" + name + "' is too long");
+            }
+            return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Content of the current part, ending where the next boundary starts
+     */
+    public final class PartInputStream extends InputStream {
+
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (!ended) {
+                int found = indexOfDelimiter();
+                if (found == position) {
+                    ended = true;
+                    break;
+                }
+                // Without a match, the tail shorter than the delimiter may still be the start of one
+                int safe = found >= 0 ? found - position : limit - position - (delimiter.length - 1);
+                if (safe > 0) {
+                    int count = Math.min(length, safe);
+                    System.arraycopy(buffer, position, target, offset, count);
+                    position += count;
+                    return count;
+                }
+                if (eof) {
+                    throw new BadRequestException("Unexpected end of multipart body");
+                }
+                fill();
+            }
+            return -1;
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) >= 0) {
+                // discard
+            }
+        }
+    }
+}
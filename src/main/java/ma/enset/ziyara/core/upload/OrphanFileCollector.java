@@ -0,0 +1,299 @@
+package ma.enset.ziyara.core.upload;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.service.FileUploadService;
+import ma.enset.ziyara.core.service.ResumableUploadService;
+import ma.enset.ziyara.core.upload.BlobReferences.BlobLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Removes uploaded files no row refers to any more.
+ * <p>
+ * Files lose their last reference without being deleted when a destination's images go with it, when
+ * an update replaces them, or when an upload is stored but the row recording it is not. The collector
+ * walks the upload tree in path order, a chunk of files per run from where the previous run stopped, so
+ * a pass over a large tree is spread out and never competes with serving for long. The files of a chunk
+ * are looked up in every {@link FileReferenceSource} in one query each; an image variant counts as
+ * referenced while its original is.
+ * <p>
+ * Only files untouched for the grace period are candidates, which covers uploads whose row is not
+ * written yet; a content-addressed file counts as touched when an upload last linked to it. Orphans are
+ * moved to a quarantine directory, purged after the retention period, or deleted outright. Staged and
+ * partial files a crash left behind are deleted after the same grace period, except the files of
+ * resumable upload sessions, which {@link ResumableUploadService} expires on its own schedule.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrphanFileCollector {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final UploadLayout uploadLayout;
+    private final BlobReferences blobReferences;
+    private final List<FileReferenceSource> referenceSources;
+
+    @Value("${app.file-upload.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.file-upload.gc.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${app.file-upload.gc.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    @Value("${app.file-upload.gc.pass-interval-minutes:360}")
+    private long passIntervalMinutes;
+
+    @Value("${app.file-upload.gc.quarantine:true}")
+    private boolean quarantine;
+
+    @Value("${app.file-upload.gc.quarantine-retention-days:30}")
+    private long quarantineRetentionDays;
+
+    /** Last file examined, relative to the upload directory; {@code null} before a pass starts */
+    private Path cursor;
+    private int examinedInPass;
+    private int collectedInPass;
+    private Instant nextPassAt = Instant.MIN;
+
+    @Scheduled(fixedDelayString = "${app.file-upload.gc.interval-ms:5000}",
+            initialDelayString = "${app.file-upload.gc.initial-delay-ms:300000}")
+    public void collect() {
+        if (!enabled || (cursor == null && Instant.now().isBefore(nextPassAt))) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofHours(gracePeriodHours));
+        try {
+            if (cursor == null) {
+                deleteOlderThan(uploadLayout.stagingDirectory(), cutoff, ResumableUploadService::isSessionFile);
+                deleteOlderThan(uploadLayout.quarantineDirectory(),
+                        Instant.now().minus(Duration.ofDays(quarantineRetentionDays)), path -> false);
+            }
+            List<StoredPath> chunk = new ArrayList<>();
+            boolean finished = visit(uploadLayout.root(), chunk);
+            cursor = finished || chunk.isEmpty() ? null : uploadLayout.root().relativize(chunk.getLast().path());
+            examinedInPass += chunk.size();
+            collectedInPass += collectOrphans(chunk, cutoff);
+        } catch (IOException e) {
+            log.warn("Orphan file collection stopped at {}: {}", cursor, e.getMessage());
+            cursor = null;
+        }
+
+        if (cursor == null) {
+            if (collectedInPass > 0) {
+                log.info("Orphan file collection pass done: {} files examined, {} orphans {}", examinedInPass,
+                        collectedInPass, quarantine ? "quarantined" : "deleted");
+            } else {
+                log.debug("Orphan file collection pass done: {} files examined, no orphans", examinedInPass);
+            }
+            nextPassAt = Instant.now().plus(Duration.ofMinutes(passIntervalMinutes));
+            examinedInPass = 0;
+            collectedInPass = 0;
+        }
+    }
+
+    // Private helper methods
+
+    /**
+     * Add the files under {@code directory} that come after the cursor to the chunk, in path order;
+     * returns false once the chunk is full
+     */
+    private boolean visit(Path directory, List<StoredPath> chunk) throws IOException {
+        List<Path> entries;
+        try (Stream<Path> stream = Files.list(directory)) {
+            entries = stream
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+
+        for (Path entry : entries) {
+            Path relative = uploadLayout.root().relativize(entry);
+            boolean after = cursor == null || compare(relative, cursor) > 0;
+            if (!after && !cursor.startsWith(relative)) {
+                continue;
+            }
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            if (attributes.isDirectory()) {
+                if (!visit(entry, chunk)) {
+                    return false;
+                }
+            } else if (after && attributes.isRegularFile()) {
+                if (chunk.size() == chunkSize) {
+                    return false;
+                }
+                chunk.add(new StoredPath(entry, attributes.lastModifiedTime()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Quarantine or delete the files of a chunk that are past the grace period and referenced by nothing;
+     * returns how many went
+     */
+    private int collectOrphans(List<StoredPath> chunk, Instant cutoff) {
+        List<Candidate> candidates = new ArrayList<>();
+        Set<String> fileUrls = new HashSet<>();
+        for (StoredPath stored : chunk) {
+            if (!stored.lastModified().toInstant().isBefore(cutoff)) {
+                continue;
+            }
+            if (stored.path().getFileName().toString().endsWith(PARTIAL_SUFFIX)) {
+                // A variant write a crash interrupted
+                deleteQuietly(stored.path());
+                continue;
+            }
+            String fileUrl = uploadLayout.urlOfStored(stored.path());
+            if (fileUrl == null) {
+                continue;
+            }
+            Candidate candidate = new Candidate(stored.path(), fileUrl, ImageVariant.originalUrlOf(fileUrl));
+            candidates.add(candidate);
+            fileUrls.addAll(candidate.urls());
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> referenced = findReferenced(fileUrls);
+        int collected = 0;
+        for (Candidate candidate : candidates) {
+            if (candidate.urls().stream().noneMatch(referenced::contains) && collect(candidate, cutoff)) {
+                collected++;
+            }
+        }
+        return collected;
+    }
+
+    /**
+     * Set aside one orphan, unless it was linked, rewritten or referenced since it was examined
+     */
+    private boolean collect(Candidate candidate, Instant cutoff) {
+        LocalDateTime linkCutoff = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+        try (BlobLock lock = blobReferences.lock(candidate.fileUrl())) {
+            for (String url : candidate.urls()) {
+                if (FileUploadService.isContentAddressed(url) && blobReferences.isLinkedSince(url, linkCutoff)) {
+                    return false;
+                }
+            }
+            if (!Files.getLastModifiedTime(candidate.path()).toInstant().isBefore(cutoff)
+                    || !findReferenced(candidate.urls()).isEmpty()) {
+                return false;
+            }
+
+            if (quarantine) {
+                Path target = uploadLayout.quarantineDirectory().resolve(uploadLayout.root().relativize(candidate.path()));
+                Files.createDirectories(target.getParent());
+                Files.move(candidate.path(), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                // Retention counts from now, not from the upload
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            } else {
+                Files.delete(candidate.path());
+            }
+            if (FileUploadService.isContentAddressed(candidate.fileUrl())) {
+                blobReferences.forget(candidate.fileUrl());
+            }
+            log.info("Orphaned file {} {}", candidate.fileUrl(), quarantine ? "quarantined" : "deleted");
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not collect orphaned file {}: {}", candidate.fileUrl(), e.getMessage());
+            return false;
+        }
+    }
+
+    private Set<String> findReferenced(Set<String> fileUrls) {
+        Set<String> referenced = new HashSet<>();
+        for (FileReferenceSource source : referenceSources) {
+            referenced.addAll(source.findReferenced(fileUrls));
+        }
+        return referenced;
+    }
+
+    private void deleteOlderThan(Path directory, Instant cutoff, Predicate<Path> kept) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile)
+                    .filter(kept.negate())
+                    .filter(path -> isOlderThan(path, cutoff))
+                    .forEach(this::deleteQuietly);
+        }
+    }
+
+    private boolean isOlderThan(Path path, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Order of relative paths in a walk that visits entries sorted by name: segment by segment, a
+     * directory before everything under it
+     */
+    static int compare(Path a, Path b) {
+        for (int i = 0; i < Math.min(a.getNameCount(), b.getNameCount()); i++) {
+            int order = a.getName(i).toString().compareTo(b.getName(i).toString());
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(a.getNameCount(), b.getNameCount());
+    }
+
+    private record StoredPath(Path path, FileTime lastModified) {
+    }
+
+    /**
+     * A file past the grace period, with the original it may be a variant of
+     */
+    private record Candidate(Path path, String fileUrl, String originalUrl) {
+
+        Set<String> urls() {
+            return originalUrl == null ? Set.of(fileUrl) : Set.of(fileUrl, originalUrl);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package ma.enset.ziyara.core.upload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import ma.enset.ziyara.core.exception.ResourceNotFoundException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes an uploaded file to the response without copying it through the heap.
+ * <p>
+ * Validators come from one {@code stat}: a strong ETag over size and modification time, and
+ * Last-Modified, so a revalidation ends in 304 without opening the file. A single {@code Range} is served
+ * as 206, honouring {@code If-Range}. The body goes out through Tomcat's sendfile when the connector
+ * offers it, otherwise through {@link FileChannel#transferTo}.
+ */
+@Component
+public class StoredFileResponder {
+
+    /**
+     * Names produced by FileUploadService, never reused and so never changed: timestamp, random id and
+     * original name, or the SHA-256 of the content; variants append their key to either
+     */
+    private static final Pattern IMMUTABLE_NAME =
+            Pattern.compile("\\d{8}_\\d{6}_[0-9a-f]{8}_.+|[0-9a-f]{64}(_[a-z]+)?\\.[a-z]+");
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+
+    // Request attributes of Tomcat's sendfile support, as used by its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Answer a GET or HEAD for {@code file}; a missing file is a {@link ResourceNotFoundException}
+     */
+    public void respond(Path file, String contentType, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean immutable = IMMUTABLE_NAME.matcher(file.getFileName().toString()).matches();
+        respond(file, contentType, immutable, request, response);
+    }
+
+    /**
+     * Answer with {@code file} standing in for something not stored yet, such as a variant still being
+     * generated: clients must revalidate, so they pick up the real thing once it exists
+     */
+    public void respondRevalidating(Path file, String contentType, HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        respond(file, contentType, false, request, response);
+    }
+
+    // Private helper methods
+
+    private void respond(Path file, String contentType, boolean immutable, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found: " + file.getFileName());
+        }
+        if (!attributes.isRegularFile()) {
+            throw new ResourceNotFoundException("File not found: " + file.getFileName());
+        }
+        String filename = file.getFileName().toString();
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = '"' + Long.toHexString(lastModified) + '-' + Long.toHexString(length) + '"';
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and the 304 or 412 status when the preconditions say so
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = singleRange(request, etag, lastModified);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(count);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(filename).build().toString());
+        if (count == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The connector writes the file from the page cache once the handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, target);
+            }
+        }
+    }
+
+    /**
+     * The requested range when there is exactly one and If-Range allows it; malformed or multiple ranges
+     * are ignored and the whole file is sent
+     */
+    static HttpRange singleRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * If-Range holds a strong ETag or an HTTP date; anything else, including a weak ETag, fails the check
+     */
+    static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"")) {
+            return value.equals(etag);
+        }
+        if (value.startsWith("W/")) {
+            return false;
+        }
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.IF_RANGE, value);
+            return headers.getFirstDate(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
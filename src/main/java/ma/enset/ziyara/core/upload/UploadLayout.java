@@ -0,0 +1,146 @@
+package ma.enset.ziyara.core.upload;
+
+import ma.enset.ziyara.core.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Where the file behind an upload URL lives on disk.
+ * <p>
+ * URLs name a file in its category, {@code /destinations/photo.jpg}, but a category directory holding
+ * every file of the category grows too large to list or back up. Files are stored under two-hex-digit
+ * shard directories instead, {@code destinations/3f/a2/photo.jpg}, {@code shard-depth} levels deep. The
+ * shard comes from the file name: a content-addressed name is already a hash and supplies it directly,
+ * which also keeps a blob's image variants beside it; other names are hashed. URLs are unchanged, so
+ * nothing stored in the database has to be rewritten.
+ */
+@Component
+public class UploadLayout {
+
+    /** Under the upload directory, so a staged file is renamed into place on the same file system */
+    public static final String STAGING_DIRECTORY = ".staging";
+    /** Orphaned files set aside by the {@link OrphanFileCollector} */
+    public static final String QUARANTINE_DIRECTORY = ".quarantine";
+
+    private static final int MAX_SHARD_DEPTH = 4;
+    private static final Pattern HASH_PREFIX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final int shardDepth;
+
+    public UploadLayout(@Value("${app.file-upload.upload-dir:./uploads}") String uploadDir,
+                        @Value("${app.file-upload.shard-depth:2}") int shardDepth) {
+        if (shardDepth < 0 || shardDepth > MAX_SHARD_DEPTH) {
+            throw new IllegalStateException("app.file-upload.shard-depth must be between 0 and " + MAX_SHARD_DEPTH);
+        }
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.shardDepth = shardDepth;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    public Path stagingDirectory() {
+        return root.resolve(STAGING_DIRECTORY);
+    }
+
+    public Path quarantineDirectory() {
+        return root.resolve(QUARANTINE_DIRECTORY);
+    }
+
+    public boolean isSharded() {
+        return shardDepth > 0;
+    }
+
+    /**
+     * Path a file URL is stored at; URLs that would escape the upload directory are rejected
+     */
+    public Path storagePath(String fileUrl) {
+        return shard(flatPath(fileUrl));
+    }
+
+    /**
+     * Path a file URL was stored at before sharding, directly in its directory
+     */
+    public Path flatPath(String fileUrl) {
+        if (fileUrl == null || fileUrl.isEmpty()) {
+            throw new BadRequestException("File URL cannot be empty");
+        }
+
+        // Remove leading slash and construct path
+        String relativePath = fileUrl.startsWith("/") ? fileUrl.substring(1) : fileUrl;
+        Path filePath = root.resolve(relativePath).normalize();
+
+        // Dot directories, staging and quarantine, hold files that are not served
+        if (!filePath.startsWith(root) || filePath.equals(root)
+                || root.relativize(filePath).getName(0).toString().startsWith(".")) {
+            throw new BadRequestException("Invalid file URL: " + fileUrl);
+        }
+        return filePath;
+    }
+
+    /**
+     * Sharded location of a file stored flat in its directory
+     */
+    public Path shard(Path flatPath) {
+        if (shardDepth == 0) {
+            return flatPath;
+        }
+        String name = flatPath.getFileName().toString();
+        String key = name.length() >= 64 && HASH_PREFIX.matcher(name.substring(0, 64)).matches()
+                ? name
+                : HexFormat.of().formatHex(sha256(name));
+
+        Path directory = flatPath.getParent();
+        for (int level = 0; level < shardDepth; level++) {
+            directory = directory.resolve(key.substring(level * 2, level * 2 + 2));
+        }
+        return directory.resolve(name);
+    }
+
+    /**
+     * URL of the file stored at a path, flat or in its shard directory; {@code null} for a path no URL
+     * is stored at
+     */
+    public String urlOfStored(Path storedPath) {
+        Path relative = root.relativize(storedPath);
+        if (relative.getNameCount() < 2) {
+            return null;
+        }
+        Path flatPath = root.resolve(relative.getName(0)).resolve(relative.getFileName());
+        if (relative.getNameCount() == 2 || shard(flatPath).equals(storedPath)) {
+            return urlOf(flatPath);
+        }
+        return null;
+    }
+
+    /**
+     * URL of a file stored flat in its directory
+     */
+    public String urlOf(Path flatPath) {
+        StringBuilder url = new StringBuilder();
+        for (Path segment : root.relativize(flatPath)) {
+            url.append('/').append(segment);
+        }
+        return url.toString();
+    }
+
+    // Private helper methods
+
+    private static byte[] sha256(String name) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
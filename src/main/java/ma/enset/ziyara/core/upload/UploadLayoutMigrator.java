@@ -0,0 +1,148 @@
+package ma.enset.ziyara.core.upload;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.LayoutMigrationBatch;
+import ma.enset.ziyara.core.service.FileUploadService;
+import ma.enset.ziyara.core.upload.BlobReferences.BlobLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves files stored flat in their category directory into the shard directories of {@link UploadLayout},
+ * while the application keeps serving them.
+ * <p>
+ * Lookups try the sharded path and then the flat one, so a file is reachable before, during and after
+ * its move. Each move is a rename within the file system, done under the file's {@link BlobReferences}
+ * lock, which uploads and deletes of the same URL also take. The work is spread over small batches on a
+ * schedule, and stops once a pass finds nothing left to move.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UploadLayoutMigrator {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final UploadLayout uploadLayout;
+    private final BlobReferences blobReferences;
+
+    @Value("${app.file-upload.layout-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.file-upload.layout-migration.batch-size:500}")
+    private int batchSize;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    /** Files that could not be moved, not retried until restart so they cannot stall every batch */
+    private final Set<Path> failedFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicLong movedFiles = new AtomicLong();
+    private volatile boolean complete;
+
+    @Scheduled(fixedDelayString = "${app.file-upload.layout-migration.interval-ms:1000}",
+            initialDelayString = "${app.file-upload.layout-migration.initial-delay-ms:60000}")
+    public void migrateInBackground() {
+        if (enabled && !complete) {
+            migrateBatch(batchSize);
+        }
+    }
+
+    /**
+     * Move up to {@code limit} flat files into their shard directories
+     */
+    public LayoutMigrationBatch migrateBatch(int limit) {
+        if (!uploadLayout.isSharded()) {
+            return new LayoutMigrationBatch(0, 0, true);
+        }
+        runLock.lock();
+        try {
+            int moved = 0;
+            int failed = 0;
+            boolean exhausted = true;
+            try (DirectoryStream<Path> categories = Files.newDirectoryStream(uploadLayout.root(), this::isCategory)) {
+                scan:
+                for (Path category : categories) {
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(category, this::isFlatFile)) {
+                        for (Path file : files) {
+                            if (moved + failed == limit) {
+                                exhausted = false;
+                                break scan;
+                            }
+                            if (move(file)) {
+                                moved++;
+                            } else {
+                                failed++;
+                            }
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Nothing uploaded yet
+            } catch (IOException e) {
+                log.warn("Upload layout migration could not list {}: {}", uploadLayout.root(), e.getMessage());
+                exhausted = false;
+            }
+
+            long total = movedFiles.addAndGet(moved);
+            if (exhausted && !complete) {
+                complete = true;
+                log.info("Upload layout migration complete: {} files moved, {} left in place", total, failedFiles.size());
+            } else if (moved > 0) {
+                log.debug("Upload layout migration moved {} files ({} so far)", moved, total);
+            }
+            return new LayoutMigrationBatch(moved, failed, exhausted);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    // Private helper methods
+
+    private boolean move(Path flatPath) {
+        String fileUrl = uploadLayout.urlOf(flatPath);
+        try (BlobLock lock = blobReferences.lock(fileUrl)) {
+            Path target = uploadLayout.shard(flatPath);
+            Files.createDirectories(target.getParent());
+            if (!Files.exists(target)) {
+                Files.move(flatPath, target, StandardCopyOption.ATOMIC_MOVE);
+            } else if (FileUploadService.isContentAddressed(fileUrl)) {
+                // Same name, so same content: the sharded copy serves for both
+                Files.delete(flatPath);
+            } else {
+                log.warn("Cannot move {} into place: {} already exists", flatPath, target);
+                failedFiles.add(flatPath);
+                return false;
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            // Deleted since it was listed
+            return true;
+        } catch (IOException e) {
+            log.warn("Cannot move {} into place: {}", flatPath, e.getMessage());
+            failedFiles.add(flatPath);
+            return false;
+        }
+    }
+
+    private boolean isCategory(Path path) {
+        return Files.isDirectory(path) && !path.getFileName().toString().startsWith(".");
+    }
+
+    boolean isFlatFile(Path path) {
+        return Files.isRegularFile(path)
+                && !path.getFileName().toString().endsWith(PARTIAL_SUFFIX)
+                && !failedFiles.contains(path);
+    }
+}
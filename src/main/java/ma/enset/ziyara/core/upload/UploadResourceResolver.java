@@ -0,0 +1,31 @@
+package ma.enset.ziyara.core.upload;
+
+import lombok.RequiredArgsConstructor;
+import ma.enset.ziyara.core.exception.BadRequestException;
+import ma.enset.ziyara.core.service.FileUploadService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Resolves {@code /uploads/**} requests the way uploads are stored, so a URL keeps working whether its
+ * file is still flat in its category or already moved into a shard directory
+ */
+@RequiredArgsConstructor
+public class UploadResourceResolver extends PathResourceResolver {
+
+    private final FileUploadService fileUploadService;
+
+    @Override
+    protected Resource getResource(String resourcePath, Resource location) {
+        try {
+            Path filePath = fileUploadService.resolveFilePath(resourcePath);
+            return Files.isRegularFile(filePath) ? new FileSystemResource(filePath) : null;
+        } catch (BadRequestException e) {
+            return null;
+        }
+    }
+}
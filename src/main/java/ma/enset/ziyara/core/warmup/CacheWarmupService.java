@@ -0,0 +1,199 @@
+package ma.enset.ziyara.core.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.entity.WarmupKey;
+import ma.enset.ziyara.core.repository.WarmupKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the hottest {@link Warmable} invocations and replays them on startup.
+ * <p>
+ * Replay runs as the last application runner, so it completes before the instance reports ready.
+ * Invocations go through the service proxies and fill every cache tier behind them; whatever has
+ * not finished when the time budget runs out is cancelled and the instance starts anyway.
+ */
+@Service
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupService implements ApplicationRunner {
+
+    private final HotKeyRecorder hotKeyRecorder;
+    private final WarmupKeyRepository warmupKeyRepository;
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.time-budget:PT15S}")
+    private Duration timeBudget;
+
+    @Value("${app.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            replay();
+        }
+    }
+
+    /**
+     * Snapshot the current hot keys, replacing the previously persisted ones
+     */
+    @Scheduled(fixedDelayString = "${app.warmup.persist-interval-ms:60000}",
+            initialDelayString = "${app.warmup.persist-interval-ms:60000}")
+    @Transactional
+    public void persistHotKeys() {
+        if (!enabled) {
+            return;
+        }
+        List<HotKeyRecorder.HotKey> hotKeys = hotKeyRecorder.topKeys();
+        if (hotKeys.isEmpty()) {
+            // Keep what a previous instance recorded rather than wiping it
+            return;
+        }
+        warmupKeyRepository.deleteAllInBatch();
+        warmupKeyRepository.saveAll(hotKeys.stream()
+                .map(key -> WarmupKey.builder()
+                        .operation(key.operation())
+                        .arguments(key.arguments())
+                        .hits(key.hits())
+                        .build())
+                .toList());
+        log.debug("Persisted {} warmup keys", hotKeys.size());
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        try {
+            applicationContext.getBean(CacheWarmupService.class).persistHotKeys();
+        } catch (RuntimeException e) {
+            log.warn("Could not persist warmup keys on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replay the persisted hot keys in parallel within the time budget
+     */
+    public void replay() {
+        List<WarmupKey> keys = warmupKeyRepository.findAllByOrderByHitsDesc();
+        if (keys.isEmpty()) {
+            log.info("No warmup keys recorded yet, skipping cache warmup");
+            return;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(keys.size());
+        for (WarmupKey key : keys) {
+            Invocation invocation = resolve(key);
+            if (invocation != null) {
+                tasks.add(() -> {
+                    hotKeyRecorder.replaying(invocation::invoke);
+                    return null;
+                });
+            }
+        }
+
+        long started = System.currentTimeMillis();
+        int completed = 0;
+        int failed = 0;
+        int cancelled = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                Thread.ofVirtual().name("cache-warmup-", 0).factory());
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks, timeBudget.toMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    future.get();
+                    completed++;
+                } catch (CancellationException e) {
+                    cancelled++;
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.debug("Warmup invocation failed: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Cache warmup replayed {} of {} keys in {} ms ({} failed, {} cut by the {} budget)",
+                completed, keys.size(), System.currentTimeMillis() - started, failed, cancelled, timeBudget);
+    }
+
+    // Private helper methods
+
+    private Invocation resolve(WarmupKey key) {
+        try {
+            String operation = key.getOperation();
+            String className = operation.substring(0, operation.indexOf('#'));
+            String methodName = operation.substring(operation.indexOf('#') + 1, operation.lastIndexOf('/'));
+            int arity = Integer.parseInt(operation.substring(operation.lastIndexOf('/') + 1));
+
+            Class<?> type = Class.forName(className);
+            Method method = Arrays.stream(type.getMethods())
+                    .filter(m -> m.getName().equals(methodName) && m.getParameterCount() == arity)
+                    .filter(m -> AnnotationUtils.findAnnotation(m, Warmable.class) != null)
+                    .findFirst()
+                    .orElse(null);
+            if (method == null) {
+                log.debug("Warmup operation no longer exists: {}", operation);
+                return null;
+            }
+
+            JsonNode arguments = objectMapper.readTree(key.getArguments());
+            Type[] parameterTypes = method.getGenericParameterTypes();
+            Object[] values = new Object[arity];
+            for (int i = 0; i < arity; i++) {
+                values[i] = objectMapper.convertValue(arguments.get(i),
+                        objectMapper.getTypeFactory().constructType(parameterTypes[i]));
+            }
+            return new Invocation(applicationContext.getBean(type), method, values);
+        } catch (Exception e) {
+            log.debug("Skipping unreadable warmup key {}: {}", key.getOperation(), e.getMessage());
+            return null;
+        }
+    }
+
+    private record Invocation(Object bean, Method method, Object[] arguments) {
+
+        Object invoke() throws Exception {
+            try {
+                return method.invoke(bean, arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+    }
+}
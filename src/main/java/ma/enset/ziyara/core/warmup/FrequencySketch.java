@@ -0,0 +1,80 @@
+package ma.enset.ziyara.core.warmup;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch estimating how often a key was seen, in fixed memory.
+ * <p>
+ * Counters are halved once the number of additions reaches ten times the width, so the
+ * estimates favour recent popularity over all-time totals.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x97cb3127L, 0xb9b7c0f5L, 0x62a6c8d3L, 0x8e4cbb2dL
+    };
+
+    private final int width;
+    private final int mask;
+    private final long sampleSize;
+    private final AtomicLongArray table;
+    private final AtomicLong additions = new AtomicLong();
+
+    FrequencySketch(int expectedKeys) {
+        this.width = Integer.highestOneBit(Math.max(64, expectedKeys - 1) << 1);
+        this.mask = width - 1;
+        this.sampleSize = 10L * width;
+        this.table = new AtomicLongArray(DEPTH * width);
+    }
+
+    /**
+     * Count one occurrence of the key and return its new estimated frequency
+     */
+    long increment(String key) {
+        int hash = spread(key.hashCode());
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, table.incrementAndGet(index(hash, row)));
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            age();
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimated frequency of the key
+     */
+    long estimate(String key) {
+        int hash = spread(key.hashCode());
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, table.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    private synchronized void age() {
+        if (additions.get() < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, table.get(i) >>> 1);
+        }
+        additions.set(additions.get() >>> 1);
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * width + ((int) h & mask);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
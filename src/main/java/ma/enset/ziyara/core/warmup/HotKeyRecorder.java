@@ -0,0 +1,144 @@
+package ma.enset.ziyara.core.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records successful invocations of {@link Warmable} methods and keeps track of the most frequent ones.
+ * <p>
+ * Frequencies come from a {@link FrequencySketch}; only a bounded set of candidate keys is held
+ * verbatim, pruned back to the most frequent ones whenever it grows past four times the number of
+ * keys we persist. Runs outside the cache interceptor so cache hits are counted too.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class HotKeyRecorder {
+
+    private static final int MAX_ARGUMENTS_LENGTH = 2000;
+
+    private static final ThreadLocal<Boolean> REPLAYING = ThreadLocal.withInitial(() -> false);
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.top-keys:200}")
+    private int topKeys;
+
+    private FrequencySketch sketch;
+    private final Map<String, HotKey> candidates = new ConcurrentHashMap<>();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        sketch = new FrequencySketch(topKeys * 64);
+    }
+
+    @Around("@annotation(ma.enset.ziyara.core.warmup.Warmable)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (enabled && !REPLAYING.get()) {
+            try {
+                Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+                record(operationOf(method), objectMapper.writeValueAsString(joinPoint.getArgs()));
+            } catch (JsonProcessingException e) {
+                log.debug("Skipping hot key for {}: {}", joinPoint.getSignature(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Most frequent recorded invocations, most frequent first
+     */
+    public List<HotKey> topKeys() {
+        return candidates.values().stream()
+                .map(key -> key.withHits(sketch.estimate(key.id())))
+                .sorted(Comparator.comparingLong(HotKey::hits).reversed())
+                .limit(topKeys)
+                .toList();
+    }
+
+    /**
+     * Run an invocation without recording it, so replayed keys do not reinforce themselves
+     */
+    public <T> T replaying(ThrowingSupplier<T> invocation) throws Exception {
+        REPLAYING.set(true);
+        try {
+            return invocation.get();
+        } finally {
+            REPLAYING.remove();
+        }
+    }
+
+    static String operationOf(Method method) {
+        return method.getDeclaringClass().getName() + "#" + method.getName() + "/" + method.getParameterCount();
+    }
+
+    // Private helper methods
+
+    private void record(String operation, String arguments) {
+        if (arguments.length() > MAX_ARGUMENTS_LENGTH) {
+            return;
+        }
+        HotKey key = new HotKey(operation, arguments, 0);
+        sketch.increment(key.id());
+        candidates.putIfAbsent(key.id(), key);
+        if (candidates.size() > topKeys * 4 && pruneLock.tryLock()) {
+            try {
+                prune();
+            } finally {
+                pruneLock.unlock();
+            }
+        }
+    }
+
+    private void prune() {
+        List<String> coldest = candidates.keySet().stream()
+                .sorted(Comparator.comparingLong(sketch::estimate))
+                .limit(Math.max(0, candidates.size() - topKeys * 2L))
+                .toList();
+        coldest.forEach(candidates::remove);
+    }
+
+    /**
+     * A recorded invocation and its estimated frequency
+     */
+    public record HotKey(String operation, String arguments, long hits) {
+
+        String id() {
+            return operation + '\u0000' + arguments;
+        }
+
+        HotKey withHits(long hits) {
+            return new HotKey(operation, arguments, hits);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+}
@@ -0,0 +1,15 @@
+package ma.enset.ziyara.core.warmup;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read method whose most frequent invocations are recorded and replayed on startup
+ * to warm the caches behind it. Arguments must be JSON round-trippable.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Warmable {
+}
@@ -6,8 +6,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.cache.ResponseBodyCache;
 import ma.enset.ziyara.core.dto.ApiResult;
 import ma.enset.ziyara.core.dto.PageResponse;
+import ma.enset.ziyara.core.dto.ResourceVersion;
 import ma.enset.ziyara.destination.dto.DestinationCreateRequest;
 import ma.enset.ziyara.destination.dto.DestinationDto;
 import ma.enset.ziyara.destination.dto.DestinationSearchRequest;
@@ -18,10 +20,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -32,7 +36,13 @@ import java.util.List;
 @Tag(name = "Destination Management", description = "APIs for managing tourist destinations")
 public class DestinationController {
 
+    // Types only change with a deployment, so their validator is computed once
+    private static final ResourceVersion DESTINATION_TYPES_VERSION = ResourceVersion.builder("destination-types")
+            .add(Arrays.toString(DestinationType.values()))
+            .build();
+
     private final DestinationService destinationService;
+    private final ResponseBodyCache responseBodyCache;
 
     @PostMapping("/search")
     @Operation(summary = "Search destinations with advanced filters",
@@ -64,11 +74,18 @@ public class DestinationController {
             @RequestParam(defaultValue = "name") String sortBy,
 
             @Parameter(description = "Sort direction (asc/desc)")
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+
+            WebRequest webRequest) {
 
         log.info("Getting all destinations - page: {}, size: {}, sortBy: {}, sortDir: {}",
                 page, size, sortBy, sortDir);
 
+        ResourceVersion version = destinationService.getAllDestinationsVersion(page, size, sortBy, sortDir);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         PageResponse<DestinationDto> destinations = destinationService
                 .getAllDestinations(page, size, sortBy, sortDir);
 
@@ -83,10 +100,16 @@ public class DestinationController {
             description = "Get detailed information about a specific destination")
     public ResponseEntity<ApiResult<DestinationDto>> getDestinationById(
             @Parameter(description = "Destination ID")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+
+            WebRequest webRequest) {
 
         log.info("Getting destination by ID: {}", id);
+
         DestinationDto destination = destinationService.getDestinationById(id);
+        if (ResourceVersion.isNotModified(destinationService.getServedVersion(destination), webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
 
         return ResponseEntity.ok(ApiResult.success(
                 destination,
@@ -102,11 +125,18 @@ public class DestinationController {
             @PathVariable Long cityId,
 
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+
+            WebRequest webRequest) {
 
         log.info("Getting destinations by city: {}", cityId);
+
         PageResponse<DestinationDto> destinations = destinationService
                 .getDestinationsByCity(cityId, page, size);
+        ResourceVersion version = destinationService.getServedVersion("destinations-by-city", destinations);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
 
         return ResponseEntity.ok(ApiResult.success(
                 destinations,
@@ -122,9 +152,17 @@ public class DestinationController {
             @PathVariable DestinationType type,
 
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+
+            WebRequest webRequest) {
 
         log.info("Getting destinations by type: {}", type);
+
+        ResourceVersion version = destinationService.getDestinationsByTypeVersion(type, page, size);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         PageResponse<DestinationDto> destinations = destinationService
                 .getDestinationsByType(type, page, size);
 
@@ -139,10 +177,17 @@ public class DestinationController {
             description = "Get the most popular destinations based on ratings and reviews")
     public ResponseEntity<ApiResult<List<DestinationDto>>> getPopularDestinations(
             @Parameter(description = "Maximum number of destinations to return")
-            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit,
+
+            WebRequest webRequest) {
 
         log.info("Getting popular destinations, limit: {}", limit);
+
         List<DestinationDto> destinations = destinationService.getPopularDestinations(limit);
+        ResourceVersion version = destinationService.getServedVersion("popular", destinations);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
 
         return ResponseEntity.ok(ApiResult.success(
                 destinations,
@@ -150,6 +195,58 @@ public class DestinationController {
         ));
     }
 
+    @GetMapping("/popular/city/{cityId}")
+    @Operation(summary = "Get popular destinations of a city",
+            description = "Get the most popular destinations of a specific city")
+    public ResponseEntity<ApiResult<List<DestinationDto>>> getPopularDestinationsByCity(
+            @Parameter(description = "City ID")
+            @PathVariable Long cityId,
+
+            @Parameter(description = "Maximum number of destinations to return")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit,
+
+            WebRequest webRequest) {
+
+        log.info("Getting popular destinations of city: {}, limit: {}", cityId, limit);
+
+        List<DestinationDto> destinations = destinationService.getPopularDestinationsByCity(cityId, limit);
+        ResourceVersion version = destinationService.getServedVersion("popular-by-city", destinations);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        return ResponseEntity.ok(ApiResult.success(
+                destinations,
+                "Retrieved " + destinations.size() + " popular destinations in this city"
+        ));
+    }
+
+    @GetMapping("/popular/type/{type}")
+    @Operation(summary = "Get popular destinations of a type",
+            description = "Get the most popular destinations of a specific type")
+    public ResponseEntity<ApiResult<List<DestinationDto>>> getPopularDestinationsByType(
+            @Parameter(description = "Destination type")
+            @PathVariable DestinationType type,
+
+            @Parameter(description = "Maximum number of destinations to return")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit,
+
+            WebRequest webRequest) {
+
+        log.info("Getting popular destinations of type: {}, limit: {}", type, limit);
+
+        List<DestinationDto> destinations = destinationService.getPopularDestinationsByType(type, limit);
+        ResourceVersion version = destinationService.getServedVersion("popular-by-type", destinations);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        return ResponseEntity.ok(ApiResult.success(
+                destinations,
+                "Retrieved " + destinations.size() + " popular " + type + " destinations"
+        ));
+    }
+
     @GetMapping("/nearby")
     @Operation(summary = "Get nearby destinations",
             description = "Get destinations near a specific location using GPS coordinates")
@@ -232,13 +329,12 @@ public class DestinationController {
     @GetMapping("/types")
     @Operation(summary = "Get all destination types",
             description = "Get list of all available destination types")
-    public ResponseEntity<ApiResult<List<DestinationType>>> getDestinationTypes() {
+    public ResponseEntity<byte[]> getDestinationTypes(WebRequest webRequest) {
 
         log.info("Getting all destination types");
-        List<DestinationType> types = destinationService.getDestinationTypes();
 
-        return ResponseEntity.ok(ApiResult.success(
-                types,
+        return responseBodyCache.respond(DESTINATION_TYPES_VERSION, webRequest, () -> ApiResult.success(
+                destinationService.getDestinationTypes(),
                 "Destination types retrieved successfully"
         ));
     }
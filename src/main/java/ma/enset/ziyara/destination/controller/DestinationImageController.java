@@ -6,16 +6,26 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.enset.ziyara.core.dto.ApiResult;
+import ma.enset.ziyara.core.dto.ResourceVersion;
 import ma.enset.ziyara.core.exception.ResourceNotFoundException;
-import ma.enset.ziyara.core.service.FileUploadService;
+import ma.enset.ziyara.destination.dto.DestinationImageDto;
+import ma.enset.ziyara.destination.dto.ImageRemoval;
 import ma.enset.ziyara.destination.entity.Destination;
 import ma.enset.ziyara.destination.entity.DestinationImage;
+import ma.enset.ziyara.destination.event.DestinationChangedEvent;
+import ma.enset.ziyara.destination.mapper.DestinationMapper;
 import ma.enset.ziyara.destination.repository.DestinationRepository;
+import ma.enset.ziyara.destination.service.DestinationImageService;
+import ma.enset.ziyara.destination.service.DestinationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,13 +37,15 @@ import java.util.Set;
 @Tag(name = "Destination Images", description = "APIs for managing destination images")
 public class DestinationImageController {
 
-    private final FileUploadService fileUploadService;
+    private final DestinationImageService destinationImageService;
     private final DestinationRepository destinationRepository;
+    private final DestinationService destinationService;
+    private final DestinationMapper destinationMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PostMapping("/upload")
     @Operation(summary = "Upload images for a destination",
             description = "Upload one or more images for a specific destination")
-    @Transactional
     public ResponseEntity<ApiResult<List<Map<String, String>>>> uploadDestinationImages(
             @Parameter(description = "Destination ID")
             @PathVariable Long destinationId,
@@ -43,41 +55,18 @@ public class DestinationImageController {
 
         log.info("Uploading {} images for destination: {}", files.size(), destinationId);
 
-        // Verify destination exists
-        Destination destination = destinationRepository.findById(destinationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + destinationId));
-
-        // Upload files to destinations category
-        List<String> fileUrls = fileUploadService.uploadFiles(files, "destinations");
-
-        // Create DestinationImage entities
-        int currentMaxOrder = destination.getImages().stream()
-                .mapToInt(DestinationImage::getDisplayOrder)
-                .max().orElse(-1);
-
-        for (int i = 0; i < fileUrls.size(); i++) {
-            DestinationImage image = DestinationImage.builder()
-                    .imageUrl(fileUrls.get(i))
-                    .displayOrder(currentMaxOrder + i + 1)
-                    .destination(destination)
-                    .build();
-
-            destination.getImages().add(image);
-        }
-
-        destinationRepository.save(destination);
+        List<DestinationImage> images = destinationImageService.addImages(destinationId, files);
 
         // Prepare response
-        List<Map<String, String>> response = files.stream()
-                .map(file -> {
-                    int index = files.indexOf(file);
-                    return Map.of(
-                            "fileName", file.getOriginalFilename(),
-                            "fileUrl", fileUrls.get(index),
-                            "displayOrder", String.valueOf(currentMaxOrder + index + 1)
-                    );
-                })
-                .toList();
+        List<Map<String, String>> response = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            DestinationImage image = images.get(i);
+            response.add(Map.of(
+                    "fileName", files.get(i).getOriginalFilename(),
+                    "fileUrl", image.getImageUrl(),
+                    "displayOrder", String.valueOf(image.getDisplayOrder())
+            ));
+        }
 
         return ResponseEntity.ok(ApiResult.success(
                 response,
@@ -88,7 +77,6 @@ public class DestinationImageController {
     @PostMapping("/upload/single")
     @Operation(summary = "Upload single image for destination",
             description = "Upload a single image for a specific destination")
-    @Transactional
     public ResponseEntity<ApiResult<Map<String, String>>> uploadSingleDestinationImage(
             @Parameter(description = "Destination ID")
             @PathVariable Long destinationId,
@@ -101,33 +89,13 @@ public class DestinationImageController {
 
         log.info("Uploading single image for destination: {}", destinationId);
 
-        // Verify destination exists
-        Destination destination = destinationRepository.findById(destinationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + destinationId));
-
-        // Upload file
-        String fileUrl = fileUploadService.uploadFile(file, "destinations");
-
-        // Create DestinationImage entity
-        int displayOrder = destination.getImages().stream()
-                .mapToInt(DestinationImage::getDisplayOrder)
-                .max().orElse(-1) + 1;
-
-        DestinationImage image = DestinationImage.builder()
-                .imageUrl(fileUrl)
-                .caption(caption)
-                .displayOrder(displayOrder)
-                .destination(destination)
-                .build();
-
-        destination.getImages().add(image);
-        destinationRepository.save(destination);
+        DestinationImage image = destinationImageService.addImage(destinationId, file, caption);
 
         Map<String, String> response = Map.of(
                 "fileName", file.getOriginalFilename(),
-                "fileUrl", fileUrl,
+                "fileUrl", image.getImageUrl(),
                 "caption", caption != null ? caption : "",
-                "displayOrder", String.valueOf(displayOrder)
+                "displayOrder", String.valueOf(image.getDisplayOrder())
         );
 
         return ResponseEntity.ok(ApiResult.success(
@@ -139,7 +107,6 @@ public class DestinationImageController {
     @DeleteMapping("/{imageId}")
     @Operation(summary = "Delete destination image",
             description = "Delete a specific image from a destination")
-    @Transactional
     public ResponseEntity<ApiResult<Map<String, Object>>> deleteDestinationImage(
             @Parameter(description = "Destination ID")
             @PathVariable Long destinationId,
@@ -149,27 +116,13 @@ public class DestinationImageController {
 
         log.info("Deleting image {} from destination: {}", imageId, destinationId);
 
-        // Verify destination exists
-        Destination destination = destinationRepository.findById(destinationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + destinationId));
-
-        // Find and remove the image
-        DestinationImage imageToDelete = destination.getImages().stream()
-                .filter(img -> img.getId().equals(imageId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + imageId));
-
-        // Delete file from storage
-        boolean fileDeleted = fileUploadService.deleteFile(imageToDelete.getImageUrl());
-
-        // Remove from destination
-        destination.getImages().remove(imageToDelete);
-        destinationRepository.save(destination);
+        // A content-addressed file other images still use is kept, and so are its variants
+        ImageRemoval removal = destinationImageService.removeImage(destinationId, imageId);
 
         Map<String, Object> response = Map.of(
-                "imageId", imageId,
-                "fileUrl", imageToDelete.getImageUrl(),
-                "fileDeleted", fileDeleted,
+                "imageId", removal.imageId(),
+                "fileUrl", removal.fileUrl(),
+                "fileDeleted", removal.fileDeleted(),
                 "removedFromDestination", true
         );
 
@@ -196,7 +149,7 @@ public class DestinationImageController {
         log.info("Reordering image {} in destination {} to order: {}", imageId, destinationId, newOrder);
 
         // Verify destination exists
-        Destination destination = destinationRepository.findById(destinationId)
+        Destination destination = destinationRepository.findByIdForUpdate(destinationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + destinationId));
 
         // Find the image
@@ -208,6 +161,7 @@ public class DestinationImageController {
         // Update display order
         imageToReorder.setDisplayOrder(newOrder);
         destinationRepository.save(destination);
+        eventPublisher.publishEvent(new DestinationChangedEvent(destinationId, destination.getCity().getId(), false));
 
         Map<String, Object> response = Map.of(
                 "imageId", imageId,
@@ -238,7 +192,7 @@ public class DestinationImageController {
         log.info("Updating caption for image {} in destination {}", imageId, destinationId);
 
         // Verify destination exists
-        Destination destination = destinationRepository.findById(destinationId)
+        Destination destination = destinationRepository.findByIdForUpdate(destinationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + destinationId));
 
         // Find the image
@@ -251,6 +205,7 @@ public class DestinationImageController {
         String oldCaption = imageToUpdate.getCaption();
         imageToUpdate.setCaption(caption);
         destinationRepository.save(destination);
+        eventPublisher.publishEvent(new DestinationChangedEvent(destinationId, destination.getCity().getId(), false));
 
         Map<String, String> response = Map.of(
                 "imageId", String.valueOf(imageId),
@@ -267,27 +222,26 @@ public class DestinationImageController {
     @GetMapping
     @Operation(summary = "Get all destination images",
             description = "Get all images for a specific destination")
-    public ResponseEntity<ApiResult<List<Map<String, Object>>>> getDestinationImages(
+    @Transactional(readOnly = true)
+    public ResponseEntity<ApiResult<List<DestinationImageDto>>> getDestinationImages(
             @Parameter(description = "Destination ID")
-            @PathVariable Long destinationId) {
+            @PathVariable Long destinationId,
+
+            WebRequest webRequest) {
 
         log.info("Getting images for destination: {}", destinationId);
 
+        ResourceVersion version = destinationService.getDestinationImagesVersion(destinationId);
+        if (ResourceVersion.isNotModified(version, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         // Verify destination exists
         Destination destination = destinationRepository.findById(destinationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + destinationId));
 
-        // Get images sorted by display order
-        List<Map<String, Object>> images = destination.getImages().stream()
-                .sorted((a, b) -> Integer.compare(a.getDisplayOrder(), b.getDisplayOrder()))
-                .map(img -> Map.of(
-                        "id", (Object) img.getId(),
-                        "imageUrl", (Object) img.getImageUrl(),
-                        "caption", (Object) (img.getCaption() != null ? img.getCaption() : ""),
-                        "displayOrder", (Object) img.getDisplayOrder(),
-                        "createdAt", (Object) img.getCreatedAt()
-                ))
-                .toList();
+        // Get images sorted by display order, with their size and placeholder for layout
+        List<DestinationImageDto> images = destinationMapper.mapImagesToDtos(destination.getImages());
 
         return ResponseEntity.ok(ApiResult.success(
                 images,
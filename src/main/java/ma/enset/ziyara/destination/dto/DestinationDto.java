@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import ma.enset.ziyara.city.dto.CityDto;
 import ma.enset.ziyara.destination.entity.DestinationType;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,7 +16,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class DestinationDto {
+public class DestinationDto implements Serializable {
 
     private Long id;
     private String name;
@@ -33,6 +34,7 @@ public class DestinationDto {
     private Double averageRating;
     private Long reviewCount;
     private List<String> imageUrls;
+    private List<DestinationImageDto> images;
     private List<String> tags;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,33 @@
+package ma.enset.ziyara.destination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A destination image with what a client needs to lay it out before it loads: its size, a BlurHash
+ * placeholder and the URLs of its downscaled variants. Size and placeholder are {@code null} for images
+ * not uploaded to this server, and the placeholder until the variants have been generated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DestinationImageDto implements Serializable {
+
+    private Long id;
+    private String imageUrl;
+    private String caption;
+    private Integer displayOrder;
+    private Integer width;
+    private Integer height;
+    private String format;
+    private String placeholder;
+    private Map<String, String> variants;
+    private LocalDateTime createdAt;
+}
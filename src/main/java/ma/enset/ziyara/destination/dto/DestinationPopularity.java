@@ -0,0 +1,17 @@
+package ma.enset.ziyara.destination.dto;
+
+import ma.enset.ziyara.destination.entity.DestinationType;
+
+/**
+ * Minimal projection of a destination used to rank popular destinations in memory
+ */
+public record DestinationPopularity(
+        Long id,
+        Long cityId,
+        DestinationType type,
+        String name,
+        Boolean active,
+        Double averageRating,
+        Long reviewCount
+) {
+}
@@ -0,0 +1,23 @@
+package ma.enset.ziyara.destination.dto;
+
+import ma.enset.ziyara.core.dto.ResourceVersion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version columns of a destination and of the city embedded in its {@link DestinationDto}.
+ * <p>
+ * Image and tag changes go through the destination's collections and bump its version; rating flushes
+ * only touch {@code updatedAt}, so both are part of the fingerprint.
+ */
+public record DestinationVersion(Long id, Long version, LocalDateTime updatedAt,
+                                 Long cityId, Long cityVersion, LocalDateTime cityUpdatedAt,
+                                 Long cityDestinationCount) {
+
+    public void addTo(ResourceVersion.Builder builder) {
+        builder.add(id).add(version).add(updatedAt)
+                .add(cityId).add(cityVersion).add(cityDestinationCount)
+                .modifiedAt(updatedAt)
+                .modifiedAt(cityUpdatedAt);
+    }
+}
@@ -0,0 +1,11 @@
+package ma.enset.ziyara.destination.dto;
+
+/**
+ * Outcome of removing a destination image; the file stays when other images still use it
+ */
+public record ImageRemoval(
+        Long imageId,
+        String fileUrl,
+        boolean fileDeleted
+) {
+}
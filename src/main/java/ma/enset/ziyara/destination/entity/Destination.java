@@ -4,14 +4,24 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import ma.enset.ziyara.city.entity.City;
+import ma.enset.ziyara.core.config.HibernateCacheConfig;
 import ma.enset.ziyara.core.entity.BaseEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "destinations")
+@Table(name = "destinations", indexes = {
+        @Index(name = "idx_destinations_city_id", columnList = "city_id"),
+        @Index(name = "idx_destinations_popularity",
+                columnList = "active, average_rating DESC, review_count DESC, name")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.DESTINATION_REGION)
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -31,6 +41,8 @@ public class Destination extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "city_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private City city;
 
     @Column(precision = 10, scale = 2)
@@ -53,19 +65,32 @@ public class Destination extends BaseEntity {
     @Builder.Default
     private Boolean active = true;
 
-    @Column(name = "average_rating")
+    // Maintained by RatingAggregationService, never written back by JPA updates
+    @Column(name = "average_rating", updatable = false)
     @Builder.Default
     private Double averageRating = 0.0;
 
-    @Column(name = "review_count")
+    @Column(name = "review_count", updatable = false)
     @Builder.Default
     private Long reviewCount = 0L;
 
+    // Bumped by every rebuild of the aggregates; pending deltas only apply to the epoch they were recorded in
+    @Column(name = "rating_epoch", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long ratingEpoch = 0L;
+
     @OneToMany(mappedBy = "destination", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.DESTINATION_IMAGES_REGION)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Builder.Default
     private Set<DestinationImage> images = new HashSet<>();
 
     @OneToMany(mappedBy = "destination", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.DESTINATION_TAGS_REGION)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Builder.Default
     private Set<DestinationTag> tags = new HashSet<>();
 }
\ No newline at end of file
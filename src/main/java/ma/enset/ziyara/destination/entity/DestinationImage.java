@@ -3,10 +3,17 @@ package ma.enset.ziyara.destination.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import ma.enset.ziyara.core.config.HibernateCacheConfig;
 import ma.enset.ziyara.core.entity.BaseEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "destination_images")
+@Table(name = "destination_images", indexes = {
+        @Index(name = "idx_destination_images_variant_status", columnList = "variant_status, updated_at")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.DESTINATION_IMAGE_REGION)
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -24,7 +31,32 @@ public class DestinationImage extends BaseEntity {
     @Builder.Default
     private Integer displayOrder = 0;
 
+    /** Progress of the resized copies; {@code null} for images not uploaded to this server */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variant_status", length = 20)
+    private ImageVariantStatus variantStatus;
+
+    /** Keys of the variants stored next to the file, e.g. "thumb,medium" */
+    @Column(name = "variants", length = 100)
+    private String variants;
+
+    /** Pixel size and format read at upload, so clients can lay out images before loading them */
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "format", length = 10)
+    private String format;
+
+    /** BlurHash of the image, painted by clients while it loads */
+    @Column(name = "placeholder", length = 40)
+    private String placeholder;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "destination_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Destination destination;
 }
@@ -3,10 +3,15 @@ package ma.enset.ziyara.destination.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import ma.enset.ziyara.core.config.HibernateCacheConfig;
 import ma.enset.ziyara.core.entity.BaseEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "destination_tags")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.DESTINATION_TAG_REGION)
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -19,5 +24,7 @@ public class DestinationTag extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "destination_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Destination destination;
 }
\ No newline at end of file
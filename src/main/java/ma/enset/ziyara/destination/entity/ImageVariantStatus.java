@@ -0,0 +1,7 @@
+package ma.enset.ziyara.destination.entity;
+
+public enum ImageVariantStatus {
+    PENDING,
+    READY,
+    FAILED
+}
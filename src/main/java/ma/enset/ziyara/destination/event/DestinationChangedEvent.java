@@ -0,0 +1,7 @@
+package ma.enset.ziyara.destination.event;
+
+/**
+ * Published by DestinationService whenever a destination is created, updated or deleted
+ */
+public record DestinationChangedEvent(Long destinationId, Long cityId, boolean deleted) {
+}
@@ -2,13 +2,16 @@ package ma.enset.ziyara.destination.mapper;
 
 import ma.enset.ziyara.destination.dto.DestinationCreateRequest;
 import ma.enset.ziyara.destination.dto.DestinationDto;
+import ma.enset.ziyara.destination.dto.DestinationImageDto;
 import ma.enset.ziyara.destination.dto.DestinationUpdateRequest;
 import ma.enset.ziyara.destination.entity.Destination;
 import ma.enset.ziyara.destination.entity.DestinationImage;
 import ma.enset.ziyara.destination.entity.DestinationTag;
+import ma.enset.ziyara.destination.service.DestinationImageVariantService;
 import ma.enset.ziyara.city.mapper.CityMapper;
 import org.mapstruct.*;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -23,6 +26,7 @@ public interface DestinationMapper {
 
     @Mapping(target = "cityDto", source = "city")
     @Mapping(target = "imageUrls", source = "images", qualifiedByName = "mapImagesToUrls")
+    @Mapping(target = "images", source = "images", qualifiedByName = "mapImagesToDtos")
     @Mapping(target = "tags", source = "tags", qualifiedByName = "mapTagsToStrings")
     DestinationDto toDto(Destination destination);
 
@@ -32,6 +36,7 @@ public interface DestinationMapper {
     @Mapping(target = "tags", ignore = true)
     @Mapping(target = "averageRating", constant = "0.0")
     @Mapping(target = "reviewCount", constant = "0L")
+    @Mapping(target = "ratingEpoch", constant = "0L")
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "version", ignore = true)
@@ -43,6 +48,7 @@ public interface DestinationMapper {
     @Mapping(target = "tags", ignore = true)
     @Mapping(target = "averageRating", ignore = true)
     @Mapping(target = "reviewCount", ignore = true)
+    @Mapping(target = "ratingEpoch", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "version", ignore = true)
@@ -59,6 +65,33 @@ public interface DestinationMapper {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Images in display order
+     */
+    @Named("mapImagesToDtos")
+    default List<DestinationImageDto> mapImagesToDtos(Set<DestinationImage> images) {
+        if (images == null) return List.of();
+        return images.stream()
+                .sorted(Comparator.comparing(DestinationImage::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(this::toImageDto)
+                .collect(Collectors.toList());
+    }
+
+    default DestinationImageDto toImageDto(DestinationImage image) {
+        return DestinationImageDto.builder()
+                .id(image.getId())
+                .imageUrl(image.getImageUrl())
+                .caption(image.getCaption())
+                .displayOrder(image.getDisplayOrder())
+                .width(image.getWidth())
+                .height(image.getHeight())
+                .format(image.getFormat())
+                .placeholder(image.getPlaceholder())
+                .variants(DestinationImageVariantService.variantUrls(image))
+                .createdAt(image.getCreatedAt())
+                .build();
+    }
+
     @Named("mapTagsToStrings")
     default List<String> mapTagsToStrings(Set<DestinationTag> tags) {
         if (tags == null) return List.of();
@@ -0,0 +1,51 @@
+package ma.enset.ziyara.destination.repository;
+
+import ma.enset.ziyara.core.upload.FileReferenceSource;
+import ma.enset.ziyara.destination.entity.DestinationImage;
+import ma.enset.ziyara.destination.entity.ImageVariantStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface DestinationImageRepository extends JpaRepository<DestinationImage, Long>, FileReferenceSource {
+
+    List<DestinationImage> findByImageUrl(String imageUrl);
+
+    @Query("SELECT i.id FROM DestinationImage i WHERE i.destination.id IN :destinationIds")
+    List<Long> findIdsByDestinationIdIn(@Param("destinationIds") Collection<Long> destinationIds);
+
+    Optional<DestinationImage> findFirstByImageUrlAndVariantStatus(String imageUrl, ImageVariantStatus variantStatus);
+
+    /**
+     * File URLs of images whose variants have been waiting since before {@code before}
+     */
+    @Query("""
+        SELECT i.imageUrl FROM DestinationImage i
+        WHERE i.variantStatus = :status AND i.updatedAt < :before
+        ORDER BY i.updatedAt
+        """)
+    List<String> findImageUrlsByVariantStatus(@Param("status") ImageVariantStatus status,
+                                              @Param("before") LocalDateTime before,
+                                              Pageable pageable);
+
+    /**
+     * Those of the given image URLs some destination image uses
+     */
+    @Query("SELECT DISTINCT i.imageUrl FROM DestinationImage i WHERE i.imageUrl IN :imageUrls")
+    List<String> findImageUrlsIn(@Param("imageUrls") Collection<String> imageUrls);
+
+    @Override
+    default Set<String> findReferenced(Collection<String> fileUrls) {
+        return new HashSet<>(findImageUrlsIn(fileUrls));
+    }
+}
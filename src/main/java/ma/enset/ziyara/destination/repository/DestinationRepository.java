@@ -1,20 +1,67 @@
 package ma.enset.ziyara.destination.repository;
 
+import jakarta.persistence.LockModeType;
+import ma.enset.ziyara.core.dto.EntityVersion;
+import ma.enset.ziyara.destination.dto.DestinationPopularity;
+import ma.enset.ziyara.destination.dto.DestinationVersion;
 import ma.enset.ziyara.destination.entity.Destination;
 import ma.enset.ziyara.destination.entity.DestinationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DestinationRepository extends JpaRepository<Destination, Long>, JpaSpecificationExecutor<Destination> {
 
+    String VERSION_SELECT = """
+        SELECT new ma.enset.ziyara.destination.dto.DestinationVersion(
+            d.id, d.version, d.updatedAt, c.id, c.version, c.updatedAt,
+            (SELECT COUNT(o) FROM Destination o WHERE o.city = c))
+        FROM Destination d JOIN d.city c
+        """;
+
+    /**
+     * Find destination for a change made through one of its children, bumping its version so
+     * conditional GETs see the change
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT d FROM Destination d WHERE d.id = :id")
+    Optional<Destination> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Version columns of the page {@link #findByTypeOrderByName} would return
+     */
+    @Query(value = VERSION_SELECT + "WHERE d.type = :type ORDER BY d.name",
+            countQuery = "SELECT COUNT(d) FROM Destination d WHERE d.type = :type")
+    Page<DestinationVersion> findVersionsByType(@Param("type") DestinationType type, Pageable pageable);
+
+    /**
+     * Version columns of the page {@link #findByActiveTrue} would return
+     */
+    @Query(value = VERSION_SELECT + "WHERE d.active = true",
+            countQuery = "SELECT COUNT(d) FROM Destination d WHERE d.active = true")
+    Page<DestinationVersion> findActiveVersions(Pageable pageable);
+
+    /**
+     * Version columns of a destination's images
+     */
+    @Query("""
+        SELECT new ma.enset.ziyara.core.dto.EntityVersion(i.id, i.version, i.updatedAt)
+        FROM DestinationImage i
+        WHERE i.destination.id = :destinationId
+        ORDER BY i.displayOrder, i.id
+        """)
+    List<EntityVersion> findImageVersions(@Param("destinationId") Long destinationId);
+
     /**
      * Find destinations by city with pagination
      */
@@ -36,14 +83,33 @@ public interface DestinationRepository extends JpaRepository<Destination, Long>,
     Page<Destination> findByActiveTrue(Pageable pageable);
 
     /**
-     * Find popular destinations (by rating and review count)
+     * Load the head of the popularity ranking (used to seed the in-memory ranking)
      */
     @Query("""
-        SELECT d FROM Destination d 
-        WHERE d.active = true 
-        ORDER BY d.averageRating DESC, d.reviewCount DESC, d.name ASC
+        SELECT new ma.enset.ziyara.destination.dto.DestinationPopularity(
+            d.id, d.city.id, d.type, d.name, d.active, d.averageRating, d.reviewCount)
+        FROM Destination d
+        WHERE d.active = true
+        AND (:cityId IS NULL OR d.city.id = :cityId)
+        AND (:type IS NULL OR d.type = :type)
+        ORDER BY d.averageRating DESC, d.reviewCount DESC, d.name ASC, d.id ASC
+        """)
+    List<DestinationPopularity> findPopularityRanking(
+            @Param("cityId") Long cityId,
+            @Param("type") DestinationType type,
+            Pageable pageable
+    );
+
+    /**
+     * Load the ranking attributes of specific destinations
+     */
+    @Query("""
+        SELECT new ma.enset.ziyara.destination.dto.DestinationPopularity(
+            d.id, d.city.id, d.type, d.name, d.active, d.averageRating, d.reviewCount)
+        FROM Destination d
+        WHERE d.id IN :ids
         """)
-    List<Destination> findPopularDestinations(Pageable pageable);
+    List<DestinationPopularity> findPopularityByIdIn(@Param("ids") Collection<Long> ids);
 
     /**
      * Find nearby destinations using Haversine formula
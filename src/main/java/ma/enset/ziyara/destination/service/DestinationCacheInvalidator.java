@@ -0,0 +1,88 @@
+package ma.enset.ziyara.destination.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.enset.ziyara.core.cache.CacheTag;
+import ma.enset.ziyara.core.cache.TwoLevelCacheManager;
+import ma.enset.ziyara.destination.entity.Destination;
+import ma.enset.ziyara.destination.entity.DestinationImage;
+import ma.enset.ziyara.destination.event.DestinationChangedEvent;
+import ma.enset.ziyara.destination.repository.DestinationImageRepository;
+import ma.enset.ziyara.review.event.RatingsFlushedEvent;
+import org.hibernate.Cache;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts the cached entries showing the changed destination, once the write has committed.
+ * <p>
+ * The city tag covers that city's destination pages and popular list, which a new or deleted
+ * destination changes, and the city lists whose destination count changes; every list is also tagged
+ * with the destinations it contains. Rating flushes write the destinations table directly and evict
+ * the destination tags, plus the popular lists tag once for the whole flush, as a new rating can move
+ * any destination into them; each node's {@link PopularDestinationRanking} follows the same evictions.
+ * <p>
+ * The Hibernate second-level cache is per node and only sees the writes made through it on that node,
+ * so every destination tag eviction, local or received from another node, also drops the destination,
+ * its image and tag collections and its images from it. The image ids of a whole eviction batch, such
+ * as all the destinations of a rating flush, are looked up in one query.
+ */
+@Component
+public class DestinationCacheInvalidator {
+
+    private static final String IMAGES_ROLE = Destination.class.getName() + ".images";
+    private static final String TAGS_ROLE = Destination.class.getName() + ".tags";
+
+    private final TwoLevelCacheManager cacheManager;
+    private final DestinationImageRepository imageRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public DestinationCacheInvalidator(TwoLevelCacheManager cacheManager, DestinationImageRepository imageRepository,
+                                       EntityManagerFactory entityManagerFactory) {
+        this.cacheManager = cacheManager;
+        this.imageRepository = imageRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        cacheManager.addTagEvictionListener(this::onTagsEvicted);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDestinationChanged(DestinationChangedEvent event) {
+        cacheManager.evictTags(List.of(CacheTag.destination(event.destinationId()), CacheTag.city(event.cityId()),
+                CacheTag.POPULAR_DESTINATIONS));
+    }
+
+    @EventListener
+    public void onRatingsFlushed(RatingsFlushedEvent event) {
+        List<String> tags = new ArrayList<>();
+        event.destinationIds().forEach(id -> tags.add(CacheTag.destination(id)));
+        tags.add(CacheTag.POPULAR_DESTINATIONS);
+        cacheManager.evictTags(tags);
+    }
+
+    // Private helper methods
+
+    private void onTagsEvicted(Collection<String> tags) {
+        List<Long> destinationIds = new ArrayList<>();
+        for (String tag : tags) {
+            Long destinationId = CacheTag.destinationId(tag);
+            if (destinationId != null) {
+                destinationIds.add(destinationId);
+            }
+        }
+        if (destinationIds.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        for (Long destinationId : destinationIds) {
+            cache.evictEntityData(Destination.class, destinationId);
+            cache.evictCollectionData(IMAGES_ROLE, destinationId);
+            cache.evictCollectionData(TAGS_ROLE, destinationId);
+        }
+        imageRepository.findIdsByDestinationIdIn(destinationIds)
+                .forEach(imageId -> cache.evictEntityData(DestinationImage.class, imageId));
+    }
+}
@@ -0,0 +1,160 @@
+package ma.enset.ziyara.destination.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.exception.ResourceNotFoundException;
+import ma.enset.ziyara.core.service.FileUploadService;
+import ma.enset.ziyara.core.upload.FileDeletionOutbox;
+import ma.enset.ziyara.core.upload.ImageMetadata;
+import ma.enset.ziyara.destination.dto.ImageRemoval;
+import ma.enset.ziyara.destination.entity.Destination;
+import ma.enset.ziyara.destination.entity.DestinationImage;
+import ma.enset.ziyara.destination.event.DestinationChangedEvent;
+import ma.enset.ziyara.destination.repository.DestinationRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds and removes destination images, keeping file I/O out of database transactions.
+ * <p>
+ * Files are stored before the transaction starts and deleted after it commits, so a connection is only
+ * held for the few statements that record the change. An upload whose transaction fails deletes the
+ * files it stored; a removal goes through the {@link FileDeletionOutbox}, so the file outlives a
+ * rollback and its deletion survives a crash.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DestinationImageService {
+
+    private static final String CATEGORY = "destinations";
+
+    private final DestinationRepository destinationRepository;
+    private final FileUploadService fileUploadService;
+    private final FileDeletionOutbox fileDeletionOutbox;
+    private final DestinationImageVariantService variantService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Store the files and append them to the destination's images, in upload order
+     */
+    public List<DestinationImage> addImages(Long destinationId, List<MultipartFile> files) {
+        // Checked up front so an unknown id never costs an upload
+        requireDestination(destinationId);
+        List<String> fileUrls = fileUploadService.uploadFiles(files, CATEGORY);
+        return recordImages(destinationId, fileUrls, null);
+    }
+
+    /**
+     * Store the file and append it to the destination's images
+     */
+    public DestinationImage addImage(Long destinationId, MultipartFile file, String caption) {
+        requireDestination(destinationId);
+        String fileUrl = fileUploadService.uploadFile(file, CATEGORY);
+        return recordImages(destinationId, List.of(fileUrl), caption).get(0);
+    }
+
+    /**
+     * Remove an image; its file is deleted after commit unless other images still use it
+     */
+    public ImageRemoval removeImage(Long destinationId, Long imageId) {
+        PendingRemoval removal = transactionTemplate.execute(status -> {
+            Destination destination = findForUpdate(destinationId);
+
+            DestinationImage image = destination.getImages().stream()
+                    .filter(img -> img.getId().equals(imageId))
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + imageId));
+
+            destination.getImages().remove(image);
+            destinationRepository.save(destination);
+            Long deletionId = fileDeletionOutbox.enqueue(image.getImageUrl());
+            eventPublisher.publishEvent(new DestinationChangedEvent(destinationId, destination.getCity().getId(), false));
+            return new PendingRemoval(image.getImageUrl(), deletionId);
+        });
+
+        boolean fileDeleted = removal.deletionId() != null && fileDeletionOutbox.process(removal.deletionId());
+        return new ImageRemoval(imageId, removal.fileUrl(), fileDeleted);
+    }
+
+    // Private helper methods
+
+    private record PendingRemoval(String fileUrl, Long deletionId) {
+    }
+
+    private List<DestinationImage> recordImages(Long destinationId, List<String> fileUrls, String caption) {
+        try {
+            // Read from the files before the transaction, like every other file access
+            Map<String, ImageMetadata> metadata = readMetadata(fileUrls);
+            return transactionTemplate.execute(status -> {
+                Destination destination = findForUpdate(destinationId);
+
+                int currentMaxOrder = destination.getImages().stream()
+                        .mapToInt(DestinationImage::getDisplayOrder)
+                        .max().orElse(-1);
+
+                List<DestinationImage> images = new ArrayList<>();
+                for (int i = 0; i < fileUrls.size(); i++) {
+                    DestinationImage image = DestinationImage.builder()
+                            .imageUrl(fileUrls.get(i))
+                            .caption(caption)
+                            .displayOrder(currentMaxOrder + i + 1)
+                            .destination(destination)
+                            .build();
+
+                    ImageMetadata imageMetadata = metadata.get(fileUrls.get(i));
+                    if (imageMetadata != null) {
+                        image.setWidth(imageMetadata.width());
+                        image.setHeight(imageMetadata.height());
+                        image.setFormat(imageMetadata.format());
+                    }
+                    variantService.linkOrGenerate(image);
+                    destination.getImages().add(image);
+                    images.add(image);
+                }
+
+                destinationRepository.save(destination);
+                eventPublisher.publishEvent(new DestinationChangedEvent(destinationId, destination.getCity().getId(), false));
+                return images;
+            });
+        } catch (RuntimeException e) {
+            // Nothing refers to the files: give them back
+            log.warn("Recording {} images for destination {} failed, deleting their files", fileUrls.size(), destinationId);
+            fileUrls.forEach(fileUploadService::deleteFile);
+            throw e;
+        }
+    }
+
+    private Map<String, ImageMetadata> readMetadata(List<String> fileUrls) {
+        Map<String, ImageMetadata> metadata = new HashMap<>();
+        for (String fileUrl : fileUrls) {
+            try {
+                metadata.put(fileUrl, ImageMetadata.read(fileUploadService.resolveFilePath(fileUrl)));
+            } catch (IOException e) {
+                // The upload already checked the signature; an image is still usable without its size
+                log.warn("Could not read image metadata of {}: {}", fileUrl, e.getMessage());
+            }
+        }
+        return metadata;
+    }
+
+    private void requireDestination(Long destinationId) {
+        if (!destinationRepository.existsById(destinationId)) {
+            throw new ResourceNotFoundException("Destination not found with id: " + destinationId);
+        }
+    }
+
+    private Destination findForUpdate(Long destinationId) {
+        return destinationRepository.findByIdForUpdate(destinationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + destinationId));
+    }
+}
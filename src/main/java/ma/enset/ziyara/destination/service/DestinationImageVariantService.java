@@ -0,0 +1,109 @@
+package ma.enset.ziyara.destination.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.event.ImageVariantsGeneratedEvent;
+import ma.enset.ziyara.core.upload.ImageVariant;
+import ma.enset.ziyara.core.upload.ImageVariantPipeline;
+import ma.enset.ziyara.destination.entity.Destination;
+import ma.enset.ziyara.destination.entity.DestinationImage;
+import ma.enset.ziyara.destination.entity.ImageVariantStatus;
+import ma.enset.ziyara.destination.event.DestinationChangedEvent;
+import ma.enset.ziyara.destination.repository.DestinationImageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@link DestinationImage}s in step with the background variant pipeline: records what it
+ * generated, and resubmits images left pending by a full queue or a restart.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class DestinationImageVariantService {
+
+    private final DestinationImageRepository imageRepository;
+    private final ImageVariantPipeline variantPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.image-variants.resubmit-batch-size:100}")
+    private int resubmitBatchSize;
+
+    /**
+     * URL of every generated variant of an image, by variant key
+     */
+    public static Map<String, String> variantUrls(DestinationImage image) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.fromKeys(image.getVariants())) {
+            urls.put(variant.key(), variant.urlOf(image.getImageUrl()));
+        }
+        return urls;
+    }
+
+    /**
+     * Give a new image the variants and placeholder of an earlier image with the same file, which
+     * content-addressed uploads of the same bytes share, or queue their generation once the upload commits
+     */
+    public void linkOrGenerate(DestinationImage image) {
+        imageRepository.findFirstByImageUrlAndVariantStatus(image.getImageUrl(), ImageVariantStatus.READY)
+                .ifPresentOrElse(existing -> {
+                    image.setVariantStatus(ImageVariantStatus.READY);
+                    image.setVariants(existing.getVariants());
+                    image.setPlaceholder(existing.getPlaceholder());
+                }, () -> {
+                    image.setVariantStatus(ImageVariantStatus.PENDING);
+                    variantPipeline.submitAfterCommit(image.getImageUrl());
+                });
+    }
+
+    @EventListener
+    @Transactional
+    public void onVariantsGenerated(ImageVariantsGeneratedEvent event) {
+        List<DestinationImage> images = imageRepository.findByImageUrl(event.fileUrl());
+        if (images.isEmpty()) {
+            // The image was deleted while its variants were being written
+            variantPipeline.deleteVariants(event.fileUrl());
+            return;
+        }
+        Map<Long, Destination> destinations = new HashMap<>();
+        for (DestinationImage image : images) {
+            image.setVariantStatus(event.succeeded() ? ImageVariantStatus.READY : ImageVariantStatus.FAILED);
+            image.setVariants(ImageVariant.toKeys(event.variants()));
+            image.setPlaceholder(event.placeholder());
+            destinations.putIfAbsent(image.getDestination().getId(), image.getDestination());
+        }
+        // Cached destinations show the variants, here and in the second-level cache of other nodes
+        destinations.values().forEach(destination -> eventPublisher.publishEvent(
+                new DestinationChangedEvent(destination.getId(), destination.getCity().getId(), false)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.image-variants.resubmit-interval-ms:60000}",
+            initialDelayString = "${app.image-variants.resubmit-interval-ms:60000}")
+    public void resubmitPending() {
+        // Anything younger may still be in the queue from its upload
+        List<String> fileUrls = imageRepository.findImageUrlsByVariantStatus(ImageVariantStatus.PENDING,
+                LocalDateTime.now().minusMinutes(1), PageRequest.of(0, resubmitBatchSize));
+        int submitted = 0;
+        for (String fileUrl : fileUrls) {
+            if (!variantPipeline.submit(fileUrl)) {
+                break;
+            }
+            submitted++;
+        }
+        if (submitted > 0) {
+            log.info("Resubmitted {} images pending variant generation", submitted);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ma.enset.ziyara.destination.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.city.dto.CityDto;
+import ma.enset.ziyara.core.cache.CacheTag;
+import ma.enset.ziyara.core.cache.TwoLevelCacheManager;
+import ma.enset.ziyara.destination.dto.DestinationDto;
+import ma.enset.ziyara.destination.entity.Destination;
+import ma.enset.ziyara.destination.mapper.DestinationMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-node cache of mapped {@link DestinationDto}s by id, serving the destination detail endpoint.
+ * <p>
+ * Caffeine (W-TinyLFU admission) bounded by an estimate of each entry's retained heap, so
+ * {@code app.destination-near-cache.max-weight} caps its memory on every node. Reads populate it and
+ * writes made through {@link DestinationService} replace the entry after commit; a put never replaces
+ * an entry holding a newer entity version. Every other change, rating flushes included, reaches it as a
+ * destination tag eviction made through {@link TwoLevelCacheManager}, which other nodes receive over the
+ * cache invalidation bus.
+ * <p>
+ * Entries also embed their city. A city tag eviction bumps that city's generation instead of scanning
+ * the cache; an entry loaded under an older generation is reloaded when next read.
+ */
+@Component
+@Slf4j
+public class DestinationNearCache implements MeterBinder {
+
+    private static final String NAME = "destination-near-cache";
+
+    private final DestinationMapper destinationMapper;
+    private final Cache<Long, Entry> entries;
+
+    /** Incremented by every eviction; a read-through load that raced with one is not cached */
+    private final AtomicLong evictions = new AtomicLong();
+    /** Generation of each city's data, bumped by its tag evictions; absent is 0 */
+    private final Map<Long, Long> cityGenerations = new ConcurrentHashMap<>();
+
+    public DestinationNearCache(DestinationMapper destinationMapper, TwoLevelCacheManager cacheManager,
+                                @Value("${app.destination-near-cache.max-weight:64MB}") DataSize maxWeight,
+                                @Value("${app.destination-near-cache.time-to-live:PT30M}") Duration timeToLive) {
+        this.destinationMapper = destinationMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((Long id, Entry entry) -> entry.weight())
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        cacheManager.addTagEvictionListener(this::onTagsEvicted);
+        log.debug("Destination near cache capped at {} per node, ttl {}", maxWeight, timeToLive);
+    }
+
+    /**
+     * The cached DTO, or the destination from {@code loader} mapped and cached; the loader throws when
+     * the destination does not exist
+     */
+    public DestinationDto get(Long id, Supplier<Destination> loader) {
+        Entry entry = entries.getIfPresent(id);
+        if (entry != null && entry.cityGeneration() == cityGeneration(entry.cityId())) {
+            return entry.dto();
+        }
+        long sequence = evictions.get();
+        Entry loaded = entryOf(loader.get());
+        if (evictions.get() == sequence) {
+            put(id, loaded);
+        }
+        return loaded.dto();
+    }
+
+    /**
+     * Map a destination that was just written, caching the DTO once the transaction commits
+     */
+    public DestinationDto writeThrough(Destination destination) {
+        Entry entry = entryOf(destination);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(destination.getId(), entry);
+            return entry.dto();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            // Not afterCommit: AFTER_COMMIT event listeners, and so the tag evictions of this very write,
+            // run in afterCompletion and would drop the new entry right after it was put
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    put(destination.getId(), entry);
+                }
+            }
+
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+        });
+        return entry.dto();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, NAME);
+        Gauge.builder("ziyara.destination.near-cache.weight", entries, cache -> cache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .description("Estimated heap held by the destination near cache on this node")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    // Private helper methods
+
+    private void onTagsEvicted(Collection<String> tags) {
+        for (String tag : tags) {
+            Long destinationId = CacheTag.destinationId(tag);
+            Long cityId = CacheTag.cityId(tag);
+            if (destinationId != null) {
+                evictions.incrementAndGet();
+                entries.invalidate(destinationId);
+            } else if (cityId != null) {
+                // Entries embed their city, and the destination count shown with it
+                evictions.incrementAndGet();
+                cityGenerations.merge(cityId, 1L, Long::sum);
+            }
+        }
+    }
+
+    private long cityGeneration(Long cityId) {
+        return cityId != null ? cityGenerations.getOrDefault(cityId, 0L) : 0L;
+    }
+
+    /**
+     * Keep the newer entry: the higher entity version, then the later city generation
+     */
+    private void put(Long id, Entry entry) {
+        entries.asMap().merge(id, entry, (current, candidate) -> candidate.version() > current.version()
+                || (candidate.version() == current.version() && candidate.cityGeneration() >= current.cityGeneration())
+                ? candidate : current);
+    }
+
+    private Entry entryOf(Destination destination) {
+        Long cityId = destination.getCity() != null ? destination.getCity().getId() : null;
+        long cityGeneration = cityGeneration(cityId);
+        DestinationDto dto = destinationMapper.toDto(destination);
+        long version = destination.getVersion() != null ? destination.getVersion() : 0;
+        return new Entry(version, cityId, cityGeneration, dto, estimateWeight(dto));
+    }
+
+    /**
+     * Upper-bound estimate of the heap retained by a DTO: object headers, boxed fields and two bytes per
+     * character of every string
+     */
+    private static int estimateWeight(DestinationDto dto) {
+        long bytes = 64 + 200 + sizeOf(dto.getName()) + sizeOf(dto.getDescription()) + sizeOf(dto.getAddress())
+                + sizeOf(dto.getPhone()) + sizeOf(dto.getWebsite()) + sizeOf(dto.getOpeningHours())
+                + sizeOf(dto.getImageUrls()) + sizeOf(dto.getTags());
+        CityDto city = dto.getCityDto();
+        if (city != null) {
+            bytes += 160 + sizeOf(city.getName()) + sizeOf(city.getArabicName()) + sizeOf(city.getRegion())
+                    + sizeOf(city.getDescription()) + sizeOf(city.getImageUrl());
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long sizeOf(String value) {
+        return value != null ? 40 + 2L * value.length() : 0;
+    }
+
+    private static long sizeOf(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long bytes = 40 + 8L * values.size();
+        for (String value : values) {
+            bytes += sizeOf(value);
+        }
+        return bytes;
+    }
+
+    private record Entry(long version, Long cityId, long cityGeneration, DestinationDto dto, int weight) {
+    }
+}
@@ -4,20 +4,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.enset.ziyara.city.entity.City;
 import ma.enset.ziyara.city.repository.CityRepository;
+import ma.enset.ziyara.core.cache.CacheTag;
+import ma.enset.ziyara.core.cache.CacheTags;
+import ma.enset.ziyara.core.cache.NotFoundCache;
 import ma.enset.ziyara.core.dto.PageResponse;
+import ma.enset.ziyara.core.dto.ResourceVersion;
 import ma.enset.ziyara.core.exception.BadRequestException;
 import ma.enset.ziyara.core.exception.ResourceNotFoundException;
+import ma.enset.ziyara.core.warmup.Warmable;
 import ma.enset.ziyara.destination.dto.DestinationCreateRequest;
 import ma.enset.ziyara.destination.dto.DestinationDto;
 import ma.enset.ziyara.destination.dto.DestinationSearchRequest;
 import ma.enset.ziyara.destination.dto.DestinationUpdateRequest;
+import ma.enset.ziyara.destination.dto.DestinationVersion;
 import ma.enset.ziyara.destination.entity.Destination;
 import ma.enset.ziyara.destination.entity.DestinationImage;
 import ma.enset.ziyara.destination.entity.DestinationTag;
 import ma.enset.ziyara.destination.entity.DestinationType;
+import ma.enset.ziyara.destination.event.DestinationChangedEvent;
 import ma.enset.ziyara.destination.mapper.DestinationMapper;
 import ma.enset.ziyara.destination.repository.DestinationRepository;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,7 +38,11 @@ import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -41,10 +53,15 @@ public class DestinationService {
     private final DestinationRepository destinationRepository;
     private final CityRepository cityRepository;
     private final DestinationMapper destinationMapper;
+    private final PopularDestinationRanking popularDestinationRanking;
+    private final NotFoundCache notFoundCache;
+    private final DestinationNearCache destinationNearCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Search destinations with advanced filtering
      */
+    @Warmable
     public PageResponse<DestinationDto> searchDestinations(DestinationSearchRequest request) {
         log.debug("Searching destinations with request: {}", request);
 
@@ -85,19 +102,21 @@ public class DestinationService {
     /**
      * Get destination by ID
      */
+    @Warmable
     public DestinationDto getDestinationById(Long id) {
         log.debug("Getting destination by id: {}", id);
 
-        Destination destination = destinationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + id));
-
-        return destinationMapper.toDto(destination);
+        return destinationNearCache.get(id, () -> notFoundCache
+                .find(notFoundKey(id), CacheTag.destination(id), () -> destinationRepository.findById(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + id)));
     }
 
     /**
      * Get destinations by city
      */
-    @Cacheable(value = "destinations", key = "#cityId + '_' + #page + '_' + #size")
+    @Cacheable(value = "destinations", key = "#cityId + '_' + #page + '_' + #size", sync = true)
+    @CacheTags({"'city:' + #cityId", "#result.content.!['destination:' + id]"})
+    @Warmable
     public PageResponse<DestinationDto> getDestinationsByCity(Long cityId, int page, int size) {
         log.debug("Getting destinations by city: {}", cityId);
 
@@ -137,16 +156,39 @@ public class DestinationService {
     /**
      * Get popular destinations (most visited/highest rated)
      */
-    @Cacheable(value = "popular-destinations", key = "#limit")
+    @Cacheable(value = "popular-destinations", key = "#limit", sync = true)
+    @CacheTags({"'popular-destinations'", "#result.!['destination:' + id]", "#result.!['city:' + cityDto?.id]"})
+    @Warmable
     public List<DestinationDto> getPopularDestinations(int limit) {
         log.debug("Getting popular destinations, limit: {}", limit);
+        return findAllInOrder(popularDestinationRanking.topIds(limit));
+    }
 
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Destination> destinations = destinationRepository.findPopularDestinations(pageable);
+    /**
+     * Get popular destinations of a city
+     */
+    @Cacheable(value = "popular-destinations", key = "'city_' + #cityId + '_' + #limit", sync = true)
+    @CacheTags({"'popular-destinations'", "'city:' + #cityId", "#result.!['destination:' + id]"})
+    @Warmable
+    public List<DestinationDto> getPopularDestinationsByCity(Long cityId, int limit) {
+        log.debug("Getting popular destinations of city: {}, limit: {}", cityId, limit);
 
-        return destinations.stream()
-                .map(destinationMapper::toDto)
-                .toList();
+        if (!cityRepository.existsById(cityId)) {
+            throw new ResourceNotFoundException("City not found with id: " + cityId);
+        }
+
+        return findAllInOrder(popularDestinationRanking.topIdsByCity(cityId, limit));
+    }
+
+    /**
+     * Get popular destinations of a type
+     */
+    @Cacheable(value = "popular-destinations", key = "'type_' + #type + '_' + #limit", sync = true)
+    @CacheTags({"'popular-destinations'", "#result.!['destination:' + id]", "#result.!['city:' + cityDto?.id]"})
+    @Warmable
+    public List<DestinationDto> getPopularDestinationsByType(DestinationType type, int limit) {
+        log.debug("Getting popular destinations of type: {}, limit: {}", type, limit);
+        return findAllInOrder(popularDestinationRanking.topIdsByType(type, limit));
     }
 
     /**
@@ -164,6 +206,58 @@ public class DestinationService {
                 .toList();
     }
 
+    /**
+     * Version of a destination as served. Destinations served from a cache are fingerprinted from their
+     * DTOs rather than their version columns: the cache may lag behind the database, and a client must
+     * never be given a new ETag with the old content, which later revalidations would then keep.
+     */
+    public ResourceVersion getServedVersion(DestinationDto destination) {
+        return servedVersion("destination", destination, List.of(destination));
+    }
+
+    /**
+     * Version of a served page of destinations
+     */
+    public ResourceVersion getServedVersion(String resource, PageResponse<DestinationDto> destinations) {
+        return servedVersion(resource, destinations, destinations.getContent());
+    }
+
+    /**
+     * Version of a served list of destinations
+     */
+    public ResourceVersion getServedVersion(String resource, List<DestinationDto> destinations) {
+        return servedVersion(resource, destinations, destinations);
+    }
+
+    /**
+     * Version of a page of all destinations
+     */
+    public ResourceVersion getAllDestinationsVersion(int page, int size, String sortBy, String sortDir) {
+        Sort sort = sortDir.equalsIgnoreCase("desc")
+                ? Sort.by(sortBy).descending()
+                : Sort.by(sortBy).ascending();
+        return pageVersion("destinations", destinationRepository.findActiveVersions(PageRequest.of(page, size, sort)));
+    }
+
+    /**
+     * Version of a page of destinations of a type
+     */
+    public ResourceVersion getDestinationsByTypeVersion(DestinationType type, int page, int size) {
+        return pageVersion("destinations-by-type", destinationRepository.findVersionsByType(type, PageRequest.of(page, size)));
+    }
+
+    /**
+     * Version of a destination's image list, or null if the destination does not exist
+     */
+    public ResourceVersion getDestinationImagesVersion(Long destinationId) {
+        if (!destinationRepository.existsById(destinationId)) {
+            return null;
+        }
+        ResourceVersion.Builder builder = ResourceVersion.builder("destination-images");
+        destinationRepository.findImageVersions(destinationId).forEach(builder::add);
+        return builder.build();
+    }
+
     /**
      * Create new destination
      */
@@ -191,9 +285,10 @@ public class DestinationService {
         }
 
         destination = destinationRepository.save(destination);
+        eventPublisher.publishEvent(new DestinationChangedEvent(destination.getId(), destination.getCity().getId(), false));
 
         log.info("Created destination with id: {}", destination.getId());
-        return destinationMapper.toDto(destination);
+        return destinationNearCache.writeThrough(destination);
     }
 
     /**
@@ -226,10 +321,12 @@ public class DestinationService {
             }
         }
 
-        destination = destinationRepository.save(destination);
+        // Flushed so the version and timestamps written through to the near cache are the committed ones
+        destination = destinationRepository.saveAndFlush(destination);
+        eventPublisher.publishEvent(new DestinationChangedEvent(destination.getId(), destination.getCity().getId(), false));
 
         log.info("Updated destination with id: {}", destination.getId());
-        return destinationMapper.toDto(destination);
+        return destinationNearCache.writeThrough(destination);
     }
 
     /**
@@ -239,11 +336,11 @@ public class DestinationService {
     public void deleteDestination(Long id) {
         log.debug("Deleting destination: {}", id);
 
-        if (!destinationRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Destination not found with id: " + id);
-        }
+        Destination destination = destinationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Destination not found with id: " + id));
 
-        destinationRepository.deleteById(id);
+        destinationRepository.delete(destination);
+        eventPublisher.publishEvent(new DestinationChangedEvent(id, destination.getCity().getId(), true));
         log.info("Deleted destination with id: {}", id);
     }
 
@@ -255,6 +352,10 @@ public class DestinationService {
     }
 
     // Helper methods
+    private static String notFoundKey(Long id) {
+        return "destination:" + id;
+    }
+
     private Set<DestinationTag> createTags(List<String> tagNames, Destination destination) {
         Set<DestinationTag> tags = new HashSet<>();
         for (String tagName : tagNames) {
@@ -281,6 +382,42 @@ public class DestinationService {
         return images;
     }
 
+    private List<DestinationDto> findAllInOrder(List<Long> ids) {
+        Map<Long, Destination> destinationsById = destinationRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Destination::getId, Function.identity()));
+
+        return ids.stream()
+                .map(destinationsById::get)
+                .filter(Objects::nonNull)
+                .map(destinationMapper::toDto)
+                .toList();
+    }
+
+    private ResourceVersion pageVersion(String resource, Page<DestinationVersion> versions) {
+        ResourceVersion.Builder builder = ResourceVersion.builder(resource)
+                .add(versions.getNumber())
+                .add(versions.getSize())
+                .add(versions.getTotalElements());
+        versions.forEach(version -> version.addTo(builder));
+        return builder.build();
+    }
+
+    /**
+     * Fingerprint of everything a served body shows, every DTO field included through its generated
+     * {@code toString}
+     */
+    private static ResourceVersion servedVersion(String resource, Object body, List<DestinationDto> destinations) {
+        ResourceVersion.Builder builder = ResourceVersion.builder(resource).add(body);
+        for (DestinationDto destination : destinations) {
+            builder.modifiedAt(destination.getUpdatedAt());
+            if (destination.getCityDto() != null) {
+                builder.modifiedAt(destination.getCityDto().getUpdatedAt());
+            }
+        }
+        return builder.build();
+    }
+
     private PageResponse<DestinationDto> createPageResponse(Page<Destination> destinations, List<DestinationDto> content) {
         return PageResponse.<DestinationDto>builder()
                 .content(content)
@@ -0,0 +1,258 @@
+package ma.enset.ziyara.destination.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.cache.CacheTag;
+import ma.enset.ziyara.core.cache.TwoLevelCacheManager;
+import ma.enset.ziyara.destination.dto.DestinationPopularity;
+import ma.enset.ziyara.destination.entity.DestinationType;
+import ma.enset.ziyara.destination.repository.DestinationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory top-K ranking of popular destinations, overall and per city / per type.
+ * <p>
+ * Each ranking keeps the head of the ordering ({@code averageRating DESC, reviewCount DESC, name, id})
+ * in a sorted set bounded to twice the served size. Rating flushes and destination writes are applied
+ * incrementally as they announce themselves by destination tag evictions, made on this node or received
+ * from another: the ids of each eviction are queued, and read back in one query by a background refresh,
+ * or by the next read if it comes first, so neither the evicting thread nor the invalidation subscriber
+ * waits on the database. The database is only asked to sort when a ranking is first used, when removals
+ * have drained it below the served size, or for a limit larger than the served size.
+ * <p>
+ * The cached popular lists are not cleared here: the node making a change evicts them once, by the
+ * {@link CacheTag#POPULAR_DESTINATIONS} tag, and a list loaded after that eviction reads a ranking the
+ * queued changes have been applied to.
+ */
+@Component
+@Slf4j
+public class PopularDestinationRanking {
+
+    static final Comparator<DestinationPopularity> ORDER = Comparator
+            .comparing((DestinationPopularity p) -> p.averageRating() != null ? p.averageRating() : 0.0,
+                    Comparator.reverseOrder())
+            .thenComparing(p -> p.reviewCount() != null ? p.reviewCount() : 0L, Comparator.reverseOrder())
+            .thenComparing(DestinationPopularity::name)
+            .thenComparing(DestinationPopularity::id);
+
+    private final DestinationRepository destinationRepository;
+
+    @Value("${app.popular.top-k:50}")
+    private int topK;
+
+    private final Map<Scope, RankedList> rankings = new ConcurrentHashMap<>();
+
+    /** Destinations changed since the rankings were last refreshed */
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    /** Counts the evictions queued, and up to which one the rankings have been refreshed */
+    private final AtomicLong queued = new AtomicLong();
+    private volatile long refreshed;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    public PopularDestinationRanking(DestinationRepository destinationRepository, TwoLevelCacheManager cacheManager) {
+        this.destinationRepository = destinationRepository;
+        cacheManager.addTagEvictionListener(this::onTagsEvicted);
+    }
+
+    /**
+     * Top destination ids overall
+     */
+    public List<Long> topIds(int limit) {
+        return topIds(Scope.ALL, limit);
+    }
+
+    /**
+     * Top destination ids of a city
+     */
+    public List<Long> topIdsByCity(Long cityId, int limit) {
+        return topIds(new Scope(cityId, null), limit);
+    }
+
+    /**
+     * Top destination ids of a type
+     */
+    public List<Long> topIdsByType(DestinationType type, int limit) {
+        return topIds(new Scope(null, type), limit);
+    }
+
+    // Private helper methods
+
+    private List<Long> topIds(Scope scope, int limit) {
+        if (limit > topK) {
+            // Only the first topK entries are guaranteed to be held
+            return destinationRepository.findPopularityRanking(scope.cityId(), scope.type(), PageRequest.of(0, limit))
+                    .stream()
+                    .map(DestinationPopularity::id)
+                    .toList();
+        }
+        if (refreshed != queued.get()) {
+            refresh();
+        }
+        RankedList ranking = rankings.compute(scope,
+                (key, current) -> current == null || current.needsReload(topK) ? load(key) : current);
+        List<Long> ids = ranking.snapshot;
+        return ids.size() > limit ? ids.subList(0, limit) : ids;
+    }
+
+    private void onTagsEvicted(Collection<String> tags) {
+        boolean changed = false;
+        for (String tag : tags) {
+            Long destinationId = CacheTag.destinationId(tag);
+            if (destinationId != null) {
+                pendingIds.add(destinationId);
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        queued.incrementAndGet();
+        if (refreshScheduled.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("popular-ranking-refresh").start(() -> {
+                refreshScheduled.set(false);
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Apply the queued changes to every ranking, reading them in one query
+     */
+    private void refresh() {
+        refreshLock.lock();
+        try {
+            // Every id queued by the evictions counted so far is in the set by now
+            long target = queued.get();
+            if (refreshed == target) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(pendingIds);
+            pendingIds.removeAll(ids);
+            if (!rankings.isEmpty() && !ids.isEmpty()) {
+                Map<Long, DestinationPopularity> current = new HashMap<>();
+                destinationRepository.findPopularityByIdIn(ids).forEach(p -> current.put(p.id(), p));
+                for (Long id : ids) {
+                    DestinationPopularity popularity = current.get(id);
+                    for (RankedList ranking : rankings.values()) {
+                        if (popularity != null) {
+                            ranking.apply(popularity);
+                        } else {
+                            // Deleted
+                            ranking.remove(id);
+                        }
+                    }
+                }
+                log.debug("Applied {} destination changes to {} popularity rankings", ids.size(), rankings.size());
+            }
+            refreshed = target;
+        } catch (RuntimeException e) {
+            // Loaded from scratch on next use rather than left missing changes
+            log.warn("Could not refresh popularity rankings, dropping them: {}", e.getMessage());
+            rankings.clear();
+            refreshed = queued.get();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private RankedList load(Scope scope) {
+        int capacity = topK * 2;
+        log.debug("Loading popularity ranking for {} (capacity {})", scope, capacity);
+        List<DestinationPopularity> head = destinationRepository.findPopularityRanking(
+                scope.cityId(), scope.type(), PageRequest.of(0, capacity));
+        return new RankedList(scope, capacity, head);
+    }
+
+    /**
+     * Ranking partition: all destinations, one city, or one type
+     */
+    record Scope(Long cityId, DestinationType type) {
+
+        static final Scope ALL = new Scope(null, null);
+
+        boolean matches(DestinationPopularity popularity) {
+            return (cityId == null || cityId.equals(popularity.cityId()))
+                    && (type == null || type == popularity.type());
+        }
+    }
+
+    /**
+     * Bounded sorted head of one ranking.
+     * <p>
+     * Invariant: every active destination of the scope that is not held here ranks below every entry
+     * held here. An update that would sort past the tail of a truncated ranking is therefore dropped
+     * rather than kept in a position we cannot vouch for.
+     */
+    static final class RankedList {
+
+        private final Scope scope;
+        private final int capacity;
+        private final TreeSet<DestinationPopularity> entries = new TreeSet<>(ORDER);
+        private final Map<Long, DestinationPopularity> byId = new HashMap<>();
+
+        /** True when the ranking holds every matching destination */
+        private boolean complete;
+
+        volatile List<Long> snapshot;
+
+        RankedList(Scope scope, int capacity, List<DestinationPopularity> head) {
+            this.scope = scope;
+            this.capacity = capacity;
+            this.complete = head.size() < capacity;
+            head.forEach(p -> {
+                entries.add(p);
+                byId.put(p.id(), p);
+            });
+            publish();
+        }
+
+        synchronized boolean needsReload(int servedSize) {
+            return !complete && entries.size() < servedSize;
+        }
+
+        synchronized boolean apply(DestinationPopularity popularity) {
+            boolean changed = removeEntry(popularity.id());
+
+            if (Boolean.TRUE.equals(popularity.active()) && scope.matches(popularity)
+                    && (complete || (!entries.isEmpty() && ORDER.compare(popularity, entries.last()) < 0))) {
+                entries.add(popularity);
+                byId.put(popularity.id(), popularity);
+                if (entries.size() > capacity) {
+                    byId.remove(entries.pollLast().id());
+                    complete = false;
+                }
+                changed = true;
+            }
+
+            if (changed) {
+                publish();
+            }
+            return changed;
+        }
+
+        synchronized boolean remove(Long destinationId) {
+            boolean changed = removeEntry(destinationId);
+            if (changed) {
+                publish();
+            }
+            return changed;
+        }
+
+        private boolean removeEntry(Long destinationId) {
+            DestinationPopularity previous = byId.remove(destinationId);
+            return previous != null && entries.remove(previous);
+        }
+
+        private void publish() {
+            snapshot = entries.stream().map(DestinationPopularity::id).toList();
+        }
+    }
+}
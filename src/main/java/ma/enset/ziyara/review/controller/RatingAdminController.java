@@ -0,0 +1,39 @@
+package ma.enset.ziyara.review.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.ApiResult;
+import ma.enset.ziyara.core.exception.ConflictException;
+import ma.enset.ziyara.review.service.RatingAggregationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/reviews")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Review Administration", description = "APIs for maintaining destination ratings")
+public class RatingAdminController {
+
+    private final RatingAggregationService ratingAggregationService;
+
+    @PostMapping("/ratings/rebuild")
+    @Operation(summary = "Rebuild rating aggregates",
+            description = "Recompute every destination's average rating and review count from its reviews. "
+                    + "Rating deltas still pending on other instances are counted twice once they flush, "
+                    + "so run it while a single instance serves writes")
+    public ResponseEntity<ApiResult<Integer>> rebuildRatings() {
+        log.info("Rebuilding rating aggregates on request");
+        int corrected = ratingAggregationService.rebuildAggregates()
+                .orElseThrow(() -> new ConflictException("A rating rebuild is already running on another instance"));
+
+        return ResponseEntity.ok(ApiResult.success(
+                corrected,
+                "Corrected the ratings of " + corrected + " destinations"
+        ));
+    }
+}
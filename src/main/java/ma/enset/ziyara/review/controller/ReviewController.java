@@ -0,0 +1,90 @@
+package ma.enset.ziyara.review.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.ApiResult;
+import ma.enset.ziyara.core.dto.PageResponse;
+import ma.enset.ziyara.review.dto.ReviewCreateRequest;
+import ma.enset.ziyara.review.dto.ReviewDto;
+import ma.enset.ziyara.review.service.ReviewService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+@RestController
+@RequestMapping("/api/destinations/{destinationId}/reviews")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@Tag(name = "Destination Reviews", description = "APIs for rating and reviewing destinations")
+public class ReviewController {
+
+    private final ReviewService reviewService;
+
+    @GetMapping
+    @Operation(summary = "Get destination reviews",
+            description = "Get reviews of a destination, newest first")
+    public ResponseEntity<ApiResult<PageResponse<ReviewDto>>> getReviews(
+            @Parameter(description = "Destination ID")
+            @PathVariable Long destinationId,
+
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+
+        log.info("Getting reviews for destination: {}", destinationId);
+        PageResponse<ReviewDto> reviews = reviewService.getReviewsByDestination(destinationId, page, size);
+
+        return ResponseEntity.ok(ApiResult.success(
+                reviews,
+                "Retrieved " + reviews.getTotalElements() + " reviews"
+        ));
+    }
+
+    @PostMapping
+    @Operation(summary = "Submit a review",
+            description = "Rate a destination from 1 to 5; the average rating is refreshed within seconds")
+    @ApiResponse(responseCode = "201", description = "Review created successfully")
+    public ResponseEntity<ApiResult<ReviewDto>> createReview(
+            @Parameter(description = "Destination ID")
+            @PathVariable Long destinationId,
+
+            @Valid @RequestBody ReviewCreateRequest request) {
+
+        log.info("Creating review for destination: {}", destinationId);
+        ReviewDto review = reviewService.createReview(destinationId, request);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResult.success(
+                review,
+                "Review created successfully"
+        ));
+    }
+
+    @DeleteMapping("/{reviewId}")
+    @Operation(summary = "Delete a review",
+            description = "Delete a review of a destination")
+    @ApiResponse(responseCode = "200", description = "Review deleted successfully")
+    public ResponseEntity<ApiResult<Void>> deleteReview(
+            @Parameter(description = "Destination ID")
+            @PathVariable Long destinationId,
+
+            @Parameter(description = "Review ID")
+            @PathVariable Long reviewId) {
+
+        log.info("Deleting review {} of destination: {}", reviewId, destinationId);
+        reviewService.deleteReview(destinationId, reviewId);
+
+        return ResponseEntity.ok(ApiResult.success(
+                null,
+                "Review deleted successfully"
+        ));
+    }
+}
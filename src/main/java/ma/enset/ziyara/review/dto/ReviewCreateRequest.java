@@ -0,0 +1,27 @@
+package ma.enset.ziyara.review.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewCreateRequest {
+
+    @NotNull(message = "Rating is required")
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
+    private Integer rating;
+
+    @Size(max = 2000, message = "Comment cannot exceed 2000 characters")
+    private String comment;
+
+    @NotBlank(message = "Author name is required")
+    @Size(max = 100, message = "Author name cannot exceed 100 characters")
+    private String authorName;
+}
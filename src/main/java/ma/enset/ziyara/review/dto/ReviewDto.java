@@ -0,0 +1,22 @@
+package ma.enset.ziyara.review.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewDto {
+
+    private Long id;
+    private Long destinationId;
+    private Integer rating;
+    private String comment;
+    private String authorName;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package ma.enset.ziyara.review.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import ma.enset.ziyara.core.entity.BaseEntity;
+import ma.enset.ziyara.destination.entity.Destination;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@Entity
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_destination_id", columnList = "destination_id")
+})
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class Review extends BaseEntity {
+
+    @Column(nullable = false)
+    private Integer rating;
+
+    @Column(length = 2000)
+    private String comment;
+
+    @Column(name = "author_name", nullable = false, length = 100)
+    private String authorName;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "destination_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Destination destination;
+}
@@ -0,0 +1,9 @@
+package ma.enset.ziyara.review.event;
+
+import java.util.Set;
+
+/**
+ * Published after pending rating aggregates were written to the destinations table
+ */
+public record RatingsFlushedEvent(Set<Long> destinationIds) {
+}
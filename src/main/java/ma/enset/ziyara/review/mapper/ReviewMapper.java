@@ -0,0 +1,24 @@
+package ma.enset.ziyara.review.mapper;
+
+import ma.enset.ziyara.review.dto.ReviewCreateRequest;
+import ma.enset.ziyara.review.dto.ReviewDto;
+import ma.enset.ziyara.review.entity.Review;
+import org.mapstruct.*;
+
+@Mapper(
+        componentModel = "spring",
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE
+)
+public interface ReviewMapper {
+
+    @Mapping(target = "destinationId", source = "destination.id")
+    ReviewDto toDto(Review review);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "destination", ignore = true) // Will be set in service layer
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Review toEntity(ReviewCreateRequest request);
+}
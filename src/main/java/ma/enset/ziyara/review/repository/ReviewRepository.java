@@ -0,0 +1,26 @@
+package ma.enset.ziyara.review.repository;
+
+import ma.enset.ziyara.review.entity.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    /**
+     * Find reviews of a destination with pagination
+     */
+    Page<Review> findByDestinationIdOrderByCreatedAtDesc(Long destinationId, Pageable pageable);
+
+    /**
+     * Find a review belonging to a destination
+     */
+    @Query("SELECT r FROM Review r WHERE r.id = :id AND r.destination.id = :destinationId")
+    Optional<Review> findByIdAndDestinationId(@Param("id") Long id, @Param("destinationId") Long destinationId);
+}
@@ -0,0 +1,266 @@
+package ma.enset.ziyara.review.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.destination.entity.Destination;
+import ma.enset.ziyara.review.event.RatingsFlushedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind aggregation of destination ratings.
+ * <p>
+ * Review submissions only add to a per-destination {@link LongAdder} (striped across CPUs),
+ * so a burst of reviews for one destination never contends on its database row.
+ * Pending deltas are flushed to {@code destinations} in a single JDBC batch on a schedule.
+ * The reviews table stays the source of truth: every destination's aggregate can be rebuilt from it,
+ * which recovers deltas lost in a crash. A rebuild overwrites the aggregates with absolute values and
+ * bumps each destination's {@code rating_epoch}. Deltas are recorded under the epoch the review's
+ * transaction read, and a flush only applies them while that epoch is current, so the deltas a rebuild
+ * already counted are dropped on every instance instead of being added twice. The rebuild locks the
+ * table against review writes (which hold a row lock on their destination from the epoch read until
+ * commit) before it counts, so each review is either counted by it or recorded in the new epoch.
+ * An advisory lock keeps two instances from rebuilding at once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregationService implements SmartLifecycle {
+
+    private static final String FLUSH_SQL = """
+        UPDATE destinations
+        SET average_rating = CASE WHEN review_count + ? > 0
+                THEN (COALESCE(average_rating, 0) * review_count + ?) / (review_count + ?)
+                ELSE 0 END,
+            review_count = review_count + ?,
+            updated_at = now()
+        WHERE id = ? AND rating_epoch = ?
+        """;
+
+    // The key share lock is the one the review's foreign key check takes, held until commit
+    private static final String EPOCH_SQL = "SELECT rating_epoch FROM destinations WHERE id = ? FOR KEY SHARE";
+
+    // Waits for the review transactions holding a lock on any destination, and holds off new ones
+    private static final String LOCK_DESTINATIONS_SQL = "LOCK TABLE destinations IN EXCLUSIVE MODE";
+
+    // Destinations without reviews are included, and reset to the values a flush leaves at zero reviews.
+    // Every epoch is bumped, as any destination may have deltas pending; only the corrected ids are returned.
+    private static final String REBUILD_SQL = """
+        WITH rebuilt AS (
+            UPDATE destinations d
+            SET average_rating = r.avg_rating,
+                review_count = r.review_count,
+                rating_epoch = d.rating_epoch + 1,
+                updated_at = CASE WHEN r.corrected THEN now() ELSE d.updated_at END
+            FROM (
+                SELECT dest.id AS destination_id,
+                       COALESCE(AVG(rev.rating)::double precision, 0) AS avg_rating,
+                       COUNT(rev.id) AS review_count,
+                       dest.review_count IS DISTINCT FROM COUNT(rev.id)
+                           OR dest.average_rating IS DISTINCT FROM COALESCE(AVG(rev.rating)::double precision, 0)
+                           AS corrected
+                FROM destinations dest
+                LEFT JOIN reviews rev ON rev.destination_id = dest.id
+                GROUP BY dest.id
+            ) r
+            WHERE d.id = r.destination_id
+            RETURNING d.id, r.corrected
+        )
+        SELECT id FROM rebuilt WHERE corrected
+        """;
+
+    private static final String TRY_REBUILD_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    /** Advisory lock key of the rebuild, held by the instance running it */
+    private static final long REBUILD_LOCK_KEY = 0x5A1A_0026L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.reviews.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    /**
+     * Pending (count, sum) per destination and epoch packed into one adder as {@code count << 32 | sum},
+     * so both halves are read and reset atomically by {@link LongAdder#sumThenReset()}.
+     */
+    private final Map<PendingKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile boolean running;
+
+    /**
+     * Record a rating change (negative values for removed reviews) once the surrounding transaction
+     * commits; must be called from the transaction writing the review, which then holds off rebuilds
+     */
+    public void recordAfterCommit(Long destinationId, int rating, int count) {
+        Long epoch = jdbcTemplate.queryForObject(EPOCH_SQL, Long.class, destinationId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(destinationId, epoch, rating, count);
+                }
+            });
+        } else {
+            record(destinationId, epoch, rating, count);
+        }
+    }
+
+    /**
+     * Flush pending deltas to the destinations table in one batch
+     */
+    @Scheduled(fixedDelayString = "${app.reviews.flush-interval-ms:5000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Object[]> batch = new ArrayList<>();
+            for (Map.Entry<PendingKey, LongAdder> entry : pending.entrySet()) {
+                long packed = entry.getValue().sumThenReset();
+                if (packed == 0) {
+                    continue;
+                }
+                long sum = sum(packed);
+                long count = count(packed);
+                PendingKey key = entry.getKey();
+                batch.add(new Object[]{count, sum, count, count, key.destinationId(), key.epoch()});
+            }
+
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            int[] updated;
+            try {
+                updated = jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            } catch (RuntimeException e) {
+                log.error("Failed to flush rating aggregates for {} destinations, re-queueing", batch.size(), e);
+                batch.forEach(row -> record((Long) row[4], (Long) row[5], (int) (long) row[1], (int) (long) row[0]));
+                return;
+            }
+
+            Set<Long> destinationIds = new HashSet<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Object[] row = batch.get(i);
+                if (updated[i] != 0) {
+                    destinationIds.add((Long) row[4]);
+                } else {
+                    // A rebuild since the delta was recorded already counted it, and every later delta of
+                    // that epoch too: their reviews committed before the rebuild could lock the table
+                    pending.remove(new PendingKey((Long) row[4], (Long) row[5]));
+                }
+            }
+            if (destinationIds.size() < batch.size()) {
+                log.debug("Dropped rating deltas of {} destinations already counted by a rebuild",
+                        batch.size() - destinationIds.size());
+            }
+            if (destinationIds.isEmpty()) {
+                return;
+            }
+            // The batch bypasses Hibernate, so drop the now stale second-level cache entries
+            destinationIds.forEach(id -> entityManagerFactory.getCache().evict(Destination.class, id));
+            log.debug("Flushed rating aggregates for {} destinations", destinationIds.size());
+            eventPublisher.publishEvent(new RatingsFlushedEvent(destinationIds));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Recompute every destination's aggregate from the reviews table; returns the number of destinations
+     * corrected, or empty when another instance is rebuilding
+     */
+    public OptionalInt rebuildAggregates() {
+        List<Long> corrected = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_REBUILD_LOCK_SQL, Boolean.class,
+                    REBUILD_LOCK_KEY))) {
+                return null;
+            }
+            jdbcTemplate.execute(LOCK_DESTINATIONS_SQL);
+            // Counts every committed review; the deltas pending for them, here or elsewhere, are now stale
+            return jdbcTemplate.queryForList(REBUILD_SQL, Long.class);
+        });
+        if (corrected == null) {
+            log.info("Rating aggregates are being rebuilt by another instance, skipped");
+            return OptionalInt.empty();
+        }
+
+        entityManagerFactory.getCache().evict(Destination.class);
+        log.info("Rebuilt rating aggregates from reviews, {} destinations corrected", corrected.size());
+        if (!corrected.isEmpty()) {
+            eventPublisher.publishEvent(new RatingsFlushedEvent(new HashSet<>(corrected)));
+        }
+        return OptionalInt.of(corrected.size());
+    }
+
+    // Lifecycle: rebuild before the web server accepts traffic, flush after it stops
+
+    @Override
+    public void start() {
+        if (rebuildOnStartup) {
+            rebuildAggregates();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        flush();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // Package-private helpers, for tests
+
+    void record(Long destinationId, long epoch, int rating, int count) {
+        pending.computeIfAbsent(new PendingKey(destinationId, epoch), key -> new LongAdder())
+                .add(pack(rating, count));
+    }
+
+    static long pack(int rating, int count) {
+        return ((long) count << 32) + rating;
+    }
+
+    static int sum(long packed) {
+        return (int) packed;
+    }
+
+    static int count(long packed) {
+        return (int) ((packed - sum(packed)) >> 32);
+    }
+
+    record PendingKey(Long destinationId, long epoch) {
+    }
+}
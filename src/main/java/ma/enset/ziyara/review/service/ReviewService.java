@@ -0,0 +1,97 @@
+package ma.enset.ziyara.review.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.ziyara.core.dto.PageResponse;
+import ma.enset.ziyara.core.exception.ResourceNotFoundException;
+import ma.enset.ziyara.destination.repository.DestinationRepository;
+import ma.enset.ziyara.review.dto.ReviewCreateRequest;
+import ma.enset.ziyara.review.dto.ReviewDto;
+import ma.enset.ziyara.review.entity.Review;
+import ma.enset.ziyara.review.mapper.ReviewMapper;
+import ma.enset.ziyara.review.repository.ReviewRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ReviewService {
+
+    private final ReviewRepository reviewRepository;
+    private final DestinationRepository destinationRepository;
+    private final ReviewMapper reviewMapper;
+    private final RatingAggregationService ratingAggregationService;
+
+    /**
+     * Get reviews of a destination with pagination
+     */
+    public PageResponse<ReviewDto> getReviewsByDestination(Long destinationId, int page, int size) {
+        log.debug("Getting reviews for destination: {}", destinationId);
+
+        if (!destinationRepository.existsById(destinationId)) {
+            throw new ResourceNotFoundException("Destination not found with id: " + destinationId);
+        }
+
+        Page<Review> reviews = reviewRepository.findByDestinationIdOrderByCreatedAtDesc(
+                destinationId, PageRequest.of(page, size));
+
+        List<ReviewDto> content = reviews.getContent()
+                .stream()
+                .map(reviewMapper::toDto)
+                .toList();
+
+        return PageResponse.<ReviewDto>builder()
+                .content(content)
+                .page(reviews.getNumber())
+                .size(reviews.getSize())
+                .totalElements(reviews.getTotalElements())
+                .totalPages(reviews.getTotalPages())
+                .first(reviews.isFirst())
+                .last(reviews.isLast())
+                .empty(reviews.isEmpty())
+                .build();
+    }
+
+    /**
+     * Submit a review; the destination aggregate is updated asynchronously
+     */
+    @Transactional
+    public ReviewDto createReview(Long destinationId, ReviewCreateRequest request) {
+        log.debug("Creating review for destination: {}", destinationId);
+
+        if (!destinationRepository.existsById(destinationId)) {
+            throw new ResourceNotFoundException("Destination not found with id: " + destinationId);
+        }
+
+        Review review = reviewMapper.toEntity(request);
+        review.setDestination(destinationRepository.getReferenceById(destinationId));
+        review = reviewRepository.save(review);
+
+        ratingAggregationService.recordAfterCommit(destinationId, review.getRating(), 1);
+
+        log.info("Created review with id: {} for destination: {}", review.getId(), destinationId);
+        return reviewMapper.toDto(review);
+    }
+
+    /**
+     * Delete a review
+     */
+    @Transactional
+    public void deleteReview(Long destinationId, Long reviewId) {
+        log.debug("Deleting review {} of destination: {}", reviewId, destinationId);
+
+        Review review = reviewRepository.findByIdAndDestinationId(reviewId, destinationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
+
+        reviewRepository.delete(review);
+        ratingAggregationService.recordAfterCommit(destinationId, -review.getRating(), -1);
+
+        log.info("Deleted review with id: {}", reviewId);
+    }
+}
@@ -0,0 +1,62 @@
+package ma.enset.ziyara.core.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.enset.ziyara.core.dto.ResourceVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBodyCacheTest {
+
+    private static final ResourceVersion VERSION = ResourceVersion.builder("regions").add("v1").build();
+    private static final List<String> BODY = Collections.nCopies(200, "Souss-Massa");
+
+    private final ResponseBodyCache cache = new ResponseBodyCache(new ConcurrentMapCacheManager(), new ObjectMapper());
+
+    @Test
+    void gzippedBodyHasItsOwnEtag() {
+        ResponseEntity<byte[]> gzipped = cache.respond(VERSION, request("gzip", null), () -> BODY);
+        ResponseEntity<byte[]> identity = cache.respond(VERSION, request(null, null), () -> BODY);
+
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders().getETag()).isEqualTo(ResponseBodyCache.gzipEtag(VERSION.etag()));
+        assertThat(identity.getHeaders().getETag()).isEqualTo(VERSION.etag());
+        assertThat(gzipped.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void eitherEtagRevalidatesWithVary() {
+        String gzipEtag = ResponseBodyCache.gzipEtag(VERSION.etag());
+
+        ResponseEntity<byte[]> fromGzip = cache.respond(VERSION, request("gzip", gzipEtag), () -> BODY);
+        ResponseEntity<byte[]> fromIdentity = cache.respond(VERSION, request("gzip", "W/" + VERSION.etag()), () -> BODY);
+        ResponseEntity<byte[]> changed = cache.respond(VERSION, request("gzip", "\"other\""), () -> BODY);
+
+        assertThat(fromGzip.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(fromGzip.getHeaders().getETag()).isEqualTo(gzipEtag);
+        assertThat(fromGzip.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(fromIdentity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(fromIdentity.getHeaders().getETag()).isEqualTo(VERSION.etag());
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static ServletWebRequest request(String acceptEncoding, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cities/regions");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request);
+    }
+}
@@ -0,0 +1,267 @@
+package ma.enset.ziyara.core.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Two nodes sharing an in-memory L2 and invalidation bus, standing in for Redis
+ */
+class TwoLevelCacheManagerTest {
+
+    private TwoLevelCacheManager nodeA;
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        TwoLevelCacheProperties properties = new TwoLevelCacheProperties();
+        RemoteCacheStore remote = new InMemoryRemoteCacheStore();
+        CacheInvalidationBus bus = new LocalCacheInvalidationBus();
+        nodeA = new TwoLevelCacheManager(properties, remote, bus);
+        nodeB = new TwoLevelCacheManager(properties, remote, bus);
+    }
+
+    @Test
+    void valueLoadedOnOneNodeIsServedFromL2OnTheOther() {
+        nodeA.getCache("cities").put("all", "Casablanca");
+
+        Cache.ValueWrapper value = nodeB.getCache("cities").get("all");
+
+        assertThat(value).isNotNull();
+        assertThat(value.get()).isEqualTo("Casablanca");
+        TwoLevelCache cacheB = (TwoLevelCache) nodeB.getCache("cities");
+        assertThat(cacheB.getRemoteHitCount()).isEqualTo(1);
+        assertThat(cacheB.getLocalStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionOnOneNodeDropsTheL1CopyOnTheOther() {
+        nodeA.getCache("cities").put("all", "Casablanca");
+        nodeB.getCache("cities").get("all");
+
+        nodeA.getCache("cities").evict("all");
+
+        assertThat(nodeB.getCache("cities").get("all")).isNull();
+        assertThat(nodeA.getCache("cities").get("all")).isNull();
+    }
+
+    @Test
+    void clearOnOneNodeDropsEveryEntryOnTheOther() {
+        nodeA.getCache("regions").put("all", "Souss-Massa");
+        nodeA.getCache("cities").put("all", "Agadir");
+        nodeB.getCache("regions").get("all");
+        nodeB.getCache("cities").get("all");
+
+        nodeA.getCache("regions").clear();
+
+        assertThat(nodeB.getCache("regions").get("all")).isNull();
+        assertThat(nodeB.getCache("cities").get("all")).isNotNull();
+    }
+
+    @Test
+    void cachedNullIsReturnedWithoutCallingTheLoaderAgain() {
+        Cache cache = nodeA.getCache("destinations");
+        cache.get("missing", () -> null);
+
+        Object value = cache.get("missing", () -> {
+            throw new AssertionError("loader should not run for a cached null");
+        });
+
+        assertThat(value).isNull();
+        assertThat(nodeB.getCache("destinations").get("missing")).isNotNull();
+    }
+
+    @Test
+    void tagEvictionDropsOnlyDependentEntriesInEveryCacheAndNode() {
+        putTagged(nodeA, "destinations", "1_0_20", "city:1");
+        putTagged(nodeA, "destinations", "2_0_20", "city:2");
+        putTagged(nodeA, "cities", "all", "cities", "city:1", "city:2");
+        nodeB.getCache("destinations").get("1_0_20");
+        nodeB.getCache("destinations").get("2_0_20");
+
+        nodeA.evictTags(List.of("city:1"));
+
+        assertThat(nodeA.getCache("destinations").get("1_0_20")).isNull();
+        assertThat(nodeB.getCache("destinations").get("1_0_20")).isNull();
+        assertThat(nodeA.getCache("cities").get("all")).isNull();
+        assertThat(nodeB.getCache("destinations").get("2_0_20")).isNotNull();
+        assertThat(nodeA.getCache("destinations").get("2_0_20")).isNotNull();
+    }
+
+    @Test
+    void listenersGetEachEvictionAsOneBatchOnEveryNode() {
+        List<List<String>> seenByA = new ArrayList<>();
+        List<List<String>> seenByB = new ArrayList<>();
+        nodeA.addTagEvictionListener(tags -> seenByA.add(List.copyOf(tags)));
+        nodeB.addTagEvictionListener(tags -> seenByB.add(List.copyOf(tags)));
+
+        nodeA.evictTags(List.of("destination:1", "destination:2", "popular-destinations"));
+        nodeA.evictTags(List.of());
+
+        assertThat(seenByA).containsExactly(List.of("destination:1", "destination:2", "popular-destinations"));
+        assertThat(seenByB).isEqualTo(seenByA);
+    }
+
+    @Test
+    void entryPromotedFromL2KeepsItsTags() {
+        putTagged(nodeA, "popular-destinations", "10", "destination:7");
+        nodeB.getCache("popular-destinations").get("10");
+
+        nodeB.evictTags(List.of("destination:7"));
+
+        assertThat(nodeA.getCache("popular-destinations").get("10")).isNull();
+        assertThat(nodeB.getCache("popular-destinations").get("10")).isNull();
+    }
+
+    @Test
+    void loadRacingWithTagEvictionIsNotCached() {
+        long sequence = nodeA.invalidationSequence();
+        nodeA.evictTags(List.of("city:1"));
+
+        PendingTags.set(new PendingTags(Set.of("city:1"), sequence));
+        nodeA.getCache("destinations").put("1_0_20", "stale page");
+
+        assertThat(nodeA.getCache("destinations").get("1_0_20")).isNull();
+    }
+
+    @Test
+    void l2HitRacingWithTagEvictionIsNotPromoted() {
+        AtomicReference<Runnable> duringRemoteGet = new AtomicReference<>();
+        RemoteCacheStore remote = new InMemoryRemoteCacheStore() {
+            @Override
+            public Object get(String key) {
+                Object value = super.get(key);
+                Runnable action = duringRemoteGet.getAndSet(null);
+                if (action != null) {
+                    action.run();
+                }
+                return value;
+            }
+        };
+        CacheInvalidationBus bus = new LocalCacheInvalidationBus();
+        TwoLevelCacheManager writer = new TwoLevelCacheManager(new TwoLevelCacheProperties(), remote, bus);
+        TwoLevelCacheManager reader = new TwoLevelCacheManager(new TwoLevelCacheProperties(), remote, bus);
+        putTagged(writer, "destinations", "1_0_20", "city:1");
+        putTagged(writer, "destinations", "2_0_20", "city:2");
+
+        duringRemoteGet.set(() -> writer.evictTags(List.of("city:1")));
+        assertThat(reader.getCache("destinations").get("1_0_20")).isNotNull();
+        duringRemoteGet.set(() -> writer.evictTags(List.of("city:3")));
+        assertThat(reader.getCache("destinations").get("2_0_20", () -> "reloaded")).isEqualTo("destinations:2_0_20");
+
+        assertThat(reader.getCache("destinations").get("1_0_20")).isNull();
+        // Still in L2, which the unrelated eviction did not touch, but not copied to L1
+        TwoLevelCache cache = (TwoLevelCache) reader.getCache("destinations");
+        long remoteHits = cache.getRemoteHitCount();
+        assertThat(cache.get("2_0_20", () -> "reloaded")).isEqualTo("destinations:2_0_20");
+        assertThat(cache.getRemoteHitCount()).isEqualTo(remoteHits + 1);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        TwoLevelCache cache = (TwoLevelCache) nodeA.getCache("popular-destinations");
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("10", () -> {
+                    loaderCalls.incrementAndGet();
+                    if (!release.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("loader was never released");
+                    }
+                    return "top 10";
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.getCoalescedLoadCount() < callers - 1) {
+                if (System.nanoTime() > deadline) {
+                    fail("only " + cache.getCoalescedLoadCount() + " of " + (callers - 1) + " callers coalesced");
+                }
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("top 10");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(cache.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void staleEntryIsServedWhileItReloadsInTheBackground() throws Exception {
+        TwoLevelCacheProperties properties = new TwoLevelCacheProperties();
+        properties.getCaches().put("popular-cities",
+                new TwoLevelCacheProperties.CacheSpec(null, null, null, Duration.ofMillis(1)));
+        TwoLevelCacheManager node = new TwoLevelCacheManager(properties, null, new LocalCacheInvalidationBus());
+        TwoLevelCache cache = (TwoLevelCache) node.getCache("popular-cities");
+        Ranking ranking = new Ranking(cache);
+
+        assertThat(ranking.cachedTop()).isEqualTo("ranking 1");
+        Thread.sleep(5);
+
+        assertThat(ranking.cachedTop()).isEqualTo("ranking 1");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.getRefreshCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(cache.getRefreshCount()).isEqualTo(1);
+        assertThat(ranking.cachedTop()).isEqualTo("ranking 2");
+        node.close();
+    }
+
+    private static void putTagged(TwoLevelCacheManager node, String cacheName, String key, String... tags) {
+        PendingTags.set(new PendingTags(Set.of(tags), node.invalidationSequence()));
+        node.getCache(cacheName).put(key, cacheName + ":" + key);
+    }
+
+    /**
+     * Cached method invoked the way the cache interceptor and {@link CacheInvocationAspect} would
+     */
+    static class Ranking {
+
+        private final Cache cache;
+        private final AtomicInteger computations = new AtomicInteger();
+
+        Ranking(Cache cache) {
+            this.cache = cache;
+        }
+
+        public String top() {
+            return cache.get("top", () -> "ranking " + computations.incrementAndGet());
+        }
+
+        String cachedTop() throws NoSuchMethodException {
+            Method method = Ranking.class.getMethod("top");
+            CacheInvocation previous = CacheInvocation.enter(new CacheInvocation(this, method, new Object[0]));
+            try {
+                return top();
+            } finally {
+                CacheInvocation.exit(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package ma.enset.ziyara.core.service;
+
+import ma.enset.ziyara.core.dto.StoredFile;
+import ma.enset.ziyara.core.dto.UploadProgress;
+import ma.enset.ziyara.core.dto.UploadSessionRequest;
+import ma.enset.ziyara.core.entity.UploadSession;
+import ma.enset.ziyara.core.exception.BadRequestException;
+import ma.enset.ziyara.core.exception.ConflictException;
+import ma.enset.ziyara.core.exception.ResourceNotFoundException;
+import ma.enset.ziyara.core.repository.UploadSessionRepository;
+import ma.enset.ziyara.core.upload.UploadLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumableUploadServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private UploadLayout uploadLayout;
+    private ResumableUploadService service;
+    private byte[] image;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploadLayout = new UploadLayout(directory.toString(), 0);
+        FileUploadService fileUploadService = new FileUploadService(null, uploadLayout);
+        ReflectionTestUtils.setField(fileUploadService, "maxFileSize", 1024 * 1024L);
+        ReflectionTestUtils.setField(fileUploadService, "allowedExtensions", "jpg,jpeg,png,gif,webp");
+        service = new ResumableUploadService(repository(sessions), fileUploadService, uploadLayout);
+        ReflectionTestUtils.setField(service, "expiryHours", 24L);
+        ReflectionTestUtils.setField(service, "cleanupBatchSize", 100);
+        image = image();
+    }
+
+    @Test
+    void resentChunkOverlappingWhatArrivedIsWrittenInPlace() {
+        String token = create(image.length, sha256(image)).uploadId();
+
+        assertThat(write(token, 0, 0, 100).receivedBytes()).isEqualTo(100);
+        // The response to the second chunk was lost, so the client resends from an earlier offset
+        assertThat(write(token, 60, 60, image.length).receivedBytes()).isEqualTo(image.length);
+        assertThat(write(token, 10, 10, 20).receivedBytes()).isEqualTo(image.length);
+
+        StoredFile stored = service.complete(token);
+
+        assertThat(stored.size()).isEqualTo(image.length);
+        assertThat(sessions).isEmpty();
+        assertThat(Files.exists(uploadLayout.storagePath(stored.fileUrl()))).isTrue();
+        assertThat(uploadLayout.stagingDirectory()).isEmptyDirectory();
+    }
+
+    @Test
+    void chunkMayNotLeaveAGap() {
+        String token = create(image.length, sha256(image)).uploadId();
+        write(token, 0, 0, 50);
+
+        assertThatThrownBy(() -> write(token, 51, 51, 100)).isInstanceOf(ConflictException.class);
+        assertThat(service.getProgress(token).receivedBytes()).isEqualTo(50);
+    }
+
+    @Test
+    void chunkRunningPastTheDeclaredSizeIsRefused() {
+        String token = create(image.length - 10L, sha256(Arrays.copyOf(image, image.length - 10))).uploadId();
+
+        assertThatThrownBy(() -> write(token, 0, 0, image.length)).isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("past the declared size");
+
+        assertThat(service.getProgress(token).receivedBytes()).isZero();
+    }
+
+    @Test
+    void checksumMismatchDiscardsTheUpload() {
+        byte[] other = image.clone();
+        other[other.length - 1] ^= 1;
+        String token = create(image.length, sha256(other)).uploadId();
+        write(token, 0, 0, image.length);
+
+        assertThatThrownBy(() -> service.complete(token)).isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Checksum mismatch");
+
+        assertThat(sessions).isEmpty();
+        assertThat(uploadLayout.stagingDirectory()).isEmptyDirectory();
+        assertThatThrownBy(() -> service.getProgress(token)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void expiredSessionsAndSessionFilesLeftWithoutOneAreDeleted() throws IOException {
+        String live = create(image.length, sha256(image)).uploadId();
+        String idle = create(image.length, sha256(image)).uploadId();
+        sessions.get(idle).setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        Path orphan = Files.writeString(uploadLayout.stagingDirectory().resolve("lost.upload"), "partial");
+        Path recent = Files.writeString(uploadLayout.stagingDirectory().resolve("new.upload"), "partial");
+        Files.setLastModifiedTime(orphan, FileTime.from(Instant.now().minus(Duration.ofHours(25))));
+
+        service.expireSessions();
+
+        assertThat(sessions).containsOnlyKeys(live);
+        assertThatThrownBy(() -> service.getProgress(idle)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(uploadLayout.stagingDirectory().resolve(idle + ".upload")).doesNotExist();
+        assertThat(uploadLayout.stagingDirectory().resolve(live + ".upload")).exists();
+        assertThat(orphan).doesNotExist();
+        // Its session may be about to be recorded
+        assertThat(recent).exists();
+    }
+
+    private UploadProgress create(long size, String checksum) {
+        return service.create(new UploadSessionRequest("photo.png", "destinations", size, checksum));
+    }
+
+    private UploadProgress write(String token, long offset, int from, int to) {
+        return service.writeChunk(token, offset, new ByteArrayInputStream(image, from, to - from));
+    }
+
+    /**
+     * Repository keeping sessions in a map, with the progress update's conditions
+     */
+    private static UploadSessionRepository repository(Map<String, UploadSession> sessions) {
+        return (UploadSessionRepository) Proxy.newProxyInstance(UploadSessionRepository.class.getClassLoader(),
+                new Class<?>[]{UploadSessionRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        UploadSession session = (UploadSession) args[0];
+                        sessions.put(session.getToken(), session);
+                        yield session;
+                    }
+                    case "findByToken" -> Optional.ofNullable(sessions.get((String) args[0]));
+                    case "findByExpiresAtBeforeOrderByExpiresAt" -> sessions.values().stream()
+                            .filter(session -> session.getExpiresAt().isBefore((LocalDateTime) args[0]))
+                            .sorted(Comparator.comparing(UploadSession::getExpiresAt))
+                            .limit(((Pageable) args[1]).getPageSize())
+                            .toList();
+                    case "recordProgress" -> {
+                        UploadSession session = sessions.get((String) args[0]);
+                        if (session == null || session.getReceivedBytes() < (Long) args[1]) {
+                            yield 0;
+                        }
+                        session.setReceivedBytes(Math.max(session.getReceivedBytes(), (Long) args[2]));
+                        session.setExpiresAt((LocalDateTime) args[3]);
+                        yield 1;
+                    }
+                    case "delete" -> {
+                        sessions.remove(((UploadSession) args[0]).getToken());
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static byte[] image() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 16; x++) {
+            image.setRGB(x, x, 0x10101 * x * 15);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
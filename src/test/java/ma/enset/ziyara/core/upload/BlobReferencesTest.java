@@ -0,0 +1,143 @@
+package ma.enset.ziyara.core.upload;
+
+import ma.enset.ziyara.core.service.FileUploadService;
+import ma.enset.ziyara.core.upload.BlobReferences.BlobLock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reference counting of content-addressed files, against the application's database and upload directory;
+ * shares the context of {@link ma.enset.ziyara.ZiyaraBackendApplicationTests}, and deletes what it stores
+ */
+@SpringBootTest
+class BlobReferencesTest {
+
+    private static final String BLOB_LOCKS_SQL = """
+        SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' AND classid = 45323 AND objsubid = 2 AND pid = ?
+        """;
+
+    @Autowired
+    private FileUploadService fileUploadService;
+
+    @Autowired
+    private BlobReferences blobReferences;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void fileIsDeletedWithItsLastReference() throws IOException {
+        byte[] image = uniqueImage();
+        String fileUrl = store(image);
+        assertThat(store(image)).isEqualTo(fileUrl);
+        assertThat(referenceCount(fileUrl)).containsExactly(2L);
+
+        assertThat(fileUploadService.deleteFile(fileUrl)).isFalse();
+        assertThat(referenceCount(fileUrl)).containsExactly(1L);
+        assertThat(fileUploadService.fileExists(fileUrl)).isTrue();
+
+        assertThat(fileUploadService.deleteFile(fileUrl)).isTrue();
+        assertThat(referenceCount(fileUrl)).isEmpty();
+        assertThat(fileUploadService.fileExists(fileUrl)).isFalse();
+    }
+
+    @Test
+    void fileReleasedInATransactionIsKeptIfLinkedAgainBeforeItsDeletion() throws IOException {
+        byte[] image = uniqueImage();
+        String fileUrl = store(image);
+
+        assertThat(releaseInTransaction(fileUrl)).isTrue();
+        assertThat(referenceCount(fileUrl)).isEmpty();
+        assertThat(fileUploadService.fileExists(fileUrl)).isTrue();
+
+        assertThat(store(image)).isEqualTo(fileUrl);
+        assertThat(fileUploadService.deleteIfUnreferenced(fileUrl)).isFalse();
+        assertThat(fileUploadService.fileExists(fileUrl)).isTrue();
+
+        assertThat(releaseInTransaction(fileUrl)).isTrue();
+        assertThat(fileUploadService.deleteIfUnreferenced(fileUrl)).isTrue();
+        assertThat(fileUploadService.fileExists(fileUrl)).isFalse();
+        // A retry after the file is gone is harmless
+        assertThat(fileUploadService.deleteIfUnreferenced(fileUrl)).isFalse();
+    }
+
+    @Test
+    void releaseRolledBackWithItsTransactionKeepsTheReference() throws IOException {
+        String fileUrl = store(uniqueImage());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            fileUploadService.releaseInTransaction(fileUrl);
+            status.setRollbackOnly();
+        });
+
+        assertThat(referenceCount(fileUrl)).containsExactly(1L);
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                status -> fileUploadService.deleteFile(fileUrl))).isInstanceOf(IllegalStateException.class);
+        assertThat(fileUploadService.fileExists(fileUrl)).isTrue();
+        assertThat(fileUploadService.deleteFile(fileUrl)).isTrue();
+    }
+
+    @Test
+    void lockWithinATransactionTakesNoConnectionOfItsOwn() {
+        String fileUrl = "/destinations/" + "ab".repeat(32) + ".png";
+
+        long pid = transactionTemplate.execute(status -> {
+            long backend = jdbcTemplate.queryForObject("SELECT pg_backend_pid()", Long.class);
+            try (BlobLock lock = blobReferences.lock(fileUrl)) {
+                assertThat(heldBlobLocks(backend)).isEqualTo(1);
+            }
+            // Held on the caller's connection until its transaction ends
+            assertThat(heldBlobLocks(backend)).isEqualTo(1);
+            return backend;
+        });
+
+        assertThat(heldBlobLocks(pid)).isZero();
+    }
+
+    private String store(byte[] content) {
+        return fileUploadService.storeFile(new ByteArrayInputStream(content), "photo.png", "destinations").fileUrl();
+    }
+
+    private boolean releaseInTransaction(String fileUrl) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> fileUploadService.releaseInTransaction(fileUrl)));
+    }
+
+    private List<Long> referenceCount(String fileUrl) {
+        return jdbcTemplate.queryForList("SELECT reference_count FROM stored_blobs WHERE file_url = ?", Long.class,
+                fileUrl);
+    }
+
+    private long heldBlobLocks(long pid) {
+        return jdbcTemplate.queryForObject(BLOB_LOCKS_SQL, Long.class, pid);
+    }
+
+    /**
+     * An image no earlier run stored, as the database outlives the test
+     */
+    private static byte[] uniqueImage() throws IOException {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        long seed = ThreadLocalRandom.current().nextLong();
+        image.setRGB(0, 0, (int) seed);
+        image.setRGB(1, 0, (int) (seed >>> 32));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
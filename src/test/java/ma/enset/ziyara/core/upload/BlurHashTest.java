@@ -0,0 +1,54 @@
+package ma.enset.ziyara.core.upload;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlurHashTest {
+
+    @Test
+    void hashStartsWithComponentCountAndAverageColour() {
+        BufferedImage red = filled(new Color(255, 0, 0), 32, 24);
+
+        String hash = BlurHash.encode(red, 4, 3);
+
+        // Size flag for 4x3 components, then, after the AC maximum, the DC component #FF0000
+        assertThat(hash).startsWith("L");
+        assertThat(hash.substring(2, 6)).isEqualTo("TI:j");
+    }
+
+    @Test
+    void hashLengthFollowsComponentCount() {
+        BufferedImage image = filled(Color.BLUE, 20, 20);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.YELLOW);
+        graphics.fillRect(0, 0, 10, 20);
+        graphics.dispose();
+
+        assertThat(BlurHash.encode(image, 4, 3)).hasSize(6 + 2 * (4 * 3 - 1));
+        assertThat(BlurHash.encode(image, 1, 1)).hasSize(6);
+        assertThat(BlurHash.encode(image, 4, 3)).isNotEqualTo(BlurHash.encode(filled(Color.BLUE, 20, 20), 4, 3));
+    }
+
+    @Test
+    void componentCountsOutsideOneToNineAreRejected() {
+        BufferedImage image = filled(Color.WHITE, 4, 4);
+
+        assertThatThrownBy(() -> BlurHash.encode(image, 0, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BlurHash.encode(image, 4, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BufferedImage filled(Color color, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,115 @@
+package ma.enset.ziyara.core.upload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExifOrientationTest {
+
+    private static final int RED = Color.RED.getRGB();
+    private static final int BLUE = Color.BLUE.getRGB();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void orientationIsReadInEitherByteOrder() throws IOException {
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(jpeg(30, 20, 6, ByteOrder.BIG_ENDIAN)))).isEqualTo(6);
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(jpeg(30, 20, 8, ByteOrder.LITTLE_ENDIAN)))).isEqualTo(8);
+    }
+
+    @Test
+    void missingOrMalformedOrientationIsNormal() throws IOException {
+        byte[] plain = jpegWithoutExif(30, 20);
+        byte[] invalid = jpeg(30, 20, 9, ByteOrder.BIG_ENDIAN);
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(plain))).isEqualTo(ExifOrientation.NORMAL);
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(invalid))).isEqualTo(ExifOrientation.NORMAL);
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(png))).isEqualTo(ExifOrientation.NORMAL);
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(new byte[]{(byte) 0xFF, (byte) 0xD8})))
+                .isEqualTo(ExifOrientation.NORMAL);
+    }
+
+    @Test
+    void metadataReportsDisplayedDimensions() throws IOException {
+        Path rotated = directory.resolve("portrait.jpg");
+        Files.write(rotated, jpeg(30, 20, 6, ByteOrder.BIG_ENDIAN));
+        Path upright = directory.resolve("landscape.jpg");
+        Files.write(upright, jpeg(30, 20, 3, ByteOrder.BIG_ENDIAN));
+
+        assertThat(ImageMetadata.read(rotated)).isEqualTo(new ImageMetadata(20, 30, "jpeg"));
+        assertThat(ImageMetadata.read(upright)).isEqualTo(new ImageMetadata(30, 20, "jpeg"));
+    }
+
+    @Test
+    void applyTurnsPixelsUpright() {
+        // 3x2, red top-left and blue top-right
+        BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, RED);
+        image.setRGB(2, 0, BLUE);
+
+        BufferedImage clockwise = ExifOrientation.apply(image, 6);
+        assertThat(clockwise.getWidth()).isEqualTo(2);
+        assertThat(clockwise.getHeight()).isEqualTo(3);
+        assertThat(clockwise.getRGB(1, 0)).isEqualTo(RED);
+        assertThat(clockwise.getRGB(1, 2)).isEqualTo(BLUE);
+
+        BufferedImage counterClockwise = ExifOrientation.apply(image, 8);
+        assertThat(counterClockwise.getRGB(0, 2)).isEqualTo(RED);
+        assertThat(counterClockwise.getRGB(0, 0)).isEqualTo(BLUE);
+
+        BufferedImage upsideDown = ExifOrientation.apply(image, 3);
+        assertThat(upsideDown.getWidth()).isEqualTo(3);
+        assertThat(upsideDown.getRGB(2, 1)).isEqualTo(RED);
+        assertThat(upsideDown.getRGB(0, 1)).isEqualTo(BLUE);
+
+        BufferedImage transposed = ExifOrientation.apply(image, 5);
+        assertThat(transposed.getRGB(0, 0)).isEqualTo(RED);
+        assertThat(transposed.getRGB(0, 2)).isEqualTo(BLUE);
+
+        assertThat(ExifOrientation.apply(image, ExifOrientation.NORMAL)).isSameAs(image);
+    }
+
+    private static byte[] jpeg(int width, int height, int orientation, ByteOrder order) throws IOException {
+        byte[] plain = jpegWithoutExif(width, height);
+
+        ByteBuffer tiff = ByteBuffer.allocate(26).order(order);
+        tiff.put(order == ByteOrder.BIG_ENDIAN ? (byte) 'M' : (byte) 'I');
+        tiff.put(order == ByteOrder.BIG_ENDIAN ? (byte) 'M' : (byte) 'I');
+        tiff.putShort((short) 42).putInt(8);
+        // One IFD entry: Orientation, SHORT, count 1, value padded to four bytes
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+
+        byte[] exif = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        int length = 2 + exif.length + tiff.capacity();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(plain, 0, 2);
+        out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) (length >> 8), (byte) length});
+        out.write(exif);
+        out.write(tiff.array());
+        out.write(plain, 2, plain.length - 2);
+        return out.toByteArray();
+    }
+
+    private static byte[] jpegWithoutExif(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+}
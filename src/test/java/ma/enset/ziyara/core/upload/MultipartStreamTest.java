@@ -0,0 +1,231 @@
+package ma.enset.ziyara.core.upload;
+
+import ma.enset.ziyara.core.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultipartStreamTest {
+
+    private static final String BOUNDARY = "----ziyara7MA4YWxkTrZu0gW";
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=" + BOUNDARY;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Test
+    void delimiterSplitAcrossBufferBoundaryIsFound() throws IOException {
+        Random random = new Random(41);
+        // The first fill reads a whole buffer, so some of these lengths leave the delimiter straddling its end
+        for (int length = BUFFER_SIZE - 256; length <= BUFFER_SIZE + 32; length++) {
+            byte[] file = new byte[length];
+            random.nextBytes(file);
+            byte[] body = concat(
+                    ascii("--" + BOUNDARY + "\r\n"
+                            + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                            + "Content-Type: image/jpeg\r\n\r\n"),
+                    file,
+                    ascii("\r\n--" + BOUNDARY + "\r\n"
+                            + "Content-Disposition: form-data; name=\"category\"\r\n\r\n"
+                            + "destinations\r\n--" + BOUNDARY + "--\r\n"));
+
+            MultipartStream multipart = MultipartStream.of(new ByteArrayInputStream(body), CONTENT_TYPE);
+            MultipartStream.Part part = multipart.nextPart();
+            assertThat(part.filename()).isEqualTo("photo.jpg");
+            assertThat(part.content().readAllBytes()).as("content of %d bytes", length).isEqualTo(file);
+            assertThat(multipart.nextPart().readString(100)).isEqualTo("destinations");
+            assertThat(multipart.nextPart()).isNull();
+        }
+    }
+
+    @Test
+    void partialDelimitersInContentAreKept() throws IOException {
+        String content = "a\r\n--" + BOUNDARY.substring(0, 10) + "b\r\n-\r\n--";
+        byte[] body = ascii("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"note\"\r\n\r\n"
+                + content + "\r\n--" + BOUNDARY + "--\r\n");
+
+        // A few bytes per read, so lines and delimiters also arrive in pieces
+        MultipartStream multipart = MultipartStream.of(new TricklingInputStream(body, 3), CONTENT_TYPE);
+
+        assertThat(multipart.nextPart().readString(100)).isEqualTo(content);
+        assertThat(multipart.nextPart()).isNull();
+    }
+
+    @Test
+    void preambleAndTransportPaddingAreSkipped() throws IOException {
+        byte[] body = ascii("This is a preamble, to be ignored.\r\n"
+                + "--" + BOUNDARY + " \t \r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + "Jemaa el-Fna\r\n--" + BOUNDARY + "\t\r\n"
+                + "Content-Disposition: form-data; name=\"city\"\r\n\r\n"
+                + "Marrakech\r\n--" + BOUNDARY + "--  \r\n");
+
+        MultipartStream multipart = MultipartStream.of(new ByteArrayInputStream(body), CONTENT_TYPE);
+
+        MultipartStream.Part title = multipart.nextPart();
+        assertThat(title.name()).isEqualTo("title");
+        assertThat(title.readString(100)).isEqualTo("Jemaa el-Fna");
+        MultipartStream.Part city = multipart.nextPart();
+        assertThat(city.name()).isEqualTo("city");
+        assertThat(city.readString(100)).isEqualTo("Marrakech");
+        assertThat(multipart.nextPart()).isNull();
+    }
+
+    @Test
+    void quotedBoundaryAndFilenameAreUnquoted() throws IOException {
+        String boundary = "simple boundary:=?";
+        byte[] body = ascii("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; filename=\"riad; \\\"chez Ali\\\".jpg\"; name=\"file\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n"
+                + "jpeg\r\n--" + boundary + "--\r\n");
+
+        MultipartStream multipart = MultipartStream.of(new ByteArrayInputStream(body),
+                "multipart/form-data; boundary=\"" + boundary + "\"");
+
+        MultipartStream.Part part = multipart.nextPart();
+        assertThat(part.name()).isEqualTo("file");
+        assertThat(part.filename()).isEqualTo("riad; \"chez Ali\".jpg");
+        assertThat(part.contentType()).isEqualTo("image/jpeg");
+        assertThat(part.readString(100)).isEqualTo("jpeg");
+        assertThat(multipart.nextPart()).isNull();
+    }
+
+    @Test
+    void missingOrEmptyBoundaryIsRejected() {
+        assertThatThrownBy(() -> MultipartStream.of(InputStream.nullInputStream(), "multipart/form-data"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> MultipartStream.of(InputStream.nullInputStream(), "multipart/form-data; boundary=\"\""))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> MultipartStream.of(InputStream.nullInputStream(), "application/json"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void bodyTruncatedMidPartIsRejected() throws IOException {
+        byte[] body = ascii("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n\r\n"
+                + "only half of the ");
+        MultipartStream multipart = MultipartStream.of(new ByteArrayInputStream(body), CONTENT_TYPE);
+        MultipartStream.Part part = multipart.nextPart();
+
+        assertThatThrownBy(() -> part.content().readAllBytes())
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Unexpected end");
+
+        byte[] cutInHeaders = ascii("--" + BOUNDARY + "\r\nContent-Disposition: form-da");
+        MultipartStream headers = MultipartStream.of(new ByteArrayInputStream(cutInHeaders), CONTENT_TYPE);
+        assertThatThrownBy(headers::nextPart).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void oversizedPartHeadersAreRejected() throws IOException {
+        byte[] longLine = ascii("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + "x".repeat(9000) + "\"\r\n\r\n"
+                + "value\r\n--" + BOUNDARY + "--\r\n");
+        MultipartStream single = MultipartStream.of(new ByteArrayInputStream(longLine), CONTENT_TYPE);
+        assertThatThrownBy(single::nextPart)
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("too large");
+
+        // Never terminated: rejected once the limit is buffered, without reading the rest
+        byte[] endless = concat(ascii("--" + BOUNDARY + "\r\nX-Padding: "), ascii("x".repeat(BUFFER_SIZE * 4)));
+        MultipartStream unterminated = MultipartStream.of(new ByteArrayInputStream(endless), CONTENT_TYPE);
+        assertThatThrownBy(unterminated::nextPart)
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("too large");
+
+        byte[] manyLines = ascii("--" + BOUNDARY + "\r\n"
+                + "X-Padding: 0123456789abcdef0123456789abcdef\r\n".repeat(300) + "\r\n"
+                + "value\r\n--" + BOUNDARY + "--\r\n");
+        MultipartStream many = MultipartStream.of(new ByteArrayInputStream(manyLines), CONTENT_TYPE);
+        assertThatThrownBy(many::nextPart)
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("too large");
+    }
+
+    @Test
+    void bytesAfterClosingBoundaryAreIgnored() throws IOException {
+        byte[] body = ascii("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + "Kasbah\r\n--" + BOUNDARY + "--\r\n"
+                + "An epilogue, with what looks like another part:\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"smuggled\"\r\n\r\n"
+                + "ignored\r\n--" + BOUNDARY + "--\r\n");
+
+        MultipartStream multipart = MultipartStream.of(new ByteArrayInputStream(body), CONTENT_TYPE);
+
+        assertThat(multipart.nextPart().readString(100)).isEqualTo("Kasbah");
+        assertThat(multipart.nextPart()).isNull();
+        assertThat(multipart.nextPart()).isNull();
+    }
+
+    @Test
+    void unreadPartIsSkipped() throws IOException {
+        byte[] body = ascii("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"skipped\"\r\n\r\n"
+                + "x".repeat(BUFFER_SIZE * 2) + "\r\n--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"kept\"\r\n\r\n"
+                + "value\r\n--" + BOUNDARY + "--\r\n");
+
+        MultipartStream multipart = MultipartStream.of(new ByteArrayInputStream(body), CONTENT_TYPE);
+
+        assertThat(multipart.nextPart().name()).isEqualTo("skipped");
+        MultipartStream.Part kept = multipart.nextPart();
+        assertThat(kept.name()).isEqualTo("kept");
+        assertThat(kept.readString(100)).isEqualTo("value");
+    }
+
+    @Test
+    void parameterIgnoresSemicolonsInQuotes() {
+        String header = "form-data; name=\"a;b\"; filename=\"c\\\\d.jpg\"";
+
+        assertThat(MultipartStream.parameter(header, "name")).isEqualTo("a;b");
+        assertThat(MultipartStream.parameter(header, "filename")).isEqualTo("c\\d.jpg");
+        assertThat(MultipartStream.parameter("form-data; name=plain", "name")).isEqualTo("plain");
+        assertThat(MultipartStream.parameter("form-data; filename=\"x\"", "name")).isNull();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Hands out at most {@code chunk} bytes per read, like a slow connection
+     */
+    private static final class TricklingInputStream extends InputStream {
+
+        private final ByteArrayInputStream in;
+        private final int chunk;
+
+        private TricklingInputStream(byte[] bytes, int chunk) {
+            this.in = new ByteArrayInputStream(bytes);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read() {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            return in.read(target, offset, Math.min(length, chunk));
+        }
+    }
+}
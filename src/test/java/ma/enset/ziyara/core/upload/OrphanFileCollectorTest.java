@@ -0,0 +1,93 @@
+package ma.enset.ziyara.core.upload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrphanFileCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareFollowsTheWalkOrder() {
+        // As strings "a-b/1.jpg" sorts before "a/1.jpg", but the walk visits "a" before "a-b"
+        assertThat(OrphanFileCollector.compare(Path.of("a/1.jpg"), Path.of("a-b/1.jpg"))).isNegative();
+        assertThat(OrphanFileCollector.compare(Path.of("a/z.jpg"), Path.of("a-b"))).isNegative();
+        assertThat(OrphanFileCollector.compare(Path.of("a"), Path.of("a/1.jpg"))).isNegative();
+        assertThat(OrphanFileCollector.compare(Path.of("a/2.jpg"), Path.of("a/10.jpg"))).isPositive();
+        assertThat(OrphanFileCollector.compare(Path.of("b"), Path.of("a/1.jpg"))).isPositive();
+        assertThat(OrphanFileCollector.compare(Path.of("a/1.jpg"), Path.of("a/1.jpg"))).isZero();
+    }
+
+    @Test
+    void passResumesFromTheCursor() throws IOException {
+        for (String file : List.of("a/1.jpg", "a/2.jpg", "a/3.jpg", "a-b/1.jpg", "b/1.jpg", ".staging/x.part")) {
+            write(file);
+        }
+        List<Set<String>> lookups = new ArrayList<>();
+        OrphanFileCollector collector = collector(2, fileUrls -> {
+            lookups.add(new TreeSet<>(fileUrls));
+            // Everything is referenced, so nothing is collected
+            return Set.copyOf(fileUrls);
+        });
+
+        collector.collect();
+        // The cursor file going away, or a file appearing behind it, does not change where the pass resumes
+        Files.delete(directory.resolve("a/2.jpg"));
+        write("a/0.jpg");
+        collector.collect();
+        collector.collect();
+
+        assertThat(lookups).containsExactly(
+                Set.of("/a/1.jpg", "/a/2.jpg"),
+                Set.of("/a/3.jpg", "/a-b/1.jpg"),
+                Set.of("/b/1.jpg"));
+        assertThat(ReflectionTestUtils.getField(collector, "cursor")).isNull();
+
+        // The next pass starts over
+        collector.collect();
+        assertThat(lookups.getLast()).isEqualTo(Set.of("/a/0.jpg", "/a/1.jpg"));
+    }
+
+    @Test
+    void stagingSweepLeavesUploadSessionFilesToTheirExpiry() throws IOException {
+        write(".staging/x.part");
+        write(".staging/0b1c.upload");
+
+        collector(2, Set::copyOf).collect();
+
+        assertThat(directory.resolve(".staging/x.part")).doesNotExist();
+        assertThat(directory.resolve(".staging/0b1c.upload")).exists();
+    }
+
+    private OrphanFileCollector collector(int chunkSize, FileReferenceSource source) {
+        OrphanFileCollector collector = new OrphanFileCollector(
+                new UploadLayout(directory.toString(), 0), null, List.of(source));
+        ReflectionTestUtils.setField(collector, "enabled", true);
+        ReflectionTestUtils.setField(collector, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(collector, "gracePeriodHours", 1L);
+        ReflectionTestUtils.setField(collector, "quarantineRetentionDays", 30L);
+        return collector;
+    }
+
+    private void write(String name) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, name);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+    }
+}
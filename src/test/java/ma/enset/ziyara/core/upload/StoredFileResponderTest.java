@@ -0,0 +1,93 @@
+package ma.enset.ziyara.core.upload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoredFileResponderTest {
+
+    private static final String ETAG = "\"18f76999e4b-400\"";
+    /** Tue, 14 May 2024 10:15:30 GMT, with milliseconds an HTTP date cannot carry */
+    private static final long LAST_MODIFIED = 1715681730123L;
+    private static final String LAST_MODIFIED_DATE = "Tue, 14 May 2024 10:15:30 GMT";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void ifRangeAcceptsOnlyTheCurrentStrongEtagOrDate() {
+        assertThat(StoredFileResponder.ifRangeMatches(null, ETAG, LAST_MODIFIED)).isTrue();
+        assertThat(StoredFileResponder.ifRangeMatches(ETAG, ETAG, LAST_MODIFIED)).isTrue();
+        assertThat(StoredFileResponder.ifRangeMatches(" " + ETAG + " ", ETAG, LAST_MODIFIED)).isTrue();
+        assertThat(StoredFileResponder.ifRangeMatches(LAST_MODIFIED_DATE, ETAG, LAST_MODIFIED)).isTrue();
+
+        assertThat(StoredFileResponder.ifRangeMatches("\"18f76999e4b-401\"", ETAG, LAST_MODIFIED)).isFalse();
+        assertThat(StoredFileResponder.ifRangeMatches("W/" + ETAG, ETAG, LAST_MODIFIED)).isFalse();
+        assertThat(StoredFileResponder.ifRangeMatches("Tue, 14 May 2024 10:15:29 GMT", ETAG, LAST_MODIFIED)).isFalse();
+        assertThat(StoredFileResponder.ifRangeMatches("yesterday", ETAG, LAST_MODIFIED)).isFalse();
+    }
+
+    @Test
+    void singleRangeIsHonouredOnlyAlone() {
+        HttpRange range = StoredFileResponder.singleRange(request("bytes=100-199", null), ETAG, LAST_MODIFIED);
+        assertThat(range.getRangeStart(1024)).isEqualTo(100);
+        assertThat(range.getRangeEnd(1024)).isEqualTo(199);
+
+        HttpRange suffix = StoredFileResponder.singleRange(request("bytes=-24", ETAG), ETAG, LAST_MODIFIED);
+        assertThat(suffix.getRangeStart(1024)).isEqualTo(1000);
+        assertThat(suffix.getRangeEnd(1024)).isEqualTo(1023);
+
+        assertThat(StoredFileResponder.singleRange(request(null, null), ETAG, LAST_MODIFIED)).isNull();
+        assertThat(StoredFileResponder.singleRange(request("bytes=0-1,10-11", null), ETAG, LAST_MODIFIED)).isNull();
+        assertThat(StoredFileResponder.singleRange(request("bytes=abc", null), ETAG, LAST_MODIFIED)).isNull();
+        assertThat(StoredFileResponder.singleRange(request("lines=1-2", null), ETAG, LAST_MODIFIED)).isNull();
+        assertThat(StoredFileResponder.singleRange(request("bytes=0-9", "\"stale\""), ETAG, LAST_MODIFIED)).isNull();
+    }
+
+    @Test
+    void rangeIsServedAsPartialContent() throws IOException {
+        Path file = directory.resolve("notes.txt");
+        Files.writeString(file, "abcdefghij");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochMilli(LAST_MODIFIED)));
+        StoredFileResponder responder = new StoredFileResponder();
+
+        MockHttpServletResponse partial = new MockHttpServletResponse();
+        responder.respond(file, "text/plain", request("bytes=2-4", LAST_MODIFIED_DATE), partial);
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-4/10");
+        assertThat(partial.getContentAsString(StandardCharsets.US_ASCII)).isEqualTo("cde");
+
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        responder.respond(file, "text/plain", request("bytes=2-4", "\"stale\""), changed);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getContentAsString(StandardCharsets.US_ASCII)).isEqualTo("abcdefghij");
+
+        MockHttpServletResponse unsatisfiable = new MockHttpServletResponse();
+        responder.respond(file, "text/plain", request("bytes=10-", null), unsatisfiable);
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    private static MockHttpServletRequest request(String range, String ifRange) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/notes.txt");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,107 @@
+package ma.enset.ziyara.core.upload;
+
+import ma.enset.ziyara.core.dto.LayoutMigrationBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadLayoutMigratorTest {
+
+    private static final String BLOB = "3fa2" + "0".repeat(60) + ".jpg";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void batchesResumeUntilEveryFlatFileIsSharded() throws IOException {
+        UploadLayout layout = new UploadLayout(directory.toString(), 2);
+        List<String> lockedUrls = new ArrayList<>();
+        UploadLayoutMigrator migrator = new UploadLayoutMigrator(layout, blobReferences(lockedUrls));
+        for (String url : List.of("/destinations/a.jpg", "/destinations/b.jpg", "/general/c.png",
+                "/destinations/" + BLOB)) {
+            write(layout.flatPath(url), url);
+        }
+        // Same content already sharded, and a different file already at the sharded path
+        write(layout.storagePath("/destinations/" + BLOB), "/destinations/" + BLOB);
+        write(layout.storagePath("/destinations/b.jpg"), "another b");
+        write(directory.resolve("destinations/d.jpg.part"), "partial");
+
+        List<LayoutMigrationBatch> batches = new ArrayList<>();
+        do {
+            batches.add(migrator.migrateBatch(2));
+        } while (!batches.getLast().complete());
+
+        // Four flat files, two per batch, in directory order
+        assertThat(batches).hasSize(2);
+        assertThat(batches.getFirst().complete()).isFalse();
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.moved() + batch.failed()).isEqualTo(2));
+        assertThat(batches.stream().mapToInt(LayoutMigrationBatch::failed).sum()).isEqualTo(1);
+        assertThat(migrator.migrateBatch(2)).isEqualTo(new LayoutMigrationBatch(0, 0, true));
+        for (String url : List.of("/destinations/a.jpg", "/general/c.png", "/destinations/" + BLOB)) {
+            assertThat(layout.flatPath(url)).doesNotExist();
+            assertThat(layout.storagePath(url)).hasContent(url);
+        }
+        // Left in place, and not retried by the batches that followed
+        assertThat(layout.flatPath("/destinations/b.jpg")).hasContent("/destinations/b.jpg");
+        assertThat(layout.storagePath("/destinations/b.jpg")).hasContent("another b");
+        assertThat(lockedUrls).filteredOn("/destinations/b.jpg"::equals).hasSize(1);
+        assertThat(directory.resolve("destinations/d.jpg.part")).exists();
+    }
+
+    @Test
+    void onlyCompleteFlatFilesAreMoved() throws IOException {
+        UploadLayout layout = new UploadLayout(directory.toString(), 2);
+        UploadLayoutMigrator migrator = new UploadLayoutMigrator(layout, blobReferences(new ArrayList<>()));
+        Path flat = write(directory.resolve("destinations/a.jpg"), "a");
+        Path partial = write(directory.resolve("destinations/b.jpg.part"), "b");
+        Files.createDirectories(directory.resolve("destinations/3f"));
+
+        assertThat(migrator.isFlatFile(flat)).isTrue();
+        assertThat(migrator.isFlatFile(partial)).isFalse();
+        assertThat(migrator.isFlatFile(directory.resolve("destinations/3f"))).isFalse();
+    }
+
+    @Test
+    void unshardedLayoutHasNothingToMigrate() throws IOException {
+        UploadLayout layout = new UploadLayout(directory.toString(), 0);
+        UploadLayoutMigrator migrator = new UploadLayoutMigrator(layout, blobReferences(new ArrayList<>()));
+        Path flat = write(directory.resolve("destinations/a.jpg"), "a");
+
+        assertThat(migrator.migrateBatch(10)).isEqualTo(new LayoutMigrationBatch(0, 0, true));
+        assertThat(flat).exists();
+    }
+
+    private static Path write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        return Files.writeString(path, content);
+    }
+
+    /**
+     * Blob locks without a database, recording the URLs locked
+     */
+    private static BlobReferences blobReferences(List<String> lockedUrls) {
+        PlatformTransactionManager transactionManager = (PlatformTransactionManager) Proxy.newProxyInstance(
+                PlatformTransactionManager.class.getClassLoader(), new Class<?>[]{PlatformTransactionManager.class},
+                (proxy, method, args) -> method.getName().equals("getTransaction") ? new SimpleTransactionStatus() : null);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> T query(String sql, ResultSetExtractor<T> rse, Object... args) {
+                lockedUrls.add((String) args[1]);
+                return null;
+            }
+        };
+        return new BlobReferences(null, jdbcTemplate, transactionManager);
+    }
+}
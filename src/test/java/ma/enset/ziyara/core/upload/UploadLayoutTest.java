@@ -0,0 +1,72 @@
+package ma.enset.ziyara.core.upload;
+
+import ma.enset.ziyara.core.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadLayoutTest {
+
+    private static final String BLOB = "3fa2" + "0".repeat(60);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void contentAddressedNameSuppliesItsOwnShard() {
+        UploadLayout layout = new UploadLayout(directory.toString(), 2);
+
+        assertThat(layout.storagePath("/destinations/" + BLOB + ".jpg"))
+                .isEqualTo(directory.resolve("destinations/3f/a2/" + BLOB + ".jpg"));
+        // Variants share the blob's prefix, so they land beside it
+        assertThat(layout.storagePath("/destinations/" + BLOB + "_thumb.webp").getParent())
+                .isEqualTo(directory.resolve("destinations/3f/a2"));
+    }
+
+    @Test
+    void storedPathMapsBackToItsUrl() {
+        UploadLayout layout = new UploadLayout(directory.toString(), 2);
+
+        for (String url : new String[]{"/destinations/photo.jpg", "/general/" + BLOB + ".png"}) {
+            Path flat = layout.flatPath(url);
+            Path sharded = layout.storagePath(url);
+            assertThat(sharded).isNotEqualTo(flat);
+            assertThat(layout.shard(flat)).isEqualTo(sharded);
+            assertThat(layout.urlOf(flat)).isEqualTo(url);
+            assertThat(layout.urlOfStored(sharded)).isEqualTo(url);
+            assertThat(layout.urlOfStored(flat)).isEqualTo(url);
+        }
+    }
+
+    @Test
+    void pathsNoUrlIsStoredAtHaveNone() {
+        UploadLayout layout = new UploadLayout(directory.toString(), 2);
+
+        assertThat(layout.urlOfStored(directory.resolve("photo.jpg"))).isNull();
+        // Right depth, wrong shard
+        assertThat(layout.urlOfStored(directory.resolve("destinations/00/00/photo.jpg"))).isNull();
+        assertThat(layout.urlOfStored(directory.resolve("destinations/3f/" + BLOB + ".jpg"))).isNull();
+    }
+
+    @Test
+    void unshardedLayoutStoresFlat() {
+        UploadLayout layout = new UploadLayout(directory.toString(), 0);
+
+        assertThat(layout.isSharded()).isFalse();
+        assertThat(layout.storagePath("/destinations/photo.jpg")).isEqualTo(directory.resolve("destinations/photo.jpg"));
+    }
+
+    @Test
+    void urlsOutsideTheServedTreeAreRejected() {
+        UploadLayout layout = new UploadLayout(directory.toString(), 2);
+
+        for (String url : new String[]{"", "/", "/../secret.jpg", "/.staging/x.upload", "/.quarantine/a/b.jpg"}) {
+            assertThatThrownBy(() -> layout.storagePath(url)).as(url).isInstanceOf(BadRequestException.class);
+        }
+        assertThatThrownBy(() -> new UploadLayout(directory.toString(), 5)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,123 @@
+package ma.enset.ziyara.destination.service;
+
+import ma.enset.ziyara.city.entity.City;
+import ma.enset.ziyara.city.mapper.CityMapperImpl;
+import ma.enset.ziyara.core.cache.LocalCacheInvalidationBus;
+import ma.enset.ziyara.core.cache.TwoLevelCacheManager;
+import ma.enset.ziyara.core.cache.TwoLevelCacheProperties;
+import ma.enset.ziyara.destination.dto.DestinationDto;
+import ma.enset.ziyara.destination.entity.Destination;
+import ma.enset.ziyara.destination.entity.DestinationType;
+import ma.enset.ziyara.destination.mapper.DestinationMapperImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DestinationNearCacheTest {
+
+    private final TwoLevelCacheManager cacheManager =
+            new TwoLevelCacheManager(new TwoLevelCacheProperties(), null, new LocalCacheInvalidationBus());
+    private final DestinationNearCache nearCache = new DestinationNearCache(
+            new DestinationMapperImpl(new CityMapperImpl()), cacheManager, DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+
+    private final City marrakech = city(10L, "Marrakech");
+    private final City fes = city(20L, "Fes");
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void entryIsServedUntilItsDestinationTagIsEvicted() {
+        assertThat(get(1L, marrakech, 0L).getName()).isEqualTo("Destination 1 v0");
+        assertThat(get(1L, marrakech, 1L).getName()).isEqualTo("Destination 1 v0");
+        assertThat(loads).hasValue(1);
+
+        cacheManager.evictTags(List.of("destination:1"));
+
+        assertThat(get(1L, marrakech, 1L).getName()).isEqualTo("Destination 1 v1");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void cityTagEvictionReloadsOnlyThatCitysEntriesWhenRead() {
+        get(1L, marrakech, 0L);
+        get(2L, fes, 0L);
+        marrakech.setName("Marrakesh");
+
+        cacheManager.evictTags(List.of("city:10"));
+
+        assertThat(get(1L, marrakech, 0L).getCityDto().getName()).isEqualTo("Marrakesh");
+        assertThat(get(2L, fes, 0L).getCityDto().getName()).isEqualTo("Fes");
+        assertThat(loads).hasValue(3);
+        // Reloaded under the new generation, so served from the cache again
+        get(1L, marrakech, 0L);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void loadRacingWithDestinationEvictionIsNotCached() {
+        nearCache.get(1L, () -> {
+            cacheManager.evictTags(List.of("destination:1"));
+            return destination(1L, marrakech, 0L);
+        });
+
+        get(1L, marrakech, 1L);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadRacingWithCityEvictionIsReloadedOnNextRead() {
+        nearCache.get(1L, () -> {
+            Destination loaded = destination(1L, marrakech, 0L);
+            cacheManager.evictTags(List.of("city:10"));
+            return loaded;
+        });
+
+        assertThat(get(1L, marrakech, 0L).getName()).isEqualTo("Destination 1 v0");
+        assertThat(loads).hasValue(1);
+        get(1L, marrakech, 0L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void olderVersionNeverReplacesNewerOne() {
+        // A write lands while a read is loading the previous version
+        nearCache.get(1L, () -> {
+            nearCache.writeThrough(destination(1L, marrakech, 2L));
+            return destination(1L, marrakech, 1L);
+        });
+
+        assertThat(get(1L, marrakech, 3L).getName()).isEqualTo("Destination 1 v2");
+        assertThat(loads).hasValue(0);
+    }
+
+    private DestinationDto get(Long id, City city, long version) {
+        return nearCache.get(id, () -> {
+            loads.incrementAndGet();
+            return destination(id, city, version);
+        });
+    }
+
+    private static Destination destination(Long id, City city, long version) {
+        Destination destination = Destination.builder()
+                .name("Destination " + id + " v" + version)
+                .type(DestinationType.HISTORICAL)
+                .city(city)
+                .latitude(31.6)
+                .longitude(-8.0)
+                .build();
+        destination.setId(id);
+        destination.setVersion(version);
+        return destination;
+    }
+
+    private static City city(Long id, String name) {
+        City city = City.builder().name(name).build();
+        city.setId(id);
+        return city;
+    }
+}
@@ -0,0 +1,151 @@
+package ma.enset.ziyara.destination.service;
+
+import ma.enset.ziyara.core.cache.LocalCacheInvalidationBus;
+import ma.enset.ziyara.core.cache.TwoLevelCacheManager;
+import ma.enset.ziyara.core.cache.TwoLevelCacheProperties;
+import ma.enset.ziyara.destination.dto.DestinationPopularity;
+import ma.enset.ziyara.destination.entity.DestinationType;
+import ma.enset.ziyara.destination.repository.DestinationRepository;
+import ma.enset.ziyara.destination.service.PopularDestinationRanking.RankedList;
+import ma.enset.ziyara.destination.service.PopularDestinationRanking.Scope;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PopularDestinationRankingTest {
+
+    private static final Scope ALL = new Scope(null, null);
+
+    @Test
+    void applyReordersAndDropsWhatNoLongerMatches() {
+        RankedList ranking = new RankedList(ALL, 10, List.of(
+                popularity(1, 10, 4.5, 20), popularity(2, 10, 4.0, 10), popularity(3, 20, 3.0, 5)));
+
+        assertThat(ranking.apply(popularity(3, 20, 4.8, 6))).isTrue();
+        assertThat(ranking.snapshot).containsExactly(3L, 1L, 2L);
+
+        // Same rating, more reviews ranks first
+        assertThat(ranking.apply(popularity(2, 10, 4.5, 21))).isTrue();
+        assertThat(ranking.snapshot).containsExactly(3L, 2L, 1L);
+
+        assertThat(ranking.apply(inactive(popularity(1, 10, 4.5, 20)))).isTrue();
+        assertThat(ranking.snapshot).containsExactly(3L, 2L);
+
+        assertThat(ranking.remove(3L)).isTrue();
+        assertThat(ranking.remove(3L)).isFalse();
+        assertThat(ranking.snapshot).containsExactly(2L);
+    }
+
+    @Test
+    void scopedRankingIgnoresOtherCitiesAndTypes() {
+        RankedList city = new RankedList(new Scope(10L, null), 10, List.of(popularity(1, 10, 4.0, 3)));
+        RankedList type = new RankedList(new Scope(null, DestinationType.CULTURAL), 10, List.of());
+
+        assertThat(city.apply(popularity(2, 20, 5.0, 9))).isFalse();
+        assertThat(city.apply(popularity(3, 10, 5.0, 9))).isTrue();
+        assertThat(city.snapshot).containsExactly(3L, 1L);
+        assertThat(type.apply(popularity(3, 10, 5.0, 9))).isFalse();
+        assertThat(type.snapshot).isEmpty();
+    }
+
+    @Test
+    void truncatedRankingOnlyAdmitsWhatSortsAboveItsTail() {
+        // A full head may be followed by destinations it does not hold
+        RankedList ranking = new RankedList(ALL, 3, List.of(
+                popularity(1, 10, 5.0, 10), popularity(2, 10, 4.0, 10), popularity(3, 10, 3.0, 10)));
+
+        assertThat(ranking.apply(popularity(4, 10, 2.0, 10))).isFalse();
+        assertThat(ranking.snapshot).containsExactly(1L, 2L, 3L);
+
+        assertThat(ranking.apply(popularity(5, 10, 4.5, 10))).isTrue();
+        assertThat(ranking.snapshot).containsExactly(1L, 5L, 2L);
+
+        // Falling past the tail drops the entry instead of guessing its place
+        assertThat(ranking.apply(popularity(1, 10, 1.0, 1))).isTrue();
+        assertThat(ranking.snapshot).containsExactly(5L, 2L);
+    }
+
+    @Test
+    void onlyATruncatedRankingDrainedBelowTheServedSizeNeedsReload() {
+        RankedList truncated = new RankedList(ALL, 4, List.of(
+                popularity(1, 10, 5.0, 1), popularity(2, 10, 4.0, 1), popularity(3, 10, 3.0, 1), popularity(4, 10, 2.0, 1)));
+        RankedList complete = new RankedList(ALL, 4, List.of(popularity(1, 10, 5.0, 1)));
+
+        assertThat(truncated.needsReload(2)).isFalse();
+        truncated.remove(1L);
+        truncated.remove(2L);
+        assertThat(truncated.needsReload(2)).isFalse();
+        truncated.remove(3L);
+        assertThat(truncated.needsReload(2)).isTrue();
+
+        assertThat(complete.needsReload(2)).isFalse();
+        complete.remove(1L);
+        assertThat(complete.needsReload(2)).isFalse();
+    }
+
+    @Test
+    void evictedDestinationsAreReadBackInOneQueryBeforeTheNextRead() {
+        Map<Long, DestinationPopularity> table = new ConcurrentHashMap<>();
+        List.of(popularity(1, 10, 4.0, 1), popularity(2, 10, 3.0, 1), popularity(3, 20, 2.0, 1))
+                .forEach(p -> table.put(p.id(), p));
+        List<Collection<Long>> lookups = new ArrayList<>();
+        TwoLevelCacheManager cacheManager =
+                new TwoLevelCacheManager(new TwoLevelCacheProperties(), null, new LocalCacheInvalidationBus());
+        PopularDestinationRanking ranking = new PopularDestinationRanking(repository(table, lookups), cacheManager);
+        ReflectionTestUtils.setField(ranking, "topK", 5);
+
+        assertThat(ranking.topIds(5)).containsExactly(1L, 2L, 3L);
+
+        table.put(3L, popularity(3, 20, 5.0, 2));
+        table.remove(1L);
+        cacheManager.evictTags(List.of("destination:1", "destination:3", "popular-destinations"));
+
+        assertThat(ranking.topIds(5)).containsExactly(3L, 2L);
+        assertThat(ranking.topIdsByCity(20L, 5)).containsExactly(3L);
+        assertThat(lookups).hasSize(1);
+        assertThat(lookups.get(0)).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    /**
+     * Repository answering the two popularity queries from a map, recording the id lookups
+     */
+    private static DestinationRepository repository(Map<Long, DestinationPopularity> table,
+                                                    List<Collection<Long>> lookups) {
+        return (DestinationRepository) Proxy.newProxyInstance(DestinationRepository.class.getClassLoader(),
+                new Class<?>[]{DestinationRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findPopularityByIdIn" -> {
+                        @SuppressWarnings("unchecked")
+                        Collection<Long> ids = (Collection<Long>) args[0];
+                        synchronized (lookups) {
+                            lookups.add(List.copyOf(ids));
+                        }
+                        yield ids.stream().map(table::get).filter(p -> p != null).toList();
+                    }
+                    case "findPopularityRanking" -> table.values().stream()
+                            .filter(p -> new Scope((Long) args[0], (DestinationType) args[1]).matches(p))
+                            .sorted(PopularDestinationRanking.ORDER)
+                            .limit(((Pageable) args[2]).getPageSize())
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static DestinationPopularity popularity(long id, long cityId, double rating, long reviews) {
+        return new DestinationPopularity(id, cityId, DestinationType.HISTORICAL, "Destination " + id, true,
+                rating, reviews);
+    }
+
+    private static DestinationPopularity inactive(DestinationPopularity p) {
+        return new DestinationPopularity(p.id(), p.cityId(), p.type(), p.name(), false, p.averageRating(),
+                p.reviewCount());
+    }
+}
@@ -0,0 +1,116 @@
+package ma.enset.ziyara.review.service;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import ma.enset.ziyara.review.event.RatingsFlushedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RatingAggregationServiceTest {
+
+    private final FlushRecorder jdbcTemplate = new FlushRecorder();
+    private final List<Object> events = new ArrayList<>();
+    private final RatingAggregationService service =
+            new RatingAggregationService(jdbcTemplate, events::add, entityManagerFactory(), null);
+
+    @Test
+    void packedDeltasKeepCountAndSumThroughNegativeValues() {
+        LongAdder adder = new LongAdder();
+        adder.add(RatingAggregationService.pack(5, 1));
+        adder.add(RatingAggregationService.pack(2, 1));
+        adder.add(RatingAggregationService.pack(-5, -1));
+        assertThat(RatingAggregationService.count(adder.sum())).isEqualTo(1);
+        assertThat(RatingAggregationService.sum(adder.sum())).isEqualTo(2);
+
+        adder.add(RatingAggregationService.pack(-2, -1));
+        adder.add(RatingAggregationService.pack(-4, -1));
+        assertThat(RatingAggregationService.count(adder.sum())).isEqualTo(-1);
+        assertThat(RatingAggregationService.sum(adder.sum())).isEqualTo(-4);
+
+        long many = RatingAggregationService.pack(-5, -1) * 100_000;
+        assertThat(RatingAggregationService.count(many)).isEqualTo(-100_000);
+        assertThat(RatingAggregationService.sum(many)).isEqualTo(-500_000);
+    }
+
+    @Test
+    void failedFlushIsRequeuedAndMergedWithLaterDeltas() {
+        service.record(1L, 0, 5, 1);
+        service.record(1L, 0, -3, -1);
+        service.record(1L, 0, 4, 1);
+        jdbcTemplate.failNext = true;
+
+        service.flush();
+        assertThat(events).isEmpty();
+
+        service.record(1L, 0, 2, 1);
+        service.flush();
+
+        // count, sum, count, count, id, epoch
+        assertThat(jdbcTemplate.rows).containsExactly(List.of(2L, 8L, 2L, 2L, 1L, 0L));
+        assertThat(events).containsExactly(new RatingsFlushedEvent(Set.of(1L)));
+
+        jdbcTemplate.rows.clear();
+        service.flush();
+        assertThat(jdbcTemplate.rows).isEmpty();
+    }
+
+    @Test
+    void deltasOfAnEpochARebuildCountedAreDropped() {
+        service.record(1L, 0, 5, 1);
+        service.record(2L, 0, 3, 1);
+        service.record(2L, 1, 4, 1);
+        jdbcTemplate.currentEpoch = 1;
+
+        service.flush();
+
+        assertThat(jdbcTemplate.rows).containsExactlyInAnyOrder(
+                List.of(1L, 5L, 1L, 1L, 1L, 0L), List.of(1L, 3L, 1L, 1L, 2L, 0L), List.of(1L, 4L, 1L, 1L, 2L, 1L));
+        assertThat(events).containsExactly(new RatingsFlushedEvent(Set.of(2L)));
+        Map<?, ?> pending = (Map<?, ?>) ReflectionTestUtils.getField(service, "pending");
+        assertThat(List.copyOf(pending.keySet())).isEqualTo(List.of(new RatingAggregationService.PendingKey(2L, 1)));
+    }
+
+    /**
+     * Applies the flush batch against destinations all in {@link #currentEpoch}
+     */
+    private static class FlushRecorder extends JdbcTemplate {
+
+        final List<List<Object>> rows = new ArrayList<>();
+        boolean failNext;
+        long currentEpoch;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (failNext) {
+                failNext = false;
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            batchArgs.forEach(row -> rows.add(Arrays.asList(row)));
+            return batchArgs.stream().mapToInt(row -> (Long) row[5] == currentEpoch ? 1 : 0).toArray();
+        }
+    }
+
+    private static EntityManagerFactory entityManagerFactory() {
+        Cache cache = (Cache) Proxy.newProxyInstance(Cache.class.getClassLoader(), new Class<?>[]{Cache.class},
+                (proxy, method, args) -> null);
+        return (EntityManagerFactory) Proxy.newProxyInstance(EntityManagerFactory.class.getClassLoader(),
+                new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getCache")) {
+                        return cache;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,16 @@
+#!/bin/bash
+# Starts the layout produced by build-prod.sh with AOT initializers and the CDS archive.
+# Extra arguments are passed to the application, e.g. --server.port=8081
+set -e
+
+if [ ! -f target/prod/application.jsa ]; then
+    echo "❌ target/prod/application.jsa not found. Run ./build-prod.sh first."
+    exit 1
+fi
+
+cd target/prod
+exec java -XX:SharedArchiveFile=application.jsa @classpath.args \
+    -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=prod \
+    $JAVA_OPTS \
+    "$(cat main-class)" "$@"